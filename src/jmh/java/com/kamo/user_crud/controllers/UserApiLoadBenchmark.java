@@ -0,0 +1,111 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.UserCrudApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the user API over HTTP, comparing request handling on Tomcat platform threads with virtual threads.
+ * More client threads than the default Tomcat pool size are used, and the cache is disabled so that every request
+ * blocks on a JDBC call. Rate limiting and load shedding are turned off, as every client thread shares the loopback
+ * address and would otherwise mostly be answered with 429 and 503; any status other than 200 fails the benchmark.
+ * Throughput mode gives requests per second and sample time mode gives the latency percentiles, including p99.
+ * <br/><br/>
+ *
+ * Virtual threads need Java 21, so run this with a Java 21 JDK and the java21 profile:
+ * ./mvnw -Pbenchmark,java21 verify -Djmh.args="UserApiLoadBenchmark -rf json -rff target/jmh-result.json"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class UserApiLoadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private HttpRequest getUserRequest;
+
+    private HttpRequest listUsersRequest;
+
+    /**
+     * Starts the application on a random port in the requested threading mode.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserCrudApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "user-crud.cache.enabled=false",
+                        "user-crud.rate-limit.enabled=false",
+                        "user-crud.load-shedding.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/users";
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        getUserRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/1")).GET().build();
+        listUsersRequest = HttpRequest.newBuilder(URI.create(baseUrl + "?limit=100")).GET().build();
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Measures retrieving a single user.
+     *
+     * @return The HTTP status code
+     */
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        return send(getUserRequest);
+    }
+
+    /**
+     * Measures listing a page of users.
+     *
+     * @return The HTTP status code
+     */
+    @Benchmark
+    public int listUsers() throws IOException, InterruptedException {
+        return send(listUsersRequest);
+    }
+
+    /**
+     * Sends a request and checks that it succeeded, so that rejected or failed requests are not measured as served.
+     *
+     * @param request The request to send
+     * @return The HTTP status code, which is always 200
+     */
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+
+        if (status != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + status + " instead of 200");
+        }
+
+        return status;
+    }
+}
@@ -0,0 +1,64 @@
+package com.kamo.user_crud.entities;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the Jackson serialization and deserialization of User entities, which happens on every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private User user;
+
+    private String json;
+
+    /**
+     * Prepares the reader, the writer and the sample user.
+     */
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        writer = objectMapper.writerFor(User.class);
+        reader = objectMapper.readerFor(User.class);
+
+        user = new User("John", "Doe", "+27 123 456 789");
+        user.setUserId(42L);
+        json = writer.writeValueAsString(user);
+    }
+
+    /**
+     * Measures serializing a user to JSON.
+     *
+     * @return The JSON representation of the user
+     */
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return writer.writeValueAsString(user);
+    }
+
+    /**
+     * Measures deserializing a user from JSON.
+     *
+     * @return The deserialized user
+     */
+    @Benchmark
+    public User deserialize() throws JsonProcessingException {
+        return reader.readValue(json);
+    }
+}
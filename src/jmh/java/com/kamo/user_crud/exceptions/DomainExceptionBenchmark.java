@@ -0,0 +1,70 @@
+package com.kamo.user_crud.exceptions;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for throwing and catching a domain exception, with and without a stack trace, at the call depth of a
+ * service behind a test call and behind the servlet, filter and proxy stack of a request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainExceptionBenchmark {
+
+    @Param({"false", "true"})
+    private boolean stackTraces;
+
+    // A request handled by Tomcat and Spring MVC reaches the service about 120 frames deep
+    @Param({"10", "120"})
+    private int depth;
+
+    /**
+     * Applies the stack trace setting.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        DomainException.setStackTracesEnabled(stackTraces);
+    }
+
+    /**
+     * Restores the default stack trace setting.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DomainException.setStackTracesEnabled(false);
+    }
+
+    /**
+     * Measures throwing a ResourceNotFoundException at the call depth and catching it at the top.
+     *
+     * @return The caught exception
+     */
+    @Benchmark
+    public ResourceNotFoundException throwNotFound() {
+        try {
+            return descend(depth);
+        } catch (ResourceNotFoundException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Calls itself down to the requested depth and throws there.
+     *
+     * @param remaining The number of frames still to descend
+     * @return Nothing, as it always throws
+     */
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private ResourceNotFoundException descend(int remaining) {
+        if (remaining == 0) {
+            throw new ResourceNotFoundException("User with ID 999999999 not found.");
+        }
+
+        return descend(remaining - 1);
+    }
+}
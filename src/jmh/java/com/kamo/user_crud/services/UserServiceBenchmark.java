@@ -0,0 +1,105 @@
+package com.kamo.user_crud.services;
+
+import com.kamo.user_crud.UserCrudApplication;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks for the UserService CRUD operations against the embedded H2 database of the test profile.
+ * The application context is started without a web server, so only the service and persistence layers are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final long MISSING_USER_ID = 999999999L;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private long existingUserId;
+
+    /**
+     * Starts the application context and creates the user read and updated by the benchmarks.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserCrudApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN")
+                .run();
+        userService = context.getBean(UserService.class);
+        existingUserId = userService.addUser(new User("Bench", "Mark", "+27 123 456 789")).getUserId();
+    }
+
+    /**
+     * Closes the application context.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Measures retrieving an existing user.
+     *
+     * @return The retrieved user
+     */
+    @Benchmark
+    public User getUser() {
+        return userService.getUser(existingUserId);
+    }
+
+    /**
+     * Measures looking up a user that does not exist, which the ID filter answers without the database.
+     *
+     * @return The exception thrown for the missing user
+     */
+    @Benchmark
+    public ResourceNotFoundException getMissingUser() {
+        try {
+            userService.getUser(MISSING_USER_ID);
+            throw new IllegalStateException("User " + MISSING_USER_ID + " exists.");
+        } catch (ResourceNotFoundException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Measures updating an existing user.
+     *
+     * @return The updated user
+     */
+    @Benchmark
+    public User updateUser() {
+        return userService.updateUser(existingUserId,
+                new User("Bench", "Mark", "+27 123 456 " + (sequence.incrementAndGet() % 1000)));
+    }
+
+    /**
+     * Measures adding a new user and deleting it again, which keeps the table size constant.
+     *
+     * @return Whether the user was deleted
+     */
+    @Benchmark
+    public boolean addAndDeleteUser() {
+        User user = userService.addUser(new User("Bench", "User" + sequence.incrementAndGet(), "1234567890"));
+
+        return userService.deleteUser(user.getUserId());
+    }
+}
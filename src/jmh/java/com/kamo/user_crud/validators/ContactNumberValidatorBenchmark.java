@@ -0,0 +1,44 @@
+package com.kamo.user_crud.validators;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks for the ContactNumberValidator class, which runs on every create and update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContactNumberValidatorBenchmark {
+
+    // The regex the validator used to be implemented with, kept as the baseline
+    private static final Pattern LEGACY_PATTERN = Pattern.compile("^\\+?\s?(?:[0-9]\s?){6,14}[0-9]$");
+
+    @Param({"+27 123 456 789", "+12 (345) 678-9012", "1234567890", "abc1234567"})
+    private String contactNumber;
+
+    /**
+     * Measures validating a single contact number.
+     *
+     * @return Whether the contact number is valid
+     */
+    @Benchmark
+    public boolean isValid() {
+        return ContactNumberValidator.isValid(contactNumber);
+    }
+
+    /**
+     * Measures validating a single contact number with the regex-based implementation the validator used to have.
+     *
+     * @return Whether the contact number is valid
+     */
+    @Benchmark
+    public boolean isValidLegacyRegex() {
+        return LEGACY_PATTERN.matcher(contactNumber.replaceAll("[\s\\(\\)-]", "")).matches();
+    }
+}
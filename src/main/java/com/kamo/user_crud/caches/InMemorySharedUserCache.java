@@ -0,0 +1,63 @@
+package com.kamo.user_crud.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kamo.user_crud.entities.User;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The InMemorySharedUserCache class is a SharedUserCache held in the JVM, in a bounded Caffeine cache with a time
+ * to live. It is shared by the caches of the nodes that run in the same JVM, which makes it suitable for a single
+ * node and for tests.
+ */
+public class InMemorySharedUserCache implements SharedUserCache {
+
+    private final Cache<Long, User> cache;
+
+    /**
+     * Constructs a new InMemorySharedUserCache with the specified settings.
+     *
+     * @param maximumSize The maximum number of users held in the cache
+     * @param timeToLive How long an entry stays in the cache after it is written
+     */
+    public InMemorySharedUserCache(long maximumSize, Duration timeToLive) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    /**
+     * Looks up a user in the cache.
+     *
+     * @param userId The ID of the user
+     * @return The cached user, or an empty Optional on a miss
+     */
+    @Override
+    public Optional<User> get(long userId) {
+        return Optional.ofNullable(cache.getIfPresent(userId));
+    }
+
+    /**
+     * Stores a user, unless a newer copy of it is already stored.
+     *
+     * @param user The user to be cached
+     */
+    @Override
+    public void put(User user) {
+        cache.asMap().merge(user.getUserId(), user, UserCache::newer);
+    }
+
+    /**
+     * Removes a user if the stored copy is older than the change.
+     *
+     * @param invalidation The change that makes older copies stale
+     */
+    @Override
+    public void evict(UserInvalidation invalidation) {
+        cache.asMap().computeIfPresent(invalidation.userId(),
+                (userId, cached) -> invalidation.evicts(cached.getVersion()) ? null : cached);
+    }
+}
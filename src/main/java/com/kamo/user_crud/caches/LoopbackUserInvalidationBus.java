@@ -0,0 +1,45 @@
+package com.kamo.user_crud.caches;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The LoopbackUserInvalidationBus class delivers invalidations to the subscribers in the same JVM, synchronously on
+ * the publishing thread. It is the default transport, for a single node, and lets tests run several caches as if
+ * they were on separate nodes.
+ */
+public class LoopbackUserInvalidationBus implements UserInvalidationBus {
+    private static final Logger logger = LoggerFactory.getLogger(LoopbackUserInvalidationBus.class);
+
+    private final List<Consumer<UserInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Delivers an invalidation to every subscriber. A failing subscriber does not keep the others from receiving it.
+     *
+     * @param invalidation The invalidation
+     */
+    @Override
+    public void publish(UserInvalidation invalidation) {
+        for (Consumer<UserInvalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                logger.error("Failed to deliver {}", invalidation, e);
+            }
+        }
+    }
+
+    /**
+     * Registers a listener for the invalidations published from now on.
+     *
+     * @param listener The listener
+     */
+    @Override
+    public void subscribe(Consumer<UserInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,39 @@
+package com.kamo.user_crud.caches;
+
+import com.kamo.user_crud.entities.User;
+
+import java.util.Optional;
+
+/**
+ * The SharedUserCache interface is the second tier of the UserCache, shared by every node, which is consulted when
+ * a user is not in the local cache of a node and before the database.
+ * <br/><br/>
+ *
+ * Implementations compare versions rather than overwrite: a put never replaces a newer copy of a user, and an
+ * eviction only removes copies older than the change it reports. The {@link InMemorySharedUserCache} keeps the tier
+ * in the JVM; to share it between nodes, declare a bean of this type backed by a networked store.
+ */
+public interface SharedUserCache {
+
+    /**
+     * Looks up a user in the shared tier.
+     *
+     * @param userId The ID of the user
+     * @return The cached user, or an empty Optional on a miss
+     */
+    Optional<User> get(long userId);
+
+    /**
+     * Stores a user loaded from the database, unless a newer copy of it is already stored.
+     *
+     * @param user The user to be cached
+     */
+    void put(User user);
+
+    /**
+     * Removes a user if the stored copy is older than the specified version.
+     *
+     * @param invalidation The change that makes older copies stale
+     */
+    void evict(UserInvalidation invalidation);
+}
@@ -0,0 +1,333 @@
+package com.kamo.user_crud.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.kamo.user_crud.entities.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The UserCache class is a bounded, in-process read-through cache of User entities keyed by user ID.
+ * Entries are evicted when the cache is full or once their time to live has passed, and hit, miss and
+ * eviction counts are recorded and published as cache metrics named "users". When disabled, every lookup is a miss
+ * and nothing is stored.
+ * <br/><br/>
+ *
+ * Readers take a {@link #stamp()} before loading a user from the database and pass it to {@link #put(User, long)},
+ * so a value loaded before a concurrent write is never left in the cache after that write invalidates it.
+ * <br/><br/>
+ *
+ * When the application runs on several nodes, this cache is the near tier of a two-tier cache. Users missing from it
+ * are looked up in the {@link SharedUserCache}, if one is configured, before the database, and every write
+ * broadcasts a {@link UserInvalidation} on the {@link UserInvalidationBus}, so that the other nodes evict their
+ * copies as well. Invalidations carry the version the user has after the write, and a copy is only evicted if it is
+ * older, so an invalidation that arrives late never removes newer data; puts likewise never replace a newer copy.
+ */
+@Component
+public class UserCache implements MeterBinder {
+
+    private final Cache<Long, User> cache;
+
+    private final SharedUserCache sharedCache;
+
+    private final UserInvalidationBus invalidationBus;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder remoteInvalidations = new LongAdder();
+
+    /**
+     * Constructs a new UserCache with the specified settings.
+     *
+     * @param enabled Whether the cache stores entries at all
+     * @param maximumSize The maximum number of users held in the cache
+     * @param timeToLive How long an entry stays in the cache after it is written
+     * @param sharedCache The shared tier, if one is configured
+     * @param invalidationBus The transport invalidations are broadcast on
+     */
+    @Autowired
+    public UserCache(@Value("${user-crud.cache.enabled:true}") boolean enabled,
+                     @Value("${user-crud.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${user-crud.cache.time-to-live:10m}") Duration timeToLive,
+                     ObjectProvider<SharedUserCache> sharedCache,
+                     UserInvalidationBus invalidationBus) {
+        this(enabled, maximumSize, timeToLive, sharedCache.getIfAvailable(), invalidationBus);
+    }
+
+    /**
+     * Constructs a new UserCache on a single node, without a shared tier.
+     *
+     * @param enabled Whether the cache stores entries at all
+     * @param maximumSize The maximum number of users held in the cache
+     * @param timeToLive How long an entry stays in the cache after it is written
+     */
+    UserCache(boolean enabled, long maximumSize, Duration timeToLive) {
+        this(enabled, maximumSize, timeToLive, (SharedUserCache) null, null);
+    }
+
+    /**
+     * Constructs a new UserCache with the specified tiers.
+     *
+     * @param enabled Whether the cache stores entries at all
+     * @param maximumSize The maximum number of users held in the cache
+     * @param timeToLive How long an entry stays in the cache after it is written
+     * @param sharedCache The shared tier, or null to have none
+     * @param invalidationBus The transport invalidations are broadcast on, or null to not broadcast them
+     */
+    UserCache(boolean enabled, long maximumSize, Duration timeToLive, SharedUserCache sharedCache,
+              UserInvalidationBus invalidationBus) {
+        this.cache = enabled
+                ? Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(timeToLive)
+                        .recordStats()
+                        .build()
+                : null;
+        this.sharedCache = enabled ? sharedCache : null;
+        this.invalidationBus = invalidationBus;
+
+        // A node that does not cache still broadcasts its writes, but has nothing to evict
+        if (enabled && invalidationBus != null) {
+            invalidationBus.subscribe(this::onInvalidation);
+        }
+    }
+
+    /**
+     * Returns whether the cache stores entries.
+     *
+     * @return True if the cache is enabled, false otherwise
+     */
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Looks up a user in the cache, and then in the shared tier. A user found in the shared tier is copied to this
+     * cache.
+     *
+     * @param userId The ID of the user
+     * @return The cached user, or an empty Optional on a miss
+     */
+    public Optional<User> get(Long userId) {
+        if (cache == null || userId == null) {
+            return Optional.empty();
+        }
+
+        User user = cache.getIfPresent(userId);
+
+        if (user != null || sharedCache == null) {
+            return Optional.ofNullable(user);
+        }
+
+        long stamp = stamp();
+        Optional<User> sharedUser = sharedCache.get(userId);
+
+        sharedUser.ifPresent(shared -> putLocal(shared, stamp));
+        return sharedUser;
+    }
+
+    /**
+     * Returns a stamp to be taken before loading a user from the database and passed to {@link #put(User, long)}.
+     *
+     * @return The current invalidation stamp
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Stores a user loaded from the database in both tiers, unless an invalidation happened since the stamp was
+     * taken.
+     *
+     * @param user The user to be cached
+     * @param stamp The stamp taken before the user was loaded
+     */
+    public void put(User user, long stamp) {
+        if (cache == null || user == null || user.getUserId() == null) {
+            return;
+        }
+
+        putLocal(user, stamp);
+
+        if (sharedCache != null) {
+            sharedCache.put(user);
+
+            // As in this cache, but only the copy just stored, or an older one, is removed from the shared tier
+            if (invalidations.get() != stamp) {
+                sharedCache.evict(new UserInvalidation(user.getUserId(),
+                        user.getVersion() != null ? user.getVersion() + 1 : UserInvalidation.ANY_VERSION, nodeId));
+            }
+        }
+    }
+
+    /**
+     * Removes a user from the cache after a write whose resulting version is not known, such as a delete.
+     *
+     * @param userId The ID of the user to be removed
+     * @see #invalidate(Long, Long)
+     */
+    public void invalidate(Long userId) {
+        invalidate(userId, null);
+    }
+
+    /**
+     * Removes a user from both tiers and broadcasts the invalidation to the other nodes, which evict their copies
+     * older than the version. It is called after every write, including creates, which lets the other nodes learn
+     * of new users. When called inside a transaction, the user is only removed from this cache until the transaction
+     * completes. If it commits, the user is removed from both tiers again, so that a read racing with the write cannot
+     * re-cache the old state, and the invalidation is broadcast then. If it rolls back, nothing was written, so the
+     * shared tier and the other nodes are left alone and only this cache drops the copy it may have read meanwhile.
+     *
+     * @param userId The ID of the user to be removed
+     * @param version The version the user has after the write, or null if it is not known
+     */
+    public void invalidate(Long userId, Long version) {
+        if (userId == null || (cache == null && invalidationBus == null)) {
+            return;
+        }
+
+        UserInvalidation invalidation = new UserInvalidation(userId,
+                version != null ? version : UserInvalidation.ANY_VERSION, nodeId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictLocal(userId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(invalidation);
+                    publish(invalidation);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        evictLocal(userId);
+                    }
+                }
+            });
+        } else {
+            evict(invalidation);
+            publish(invalidation);
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the cache.
+     *
+     * @return The cache statistics, or empty statistics if the cache is disabled
+     */
+    public CacheStats stats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    /**
+     * Publishes the size, hit, miss and eviction metrics of the cache, and the number of invalidations received from
+     * other nodes, to the specified registry.
+     *
+     * @param registry The MeterRegistry the metrics are registered in
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "users");
+            FunctionCounter.builder("user.cache.remote.invalidations", remoteInvalidations, LongAdder::sum)
+                    .description("The number of user invalidations received from other nodes")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Returns the newer of two copies of a user, preferring the given one when their versions cannot be compared.
+     *
+     * @param cached The copy already cached
+     * @param given The copy to be cached
+     * @return The copy to keep
+     */
+    static User newer(User cached, User given) {
+        if (cached.getVersion() == null || given.getVersion() == null) {
+            return given;
+        }
+
+        return given.getVersion() >= cached.getVersion() ? given : cached;
+    }
+
+    /**
+     * Applies an invalidation broadcast by another node, evicting the copies older than its version from both tiers.
+     *
+     * @param invalidation The invalidation
+     */
+    private void onInvalidation(UserInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+
+        remoteInvalidations.increment();
+        invalidations.incrementAndGet();
+        cache.asMap().computeIfPresent(invalidation.userId(),
+                (userId, cached) -> invalidation.evicts(cached.getVersion()) ? null : cached);
+
+        if (sharedCache != null) {
+            sharedCache.evict(invalidation);
+        }
+    }
+
+    /**
+     * Stores a user in this cache, unless a newer copy is cached or an invalidation happened since the stamp was
+     * taken.
+     *
+     * @param user The user to be cached
+     * @param stamp The stamp taken before the user was loaded
+     */
+    private void putLocal(User user, long stamp) {
+        cache.asMap().merge(user.getUserId(), user, UserCache::newer);
+
+        // A write may have invalidated this user while it was being loaded, so drop the possibly stale copy
+        if (invalidations.get() != stamp) {
+            cache.invalidate(user.getUserId());
+        }
+    }
+
+    private void evict(UserInvalidation invalidation) {
+        if (cache == null) {
+            return;
+        }
+
+        evictLocal(invalidation.userId());
+
+        if (sharedCache != null) {
+            sharedCache.evict(invalidation);
+        }
+    }
+
+    private void evictLocal(Long userId) {
+        if (cache == null) {
+            return;
+        }
+
+        invalidations.incrementAndGet();
+        cache.invalidate(userId);
+    }
+
+    private void publish(UserInvalidation invalidation) {
+        if (invalidationBus != null) {
+            invalidationBus.publish(invalidation);
+        }
+    }
+}
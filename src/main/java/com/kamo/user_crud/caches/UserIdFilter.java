@@ -0,0 +1,353 @@
+package com.kamo.user_crud.caches;
+
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.repositories.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The UserIdFilter class is a Bloom filter of the IDs of the users that exist, which answers lookups of IDs that
+ * definitely do not exist without querying the database.
+ * <br/><br/>
+ *
+ * The filter is sized for the expected number of users at the configured false positive rate, and filled from the
+ * database once the application is ready; until then every ID might exist. New users are added by the services in
+ * the transaction that creates them, and users created on other nodes are added when their invalidation arrives on
+ * the {@link UserInvalidationBus}. IDs are drawn from the sequence in blocks of {@link User#ID_ALLOCATION_SIZE} per
+ * node, so an ID above the highest one the filter holds may have been created on another node before its invalidation
+ * arrived, but only within one block per node of it: IDs in that window are looked up in the database, and IDs beyond
+ * it, such as those probed by a scraper counting past the newest user, are reported as definitely absent. As a node
+ * may also create an ID below the highest one another node holds, the filter is only correct on a single node, or
+ * when every node shares a cross-node bus, and is off by default.
+ * A Bloom filter cannot forget, so deleted IDs remain possible members: lookups of them still reach the database, and
+ * the false positive rate grows with the number of users ever created. The estimated false positive rate, the false
+ * positives observed and the memory used are published as metrics, so that the expected number of users can be raised
+ * before the filter stops paying off.
+ */
+@Component
+@Profile("!reactive")
+public class UserIdFilter implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(UserIdFilter.class);
+
+    private static final int LOAD_PAGE_SIZE = 10000;
+
+    private final UserRepository userRepository;
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private final long unseenWindow;
+
+    private final AtomicLong setBits = new AtomicLong();
+
+    private final LongAdder absent = new LongAdder();
+
+    private final LongAdder present = new LongAdder();
+
+    private final LongAdder unseen = new LongAdder();
+
+    private final AtomicLong highestUserId = new AtomicLong();
+
+    private final LongAdder falsePositives = new LongAdder();
+
+    private volatile boolean loaded;
+
+    /**
+     * Constructs a new UserIdFilter with the specified settings.
+     *
+     * @param userRepository The repository the filter is loaded from
+     * @param invalidationBus The bus on which the users created on other nodes are announced
+     * @param enabled Whether lookups are filtered at all
+     * @param expectedUsers The number of users the filter is sized for
+     * @param falsePositiveRate The rate at which IDs that do not exist are reported as possible members, at the
+     *                          expected number of users
+     * @param nodes The number of nodes creating users against the same database
+     */
+    @Autowired
+    public UserIdFilter(UserRepository userRepository, UserInvalidationBus invalidationBus,
+                        @Value("${user-crud.id-filter.enabled:false}") boolean enabled,
+                        @Value("${user-crud.id-filter.expected-users:1000000}") long expectedUsers,
+                        @Value("${user-crud.id-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                        @Value("${user-crud.id-filter.nodes:1}") int nodes) {
+        this(userRepository, enabled, expectedUsers, falsePositiveRate, nodes);
+
+        if (enabled) {
+            invalidationBus.subscribe(invalidation -> add(invalidation.userId()));
+        }
+    }
+
+    /**
+     * Constructs a new UserIdFilter that is not subscribed to other nodes.
+     *
+     * @param userRepository The repository the filter is loaded from
+     * @param enabled Whether lookups are filtered at all
+     * @param expectedUsers The number of users the filter is sized for
+     * @param falsePositiveRate The rate at which IDs that do not exist are reported as possible members, at the
+     *                          expected number of users
+     */
+    UserIdFilter(UserRepository userRepository, boolean enabled, long expectedUsers, double falsePositiveRate) {
+        this(userRepository, enabled, expectedUsers, falsePositiveRate, 1);
+    }
+
+    /**
+     * Constructs a new UserIdFilter for the specified number of nodes that is not subscribed to other nodes.
+     *
+     * @param userRepository The repository the filter is loaded from
+     * @param enabled Whether lookups are filtered at all
+     * @param expectedUsers The number of users the filter is sized for
+     * @param falsePositiveRate The rate at which IDs that do not exist are reported as possible members, at the
+     *                          expected number of users
+     * @param nodes The number of nodes creating users against the same database
+     */
+    UserIdFilter(UserRepository userRepository, boolean enabled, long expectedUsers, double falsePositiveRate,
+                 int nodes) {
+        if (expectedUsers < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || nodes < 1) {
+            throw new IllegalArgumentException("The expected number of users and the number of nodes must be "
+                    + "positive and the false positive rate between 0 and 1.");
+        }
+
+        // The optimal size and number of hash functions for n elements at rate p: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long optimalBits = (long) Math.ceil(-expectedUsers * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+
+        this.userRepository = userRepository;
+        this.words = enabled ? new AtomicLongArray((int) ((optimalBits + 63) / 64)) : null;
+        this.bitCount = enabled ? words.length() * 64L : 0;
+        this.hashCount = Math.max(1, (int) Math.round((double) optimalBits / expectedUsers * Math.log(2)));
+        this.unseenWindow = (long) User.ID_ALLOCATION_SIZE * nodes;
+    }
+
+    /**
+     * Returns whether lookups are filtered.
+     *
+     * @return True if the filter is enabled, false otherwise
+     */
+    public boolean isEnabled() {
+        return words != null;
+    }
+
+    /**
+     * Returns whether a user might exist.
+     *
+     * @param userId The ID of the user
+     * @return False if the user definitely does not exist, true otherwise
+     * @see #lookup(long)
+     */
+    public boolean mightContain(long userId) {
+        return lookup(userId) != Membership.ABSENT;
+    }
+
+    /**
+     * Looks up whether a user might exist. An {@link Membership#ABSENT} answer is definite; any other has to be
+     * confirmed by the database, and a {@link Membership#POSSIBLE} one is reported back with
+     * {@link #recordFalsePositive()} if the user turns out not to exist.
+     *
+     * @param userId The ID of the user
+     * @return How the filter answered the lookup
+     */
+    public Membership lookup(long userId) {
+        if (words == null || !loaded) {
+            return Membership.UNKNOWN;
+        }
+
+        long highest = highestUserId.get();
+
+        if (userId > highest) {
+            if (userId - highest > unseenWindow) {
+                absent.increment();
+                return Membership.ABSENT;
+            }
+
+            unseen.increment();
+            return Membership.UNKNOWN;
+        }
+
+        long hash = mix(userId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                absent.increment();
+                return Membership.ABSENT;
+            }
+        }
+
+        present.increment();
+        return Membership.POSSIBLE;
+    }
+
+    /**
+     * Adds the ID of a user that exists, or is about to.
+     *
+     * @param userId The ID of the user
+     */
+    public void add(long userId) {
+        if (words == null) {
+            return;
+        }
+
+        long hash = mix(userId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            while (true) {
+                long word = words.get(index);
+
+                if ((word & mask) != 0) {
+                    break;
+                }
+
+                if (words.compareAndSet(index, word, word | mask)) {
+                    setBits.incrementAndGet();
+                    break;
+                }
+            }
+        }
+
+        // Raised once the bits are set, so that a lookup below it never misses the ID
+        highestUserId.accumulateAndGet(userId, Math::max);
+    }
+
+    /**
+     * Records that a user the filter answered as {@link Membership#POSSIBLE} does not exist.
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * Fills the filter with the IDs of every user, a page at a time, and starts answering lookups once it is done.
+     * Users created while it runs are added by the services, so none are missed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (words == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long count = 0;
+        List<Long> userIds = userRepository.findUserIdsAfter(0L, Limit.of(LOAD_PAGE_SIZE));
+
+        while (!userIds.isEmpty()) {
+            userIds.forEach(this::add);
+            count += userIds.size();
+            userIds = userRepository.findUserIdsAfter(userIds.get(userIds.size() - 1), Limit.of(LOAD_PAGE_SIZE));
+        }
+
+        loaded = true;
+        logger.info("Loaded {} user IDs into the ID filter ({} KiB, {} hash functions) in {} ms", count,
+                getMemoryBytes() / 1024, hashCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns the estimated false positive rate at the current fill of the filter.
+     *
+     * @return The probability that an ID that does not exist is reported as a possible member
+     */
+    public double getEstimatedFalsePositiveRate() {
+        return words != null ? Math.pow((double) setBits.get() / bitCount, hashCount) : 0;
+    }
+
+    /**
+     * Returns the memory used by the bits of the filter.
+     *
+     * @return The size of the filter in bytes
+     */
+    public long getMemoryBytes() {
+        return words != null ? words.length() * 8L : 0;
+    }
+
+    /**
+     * Publishes the estimated false positive rate, the memory used, and the lookups answered, the lookups just above
+     * the highest ID held and the false positives observed, to the specified registry.
+     *
+     * @param registry The MeterRegistry the metrics are registered in
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (words == null) {
+            return;
+        }
+
+        Gauge.builder("user.id.filter.false.positive.rate", this, UserIdFilter::getEstimatedFalsePositiveRate)
+                .description("The estimated rate at which IDs that do not exist reach the database")
+                .register(registry);
+        Gauge.builder("user.id.filter.memory", this, UserIdFilter::getMemoryBytes)
+                .description("The memory used by the user ID filter")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        FunctionCounter.builder("user.id.filter.lookups", absent, LongAdder::sum)
+                .description("The number of user lookups checked against the ID filter")
+                .tag("result", "absent")
+                .register(registry);
+        FunctionCounter.builder("user.id.filter.lookups", present, LongAdder::sum)
+                .description("The number of user lookups checked against the ID filter")
+                .tag("result", "present")
+                .register(registry);
+        FunctionCounter.builder("user.id.filter.lookups", unseen, LongAdder::sum)
+                .description("The number of user lookups checked against the ID filter")
+                .tag("result", "unseen")
+                .register(registry);
+        FunctionCounter.builder("user.id.filter.false.positives", falsePositives, LongAdder::sum)
+                .description("The number of lookups the ID filter let through for users that do not exist")
+                .register(registry);
+    }
+
+    /**
+     * Scrambles a value into a 64-bit hash (the finalizer of MurmurHash3). The halves of the hash of an ID seed the
+     * hash functions of this filter; {@link UserNameIndex} finishes its name hashes with it as well.
+     *
+     * @param value The value, such as an ID
+     * @return The hash
+     */
+    static long mix(long value) {
+        long hash = value;
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * The answers of the filter to a lookup.
+     */
+    public enum Membership {
+        /** The user definitely does not exist. */
+        ABSENT,
+        /** The bits of the ID are set, so the user exists unless this is a false positive. */
+        POSSIBLE,
+        /** The filter cannot tell, as it is disabled or still loading, or the ID is above the highest one it holds. */
+        UNKNOWN
+    }
+}
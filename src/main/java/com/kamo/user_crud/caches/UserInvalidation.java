@@ -0,0 +1,29 @@
+package com.kamo.user_crud.caches;
+
+/**
+ * The UserInvalidation record is broadcast on the UserInvalidationBus when a user is changed or deleted, so that
+ * every node evicts the copies of the user that are older than the change.
+ *
+ * @param userId The ID of the changed user
+ * @param version The version the user has after the change; cached copies at this version or later are kept, so
+ *                a late invalidation never evicts newer data. {@link #ANY_VERSION} evicts every copy, for deletes and
+ *                for writes whose resulting version is not known.
+ * @param origin The ID of the node that made the change, which ignores its own invalidations
+ */
+public record UserInvalidation(long userId, long version, String origin) {
+
+    /**
+     * The version of an invalidation that evicts every cached copy of the user.
+     */
+    public static final long ANY_VERSION = Long.MAX_VALUE;
+
+    /**
+     * Returns whether a cached copy of the user is older than the change and must be evicted.
+     *
+     * @param cachedVersion The version of the cached copy, or null if it has none
+     * @return True if the copy is stale, false if it already reflects the change
+     */
+    public boolean evicts(Long cachedVersion) {
+        return cachedVersion == null || cachedVersion < version;
+    }
+}
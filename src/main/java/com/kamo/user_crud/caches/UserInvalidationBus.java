@@ -0,0 +1,29 @@
+package com.kamo.user_crud.caches;
+
+import java.util.function.Consumer;
+
+/**
+ * The UserInvalidationBus interface is the transport that broadcasts user invalidations between the nodes running
+ * the application, so that a write on one node evicts the users cached by all of them.
+ * <br/><br/>
+ *
+ * Delivery may be asynchronous and out of order; the versions carried by the invalidations make applying them
+ * idempotent. The {@link LoopbackUserInvalidationBus} delivers within the JVM, which is enough for a single node and
+ * for tests; to run several nodes, declare a bean of this type backed by a message broker.
+ */
+public interface UserInvalidationBus {
+
+    /**
+     * Broadcasts an invalidation to every subscriber, including the ones on the publishing node.
+     *
+     * @param invalidation The invalidation
+     */
+    void publish(UserInvalidation invalidation);
+
+    /**
+     * Registers a listener for the invalidations published from now on.
+     *
+     * @param listener The listener
+     */
+    void subscribe(Consumer<UserInvalidation> listener);
+}
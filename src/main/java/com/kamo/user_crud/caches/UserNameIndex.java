@@ -0,0 +1,371 @@
+package com.kamo.user_crud.caches;
+
+import com.kamo.user_crud.repositories.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * The UserNameIndex class is an in-memory set of the (first name, last name) pairs in use, which lets creates skip
+ * the duplicate check against the database for names that are not taken.
+ * <br/><br/>
+ *
+ * Each pair is stored as a 64-bit hash in an open-addressing table of primitive longs with linear probing, which
+ * takes 16 to 32 bytes per user instead of the two strings and the hash set entry of a {@code HashSet<String>}. The
+ * names are hashed exactly as the unique constraint compares them, without folding case or trimming, so the index
+ * never reports a name as taken that the database would accept. It is filled by streaming the names from the database
+ * once the application is ready, and kept up to date by the services as users are written.
+ * <br/><br/>
+ *
+ * The index is a hint in both directions, and the unique constraint remains the final guard. A name it contains may
+ * belong to a user deleted since, on this node or another, or share its hash with another name, so callers confirm
+ * it with the database and {@link #remove} it if it is stale. A name it does not contain may have been taken on
+ * another node, which the constraint rejects on insert, after which the caller {@link #add}s it.
+ */
+@Component
+@Profile("!reactive")
+public class UserNameIndex implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(UserNameIndex.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // A hash of 0 marks an empty slot, so a name that hashes to 0 is stored as 1
+    private static final long EMPTY = 0;
+
+    private final UserRepository userRepository;
+
+    private final TransactionOperations readOnlyTransaction;
+
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder staleEntries = new LongAdder();
+
+    private long[] keys;
+
+    private int size;
+
+    private volatile boolean loaded;
+
+    /**
+     * Constructs a new UserNameIndex with the specified settings.
+     *
+     * @param userRepository The repository the index is loaded from
+     * @param transactionManager The transaction manager the names are streamed in a read-only transaction with
+     * @param enabled Whether the index is kept at all
+     */
+    @Autowired
+    public UserNameIndex(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                         @Value("${user-crud.name-index.enabled:true}") boolean enabled) {
+        this(userRepository, readOnly(transactionManager), enabled);
+    }
+
+    /**
+     * Constructs a new UserNameIndex that loads the names with the specified transaction operations.
+     *
+     * @param userRepository The repository the index is loaded from
+     * @param readOnlyTransaction The transaction the names are streamed in
+     * @param enabled Whether the index is kept at all
+     */
+    UserNameIndex(UserRepository userRepository, TransactionOperations readOnlyTransaction, boolean enabled) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.enabled = enabled;
+        this.keys = enabled ? new long[INITIAL_CAPACITY] : null;
+    }
+
+    /**
+     * Returns whether the index holds every name in the database, as of when it was loaded. Until then, or if the
+     * index is disabled, a name missing from it says nothing about the database.
+     *
+     * @return True if the index is enabled and loaded, false otherwise
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns whether a name is in the index. A true answer has to be confirmed by the database, and a false answer
+     * is only meaningful once the index is {@link #isLoaded() loaded}.
+     *
+     * @param firstName The first name
+     * @param lastName The last name
+     * @return True if the name is probably taken, false otherwise
+     */
+    public boolean contains(String firstName, String lastName) {
+        if (!enabled || firstName == null || lastName == null) {
+            return false;
+        }
+
+        long key = key(firstName, lastName);
+
+        lock.readLock().lock();
+        try {
+            return keys[slotOf(keys, key)] == key;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a name that is taken, or is about to be. Names with a missing part are not added, as the unique constraint
+     * does not apply to them.
+     *
+     * @param firstName The first name
+     * @param lastName The last name
+     */
+    public void add(String firstName, String lastName) {
+        if (!enabled || firstName == null || lastName == null) {
+            return;
+        }
+
+        long key = key(firstName, lastName);
+
+        lock.writeLock().lock();
+        try {
+            int slot = slotOf(keys, key);
+
+            if (keys[slot] == key) {
+                return;
+            }
+
+            keys[slot] = key;
+            size++;
+
+            // Linear probing degrades quickly past half full
+            if (size * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a name that is no longer taken, such as one the database did not confirm.
+     *
+     * @param firstName The first name
+     * @param lastName The last name
+     */
+    public void remove(String firstName, String lastName) {
+        if (!enabled || firstName == null || lastName == null) {
+            return;
+        }
+
+        long key = key(firstName, lastName);
+
+        lock.writeLock().lock();
+        try {
+            int gap = slotOf(keys, key);
+
+            if (keys[gap] != key) {
+                return;
+            }
+
+            // Shift back the entries that probed past the removed one, so that lookups need no tombstones
+            int mask = keys.length - 1;
+            int next = (gap + 1) & mask;
+
+            while (keys[next] != EMPTY) {
+                int home = (int) keys[next] & mask;
+
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    gap = next;
+                }
+
+                next = (next + 1) & mask;
+            }
+
+            keys[gap] = EMPTY;
+            size--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a name the index contained but the database did not confirm, and counts it as stale.
+     *
+     * @param firstName The first name
+     * @param lastName The last name
+     */
+    public void removeStale(String firstName, String lastName) {
+        staleEntries.increment();
+        remove(firstName, lastName);
+    }
+
+    /**
+     * Fills the index by streaming the name of every user from the database, and marks it loaded once it is done.
+     * Users created while it runs are added by the services, so none are missed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Long count = readOnlyTransaction.execute(status -> {
+            long added = 0;
+
+            try (Stream<Object[]> names = userRepository.streamAllNames()) {
+                for (Iterator<Object[]> iterator = names.iterator(); iterator.hasNext(); added++) {
+                    Object[] name = iterator.next();
+
+                    add((String) name[0], (String) name[1]);
+                }
+            }
+
+            return added;
+        });
+
+        loaded = true;
+        logger.info("Loaded {} user names into the name index ({} KiB) in {} ms", count, getMemoryBytes() / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns the number of names in the index.
+     *
+     * @return The number of names
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the memory used by the table of the index.
+     *
+     * @return The size of the table in bytes
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return keys != null ? keys.length * 8L : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Publishes the number of names, the memory used and the number of stale names removed to the specified registry.
+     *
+     * @param registry The MeterRegistry the metrics are registered in
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+
+        Gauge.builder("user.name.index.size", this, UserNameIndex::size)
+                .description("The number of user names in the name index")
+                .register(registry);
+        Gauge.builder("user.name.index.memory", this, UserNameIndex::getMemoryBytes)
+                .description("The memory used by the user name index")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        FunctionCounter.builder("user.name.index.stale", staleEntries, LongAdder::sum)
+                .description("The number of names in the name index that the database did not confirm")
+                .register(registry);
+    }
+
+    /**
+     * Doubles the table and reinserts every name. The caller must hold the write lock.
+     *
+     * @param capacity The new capacity, a power of two
+     */
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+
+        for (long key : keys) {
+            if (key != EMPTY) {
+                resized[slotOf(resized, key)] = key;
+            }
+        }
+
+        keys = resized;
+    }
+
+    /**
+     * Finds the slot that holds a key, or the empty slot it would be inserted in.
+     *
+     * @param table The table, whose length is a power of two and which has at least one empty slot
+     * @param key The key
+     * @return The index of the slot
+     */
+    private static int slotOf(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = (int) key & mask;
+
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Hashes a name into a 64-bit key, with FNV-1a over the characters of both parts and the length of the first, so
+     * that moving characters between the parts changes the key, and the MurmurHash3 finalizer to spread the bits.
+     *
+     * @param firstName The first name
+     * @param lastName The last name
+     * @return The key, which is never {@link #EMPTY}
+     */
+    static long key(String firstName, String lastName) {
+        long hash = 0xcbf29ce484222325L;
+
+        hash = (hash ^ firstName.length()) * 0x100000001b3L;
+
+        for (int i = 0; i < firstName.length(); i++) {
+            hash = (hash ^ firstName.charAt(i)) * 0x100000001b3L;
+        }
+
+        for (int i = 0; i < lastName.length(); i++) {
+            hash = (hash ^ lastName.charAt(i)) * 0x100000001b3L;
+        }
+
+        hash = UserIdFilter.mix(hash);
+        return hash != EMPTY ? hash : 1;
+    }
+
+    /**
+     * Creates the read-only transaction the names are streamed in.
+     *
+     * @param transactionManager The transaction manager
+     * @return The transaction operations
+     */
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+}
@@ -0,0 +1,55 @@
+package com.kamo.user_crud.configurations;
+
+import com.kamo.user_crud.caches.InMemorySharedUserCache;
+import com.kamo.user_crud.caches.LoopbackUserInvalidationBus;
+import com.kamo.user_crud.caches.SharedUserCache;
+import com.kamo.user_crud.caches.UserInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * The CacheAutoConfiguration class provides the default tiers and transport of the UserCache.
+ * <br/><br/>
+ *
+ * Invalidations are delivered within the JVM, and there is no shared tier unless user-crud.cache.shared.enabled is
+ * set, in which case it is held in the JVM as well. To run several nodes, declare a UserInvalidationBus bean backed by
+ * a message broker, and optionally a SharedUserCache bean backed by a networked store; they replace these defaults.
+ * The defaults are registered as an auto-configuration, listed in
+ * META-INF/spring/org.springframework.boot.autoconfigure.AutoConfiguration.imports, so that they are only considered
+ * after every bean of the application has been registered and reliably back off when one is declared. The component
+ * scan leaves this class out for the same reason.
+ */
+@AutoConfiguration
+public class CacheAutoConfiguration {
+
+    /**
+     * Creates the in-JVM invalidation bus, unless another transport is declared.
+     *
+     * @return The invalidation bus
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public UserInvalidationBus userInvalidationBus() {
+        return new LoopbackUserInvalidationBus();
+    }
+
+    /**
+     * Creates the in-JVM shared tier, if it is enabled and no other shared tier is declared.
+     *
+     * @param maximumSize The maximum number of users held in the shared tier
+     * @param timeToLive How long an entry stays in the shared tier after it is written
+     * @return The shared tier
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "user-crud.cache.shared.enabled", havingValue = "true")
+    public SharedUserCache sharedUserCache(@Value("${user-crud.cache.shared.maximum-size:100000}") long maximumSize,
+                                           @Value("${user-crud.cache.shared.time-to-live:10m}") Duration timeToLive) {
+        return new InMemorySharedUserCache(maximumSize, timeToLive);
+    }
+}
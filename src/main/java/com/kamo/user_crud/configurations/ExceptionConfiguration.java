@@ -0,0 +1,25 @@
+package com.kamo.user_crud.configurations;
+
+import com.kamo.user_crud.exceptions.DomainException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The ExceptionConfiguration class applies the user-crud.exceptions settings on startup, on both stacks.
+ * <br/><br/>
+ *
+ * Domain exceptions are constructed by the services and validators rather than by Spring, so whether they capture a
+ * stack trace is a static setting of {@link DomainException}.
+ */
+@Configuration
+public class ExceptionConfiguration {
+
+    /**
+     * Constructs a new ExceptionConfiguration and applies the settings.
+     *
+     * @param stackTraces Whether domain exceptions capture a stack trace
+     */
+    public ExceptionConfiguration(@Value("${user-crud.exceptions.stack-traces:false}") boolean stackTraces) {
+        DomainException.setStackTracesEnabled(stackTraces);
+    }
+}
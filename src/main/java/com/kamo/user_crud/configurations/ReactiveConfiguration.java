@@ -0,0 +1,29 @@
+package com.kamo.user_crud.configurations;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The ReactiveConfiguration class configures the reactive profile.
+ * <br/><br/>
+ *
+ * Tomcat is on the classpath for the blocking stack and would otherwise also serve the reactive stack, with its
+ * request thread pool. Serving on Reactor Netty instead handles every connection on a small number of event loop
+ * threads, one per CPU core by default.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfiguration {
+
+    /**
+     * Creates the Reactor Netty web server factory.
+     *
+     * @return The web server factory
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,15 @@
+package com.kamo.user_crud.configurations;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * The SchedulingConfiguration class enables scheduled tasks on the blocking stack, such as the polling of the
+ * UserChangeDispatcher. Spring Boot runs them on a single scheduler thread by default.
+ */
+@Configuration
+@EnableScheduling
+@Profile("!reactive")
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,172 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.dtos.MessageResponse;
+import com.kamo.user_crud.dtos.UserPage;
+import com.kamo.user_crud.dtos.UserResponse;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.handlers.GlobalExceptionHandler;
+import com.kamo.user_crud.services.ReactiveUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ReactiveUserController class provides the RESTful API endpoints of {@link UserController} on the non-blocking
+ * stack, with the same paths, request and response bodies, status codes and ETags. It is only active in the reactive
+ * profile. Errors signalled by the service are reported as problem details by the {@link GlobalExceptionHandler}.
+ * <br/><br/>
+ *
+ * Listing users with an Accept header of application/x-ndjson or text/event-stream streams every user instead of
+ * a single page, and the database is read only as fast as the client consumes the response.
+ */
+@RestController
+@RequestMapping("/api/users")
+@Profile("reactive")
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    /**
+     * Adds a new user.
+     *
+     * @param user The User object to be added
+     * @return A Mono emitting a ResponseEntity containing the added User object and its ETag
+     */
+    @PostMapping
+    public Mono<ResponseEntity<User>> addUser(@RequestBody User user) {
+        return userService.addUser(user)
+                .map(newUser -> ResponseEntity.ok().eTag(UserETags.of(newUser)).body(newUser));
+    }
+
+    /**
+     * Updates an existing user.
+     *
+     * @param userId The ID of the user to be updated
+     * @param user The User object with updated data
+     * @param ifMatch The ETag the user must still have, or omitted to update it regardless
+     * @return A Mono emitting a ResponseEntity containing the updated User object and its new ETag
+     */
+    @PutMapping("/{userId}")
+    public Mono<ResponseEntity<UserResponse>> updateUser(@PathVariable long userId, @RequestBody User user,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                         String ifMatch) {
+        return userService.updateUser(userId, user, UserETags.parseIfMatch(ifMatch))
+                .map(updatedUser -> ResponseEntity.ok().eTag(UserETags.of(updatedUser))
+                        .body(new UserResponse("Successfully updated user with ID " + userId, updatedUser)));
+    }
+
+    /**
+     * Partially updates an existing user with a JSON Merge Patch, which changes only the attributes it contains.
+     *
+     * @param userId The ID of the user to be patched
+     * @param patch The patch document, mapping the changed attributes to their new values
+     * @param ifMatch The ETag the user must still have, or omitted to patch it regardless
+     * @return A Mono emitting a ResponseEntity with a confirmation message, and the new ETag of the user if the patch
+     * was conditional
+     */
+    @PatchMapping(value = "/{userId}",
+            consumes = {UserController.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<MessageResponse>> patchUser(@PathVariable long userId,
+                                                           @RequestBody Map<String, Object> patch,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                                   required = false) String ifMatch) {
+        Long expectedVersion = UserETags.parseIfMatch(ifMatch);
+
+        return userService.patchUser(userId, patch, expectedVersion)
+                .map(patched -> ResponseEntity.ok().eTag(UserETags.ofNextVersion(expectedVersion))
+                        .body(new MessageResponse("Successfully updated user with ID " + userId)));
+    }
+
+    /**
+     * Lists users one page at a time, ordered by ID.
+     *
+     * @param cursor The continuation token from the previous page, or omitted for the first page
+     * @param limit The maximum number of users to return
+     * @return A Mono emitting a ResponseEntity containing the page of users and the continuation token for the next
+     * page
+     */
+    @GetMapping
+    public Mono<ResponseEntity<UserPage>> listUsers(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int limit) {
+        return userService.listUsers(cursor, limit).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Streams all users after the continuation token, ordered by ID. An invalid continuation token is reported
+     * before the first user is written.
+     *
+     * @param cursor The continuation token to start after, or omitted to start from the first user
+     * @return A Flux emitting the users as the client requests them
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<User> streamUsers(@RequestParam(required = false) String cursor) {
+        return userService.streamUsers(cursor);
+    }
+
+    /**
+     * Searches for users whose first name or last name starts with the specified text, ignoring case.
+     *
+     * @param q The text the first name or last name must start with
+     * @param cursor The continuation token from the previous page, or omitted for the first page
+     * @param limit The maximum number of users to return
+     * @return A Mono emitting a ResponseEntity containing the page of matching users and the continuation token for
+     * the next page
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<UserPage>> searchUsers(@RequestParam String q,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        return userService.searchUsers(q, cursor, limit).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Retrieves the users with the specified contact number.
+     *
+     * @param contactNumber The contact number to look up, in any valid format
+     * @return A Mono emitting a ResponseEntity containing the matching users, which may be empty
+     */
+    @GetMapping(params = "contactNumber")
+    public Mono<ResponseEntity<List<User>>> findUsersByContactNumber(@RequestParam String contactNumber) {
+        return userService.findUsersByContactNumber(contactNumber)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Retrieves a user by their ID. If the request has an If-None-Match header matching the ETag of the user, a
+     * not modified status is returned without a body instead.
+     *
+     * @param userId The ID of the user to be retrieved
+     * @return A Mono emitting a ResponseEntity containing the User object and its ETag
+     */
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<User>> getUser(@PathVariable long userId) {
+        return userService.getUser(userId)
+                .map(user -> ResponseEntity.ok().eTag(UserETags.of(user)).body(user));
+    }
+
+    /**
+     * Deletes a user by their ID.
+     *
+     * @param userId The ID of the user to be deleted
+     * @param ifMatch The ETag the user must still have, or omitted to delete it regardless
+     * @return A Mono emitting a ResponseEntity with a confirmation message
+     */
+    @DeleteMapping("/{userId}")
+    public Mono<ResponseEntity<MessageResponse>> deleteUser(@PathVariable long userId,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                                    required = false) String ifMatch) {
+        return userService.deleteUser(userId, UserETags.parseIfMatch(ifMatch))
+                .map(deleted -> ResponseEntity.ok(
+                        new MessageResponse("Successfully deleted user with ID '" + userId + "'")));
+    }
+}
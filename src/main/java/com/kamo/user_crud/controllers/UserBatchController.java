@@ -0,0 +1,58 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.dtos.BatchResult;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.services.UserBatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * The UserBatchController class provides RESTful API endpoints for creating, updating and deleting many users
+ * in a single request. Each response reports the outcome of every item in the payload; a failure of the whole batch
+ * is reported as problem details by the global exception handler.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/users/batch")
+public class UserBatchController {
+
+    @Autowired
+    private UserBatchService userBatchService;
+
+    /**
+     * Adds many new users.
+     *
+     * @param users The User objects to be added
+     * @return A ResponseEntity containing the per-item outcome of the batch
+     */
+    @PostMapping
+    public ResponseEntity<BatchResult> addUsers(@RequestBody List<User> users) {
+        return ResponseEntity.ok(userBatchService.addUsers(users));
+    }
+
+    /**
+     * Updates many existing users. Each User object must carry the ID of the user it updates.
+     *
+     * @param users The User objects with updated data
+     * @return A ResponseEntity containing the per-item outcome of the batch
+     */
+    @PutMapping
+    public ResponseEntity<BatchResult> updateUsers(@RequestBody List<User> users) {
+        return ResponseEntity.ok(userBatchService.updateUsers(users));
+    }
+
+    /**
+     * Deletes many users by their IDs.
+     *
+     * @param userIds The IDs of the users to be deleted
+     * @return A ResponseEntity containing the per-item outcome of the batch
+     */
+    @DeleteMapping
+    public ResponseEntity<BatchResult> deleteUsers(@RequestBody List<Long> userIds) {
+        return ResponseEntity.ok(userBatchService.deleteUsers(userIds));
+    }
+}
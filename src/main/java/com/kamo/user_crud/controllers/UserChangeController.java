@@ -0,0 +1,58 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.services.UserChangeDispatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * The UserChangeController class provides a RESTful API endpoint that streams every change to users as
+ * Server-Sent Events. Each event carries its position in the stream as its ID, which a client passes back to resume
+ * after the last event it received.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/users/changes")
+public class UserChangeController {
+
+    @Autowired
+    private UserChangeDispatcher userChangeDispatcher;
+
+    /**
+     * Streams the changes to users after the specified position. Without a position, only the changes made from
+     * now on are streamed.
+     *
+     * @param since The position after which to start streaming
+     * @param lastEventId The ID of the last event received, which EventSource clients send when they reconnect, used
+     *                    if no position is specified
+     * @return The event stream
+     * @throws InvalidResourceArgumentException If the position is not valid
+     */
+    @GetMapping
+    public SseEmitter streamChanges(@RequestParam(required = false) String since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId)
+            throws InvalidResourceArgumentException {
+        return userChangeDispatcher.subscribe(parsePosition(since != null ? since : lastEventId));
+    }
+
+    /**
+     * Parses a position in the change stream.
+     *
+     * @param position The position, or null
+     * @return The position, or null if none is given
+     * @throws InvalidResourceArgumentException If the position is not a number
+     */
+    private static Long parsePosition(String position) throws InvalidResourceArgumentException {
+        if (position == null || position.isBlank()) {
+            return null;
+        }
+
+        try {
+            return Long.parseLong(position.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidResourceArgumentException("Position must be a number.");
+        }
+    }
+}
@@ -1,28 +1,38 @@
 package com.kamo.user_crud.controllers;
 
+import com.kamo.user_crud.dtos.MessageResponse;
+import com.kamo.user_crud.dtos.UserPage;
+import com.kamo.user_crud.dtos.UserResponse;
 import com.kamo.user_crud.entities.User;
-import com.kamo.user_crud.exceptions.DataAccessFailureException;
-import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
-import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
-import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.handlers.GlobalExceptionHandler;
 import com.kamo.user_crud.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * The UserController class provides RESTful API endpoints for managing User entities.
  * It supports CRUD operations such as creating, updating, retrieving, and deleting users.
+ * Single users are served with their version as an ETag, which supports conditional requests (see {@link UserETags}).
+ * Failures are reported as problem details by the {@link GlobalExceptionHandler}.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/users")
 public class UserController {
 
+    /**
+     * The media type of JSON Merge Patch documents (RFC 7396).
+     */
+    public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     @Autowired
     private UserService userService;
 
@@ -30,27 +40,13 @@ public class UserController {
      * Adds a new user.
      *
      * @param user The User object to be added
-     * @return A ResponseEntity containing the added User object
+     * @return A ResponseEntity containing the added User object and its ETag
      */
     @PostMapping
-    public ResponseEntity<?> addUser(@RequestBody User user) {
-        try {
-            User newUser = userService.addUser(user);
-
-            return ResponseEntity.ok(newUser);
-        } catch (ResourceAlreadyExistsException|InvalidResourceArgumentException|DataAccessFailureException e) {
-            Map<String, Object> body = new HashMap<>();
-
-            body.put("message", "Failed to create user");
-            body.put("error", e.getMessage());
-
-            if (e.getClass() == ResourceAlreadyExistsException.class
-                    || e.getClass() == InvalidResourceArgumentException.class) {
-                return ResponseEntity.badRequest().body(body);
-            } else {
-                return ResponseEntity.internalServerError().body(body);
-            }
-        }
+    public ResponseEntity<User> addUser(@RequestBody User user) {
+        User newUser = userService.addUser(user);
+
+        return ResponseEntity.ok().eTag(UserETags.of(newUser)).body(newUser);
     }
 
     /**
@@ -58,79 +54,106 @@ public class UserController {
      *
      * @param userId The ID of the user to be updated
      * @param user The User object with updated data
-     * @return A ResponseEntity containing the updated User object, or a not found status if the user does not exist
+     * @param ifMatch The ETag the user must still have, or omitted to update it regardless
+     * @return A ResponseEntity containing the updated User object and its new ETag
      */
     @PutMapping("/{userId}")
-    public ResponseEntity<?> updateUser(@PathVariable String userId, @RequestBody User user) {
-        Map<String, Object> body = new HashMap<>();
-
-        try {
-            User updatedUser = userService.updateUser(userId, user);
-
-            body.put("message", "Successfully updated user with ID " + userId);
-            body.put("data", updatedUser);
-
-            return ResponseEntity.ok(body);
-        } catch (ResourceNotFoundException|InvalidResourceArgumentException|DataAccessFailureException e) {
-            body.put("message", "Failed to update user with ID '" + userId + "'");
-            body.put("error", e.getMessage());
-
-            if (e.getClass() == ResourceNotFoundException.class) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
-            } else if (e.getClass() == InvalidResourceArgumentException.class) {
-                return ResponseEntity.badRequest().body(body);
-            } else {
-                return ResponseEntity.internalServerError().body(body);
-            }
-        }
+    public ResponseEntity<UserResponse> updateUser(@PathVariable long userId, @RequestBody User user,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                   String ifMatch) {
+        User updatedUser = userService.updateUser(userId, user, UserETags.parseIfMatch(ifMatch));
+
+        return ResponseEntity.ok().eTag(UserETags.of(updatedUser))
+                .body(new UserResponse("Successfully updated user with ID " + userId, updatedUser));
     }
 
     /**
-     * Retrieves a user by their ID.
+     * Partially updates an existing user with a JSON Merge Patch, which changes only the attributes it contains.
      *
-     * @param userId The ID of the user to be retrieved
-     * @return A ResponseEntity containing the User object, or a not found status if the user does not exist
+     * @param userId The ID of the user to be patched
+     * @param patch The patch document, mapping the changed attributes to their new values
+     * @param ifMatch The ETag the user must still have, or omitted to patch it regardless
+     * @return A ResponseEntity with a confirmation message, and the new ETag of the user if the patch was conditional
      */
-    @GetMapping("/{userId}")
-    public ResponseEntity<?> getUser(@PathVariable String userId) {
-        try {
-            User user = userService.getUser(userId);
+    @PatchMapping(value = "/{userId}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<MessageResponse> patchUser(@PathVariable long userId, @RequestBody Map<String, Object> patch,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                     String ifMatch) {
+        Long expectedVersion = UserETags.parseIfMatch(ifMatch);
 
-            return ResponseEntity.ok(user);
-        } catch (ResourceNotFoundException e) {
-            Map<String, Object> body = new HashMap<>();
+        userService.patchUser(userId, patch, expectedVersion);
 
-            body.put("error", e.getMessage());
+        return ResponseEntity.ok().eTag(UserETags.ofNextVersion(expectedVersion))
+                .body(new MessageResponse("Successfully updated user with ID " + userId));
+    }
 
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
-        }
+    /**
+     * Lists users one page at a time, ordered by ID.
+     *
+     * @param cursor The continuation token from the previous page, or omitted for the first page
+     * @param limit The maximum number of users to return
+     * @return A ResponseEntity containing the page of users and the continuation token for the next page
+     */
+    @GetMapping
+    public ResponseEntity<UserPage> listUsers(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(userService.listUsers(cursor, limit));
     }
 
     /**
-     * Deletes a user by their ID.
+     * Searches for users whose first name or last name starts with the specified text, ignoring case.
      *
-     * @param userId The ID of the user to be deleted
-     * @return A ResponseEntity with no content status
+     * @param q The text the first name or last name must start with
+     * @param cursor The continuation token from the previous page, or omitted for the first page
+     * @param limit The maximum number of users to return
+     * @return A ResponseEntity containing the page of matching users and the continuation token for the next page
      */
-    @DeleteMapping("/{userId}")
-    public ResponseEntity<?> deleteUser(@PathVariable String userId) {
-        Map<String, Object> body = new HashMap<>();
+    @GetMapping("/search")
+    public ResponseEntity<UserPage> searchUsers(@RequestParam String q,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(userService.searchUsers(q, cursor, limit));
+    }
+
+    /**
+     * Retrieves the users with the specified contact number.
+     *
+     * @param contactNumber The contact number to look up, in any valid format
+     * @return A ResponseEntity containing the matching users, which may be empty
+     */
+    @GetMapping(params = "contactNumber")
+    public ResponseEntity<List<User>> findUsersByContactNumber(@RequestParam String contactNumber) {
+        return ResponseEntity.ok(userService.findUsersByContactNumber(contactNumber));
+    }
 
-        try {
-            userService.deleteUser(userId);
+    /**
+     * Retrieves a user by their ID. If the request has an If-None-Match header matching the ETag of the user, a
+     * not modified status is returned without a body instead.
+     *
+     * @param userId The ID of the user to be retrieved
+     * @return A ResponseEntity containing the User object and its ETag
+     */
+    @GetMapping("/{userId}")
+    public ResponseEntity<User> getUser(@PathVariable long userId) {
+        User user = userService.getUser(userId);
 
-            body.put("message", "Successfully deleted user with ID '" + userId + "'");
+        // A matching If-None-Match header turns the response into a 304 Not Modified without a body
+        return ResponseEntity.ok().eTag(UserETags.of(user)).body(user);
+    }
 
-            return ResponseEntity.ok(body);
-        } catch (ResourceNotFoundException|DataAccessFailureException e) {
-            body.put("message", "Failed to delete user with ID '" + userId + "'");
-            body.put("error", e.getMessage());
+    /**
+     * Deletes a user by their ID.
+     *
+     * @param userId The ID of the user to be deleted
+     * @param ifMatch The ETag the user must still have, or omitted to delete it regardless
+     * @return A ResponseEntity with a confirmation message
+     */
+    @DeleteMapping("/{userId}")
+    public ResponseEntity<MessageResponse> deleteUser(@PathVariable long userId,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                      String ifMatch) {
+        userService.deleteUser(userId, UserETags.parseIfMatch(ifMatch));
 
-            if (e.getClass() != ResourceNotFoundException.class) {
-                return ResponseEntity.internalServerError().body(body);
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
-            }
-        }
+        return ResponseEntity.ok(new MessageResponse("Successfully deleted user with ID '" + userId + "'"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+
+/**
+ * The UserETags class converts between the versions of users and the entity tags of the HTTP API.
+ * <br/><br/>
+ *
+ * The entity tag of a user is its version in quotes, so it changes whenever the user is updated. GET responses
+ * carry it in the ETag header, which lets clients revalidate a user with If-None-Match and receive a 304 Not Modified
+ * status without a body when it is unchanged, and PUT and DELETE requests may send it back in If-Match so that the
+ * write only succeeds if nobody else has written the user in the meantime.
+ */
+final class UserETags {
+
+    /**
+     * The version of a conditional write whose If-Match header cannot match any user, such as a malformed tag.
+     */
+    static final long UNMATCHABLE_VERSION = -1;
+
+    private UserETags() {
+    }
+
+    /**
+     * Returns the entity tag of a user.
+     *
+     * @param user The user
+     * @return The entity tag, or null if the version of the user is not known
+     */
+    static String of(User user) {
+        return user.getVersion() != null ? "\"" + user.getVersion() + "\"" : null;
+    }
+
+    /**
+     * Returns the entity tag of a user after a successful write, which is only known if the write was conditional.
+     *
+     * @param expectedVersion The version the user was at before the write, or null if the write was unconditional
+     * @return The entity tag of the next version, or null if it is not known
+     */
+    static String ofNextVersion(Long expectedVersion) {
+        return expectedVersion != null ? "\"" + (expectedVersion + 1) + "\"" : null;
+    }
+
+    /**
+     * Parses the If-Match header of a conditional write into the version the user must be at. The header is either
+     * "*", which matches any version, or a comma-separated list of entity tags, which matches if any of them does.
+     * If-Match uses the strong comparison, so weak tags, which are never issued for users, and malformed tags are left
+     * out. A conditional write checks a single version, so a list naming several versions is rejected.
+     *
+     * @param ifMatch The If-Match header, or null if the request has none
+     * @return The expected version, null if any version matches, or {@link #UNMATCHABLE_VERSION} if the header
+     * cannot match any version
+     * @throws InvalidResourceArgumentException If the header names more than one version
+     */
+    static Long parseIfMatch(String ifMatch) throws InvalidResourceArgumentException {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        long version = UNMATCHABLE_VERSION;
+        int length = ifMatch.length();
+        int start = 0;
+
+        while (start < length) {
+            char first = ifMatch.charAt(start);
+
+            if (first == ',' || first == ' ' || first == '\t') {
+                start++;
+                continue;
+            }
+
+            // A tag ends at its closing quote, as commas are allowed inside it; anything else ends at the next comma
+            int end = first == '"' || ifMatch.startsWith("W/\"", start)
+                    ? ifMatch.indexOf('"', ifMatch.indexOf('"', start) + 1)
+                    : ifMatch.indexOf(',', start) - 1;
+
+            if (end < 0) {
+                end = length - 1;
+            }
+
+            long tagVersion = parseStrongTag(ifMatch.substring(start, end + 1));
+
+            if (tagVersion != UNMATCHABLE_VERSION) {
+                if (version != UNMATCHABLE_VERSION && version != tagVersion) {
+                    throw new InvalidResourceArgumentException("If-Match may name only one version of the user.");
+                }
+
+                version = tagVersion;
+            }
+
+            start = end + 1;
+        }
+
+        return version;
+    }
+
+    /**
+     * Parses a single entity tag into the version it names.
+     *
+     * @param tag The entity tag
+     * @return The version, or {@link #UNMATCHABLE_VERSION} if the tag is weak, malformed or not a version
+     */
+    private static long parseStrongTag(String tag) {
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return UNMATCHABLE_VERSION;
+        }
+
+        try {
+            long version = Long.parseLong(tag.substring(1, tag.length() - 1));
+            return version >= 0 ? version : UNMATCHABLE_VERSION;
+        } catch (NumberFormatException e) {
+            return UNMATCHABLE_VERSION;
+        }
+    }
+}
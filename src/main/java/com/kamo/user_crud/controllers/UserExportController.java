@@ -0,0 +1,50 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.dtos.UserDataFormat;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.services.UserExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The UserExportController class provides a RESTful API endpoint for exporting every user as CSV or NDJSON.
+ * The users are written straight to the response as they are read from the database; the response has no content
+ * length and is sent with chunked transfer encoding.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/users/export")
+public class UserExportController {
+
+    @Autowired
+    private UserExportService userExportService;
+
+    /**
+     * Exports every user, ordered by ID. The response is written on the request thread rather than asynchronously,
+     * so that large exports are not cut off by the asynchronous request timeout.
+     *
+     * @param format The format to export, csv or ndjson
+     * @param response The response the users are written to
+     * @throws InvalidResourceArgumentException If the format is not supported
+     * @throws IOException If the response cannot be written
+     */
+    @GetMapping
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response)
+            throws InvalidResourceArgumentException, IOException {
+        UserDataFormat dataFormat = UserDataFormat.of(format);
+
+        response.setContentType(dataFormat.mediaType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("users" + dataFormat.extension()).build().toString());
+
+        userExportService.exportUsers(dataFormat, response.getOutputStream());
+    }
+}
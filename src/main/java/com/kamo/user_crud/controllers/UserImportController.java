@@ -0,0 +1,48 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.dtos.ImportReport;
+import com.kamo.user_crud.dtos.UserDataFormat;
+import com.kamo.user_crud.services.UserImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+/**
+ * The UserImportController class provides a RESTful API endpoint for importing users in bulk from an uploaded CSV or
+ * NDJSON document. The request body is streamed, so documents of any size are imported with bounded memory.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/users/import")
+public class UserImportController {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    /**
+     * Imports the users in a CSV document.
+     *
+     * @param body The CSV document, starting with a header row
+     * @param skip The number of rows to skip, such as the rows processed by an interrupted import
+     * @return A ResponseEntity containing the outcome and throughput of the import
+     */
+    @PostMapping(consumes = "text/csv")
+    public ResponseEntity<ImportReport> importCsv(InputStream body, @RequestParam(defaultValue = "0") long skip) {
+        return ResponseEntity.ok(userImportService.importUsers(body, UserDataFormat.CSV, skip));
+    }
+
+    /**
+     * Imports the users in an NDJSON document.
+     *
+     * @param body The NDJSON document, with one user object per line
+     * @param skip The number of rows to skip, such as the rows processed by an interrupted import
+     * @return A ResponseEntity containing the outcome and throughput of the import
+     */
+    @PostMapping(consumes = "application/x-ndjson")
+    public ResponseEntity<ImportReport> importNdjson(InputStream body, @RequestParam(defaultValue = "0") long skip) {
+        return ResponseEntity.ok(userImportService.importUsers(body, UserDataFormat.NDJSON, skip));
+    }
+}
@@ -0,0 +1,33 @@
+package com.kamo.user_crud.dtos;
+
+/**
+ * The BatchItemResult record reports the outcome of a single item within a bulk create, update or delete request.
+ *
+ * @param index The position of the item in the request payload
+ * @param status The outcome of the item
+ * @param userId The ID of the affected user, or null if the item was not applied
+ * @param error The reason the item was rejected, or null if it succeeded
+ */
+public record BatchItemResult(int index, Status status, Long userId, String error) {
+
+    /**
+     * The possible outcomes of a batch item.
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        DUPLICATE,
+        NOT_FOUND
+    }
+
+    /**
+     * Returns whether the item was applied.
+     *
+     * @return True if the user was created, updated or deleted, false otherwise
+     */
+    public boolean succeeded() {
+        return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED;
+    }
+}
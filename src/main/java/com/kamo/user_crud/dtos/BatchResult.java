@@ -0,0 +1,25 @@
+package com.kamo.user_crud.dtos;
+
+import java.util.List;
+
+/**
+ * The BatchResult record summarises the outcome of a bulk create, update or delete request.
+ *
+ * @param succeeded The number of items that were applied
+ * @param failed The number of items that were rejected
+ * @param results The per-item outcomes, in the same order as the request payload
+ */
+public record BatchResult(int succeeded, int failed, List<BatchItemResult> results) {
+
+    /**
+     * Builds a BatchResult from the per-item outcomes, counting the successes and failures.
+     *
+     * @param results The per-item outcomes
+     * @return The batch result
+     */
+    public static BatchResult of(List<BatchItemResult> results) {
+        int succeeded = (int) results.stream().filter(BatchItemResult::succeeded).count();
+
+        return new BatchResult(succeeded, results.size() - succeeded, results);
+    }
+}
@@ -0,0 +1,19 @@
+package com.kamo.user_crud.dtos;
+
+import java.util.List;
+
+/**
+ * The ImportReport record summarises the outcome and throughput of a bulk import of users.
+ *
+ * @param skipped The number of rows skipped because an earlier run had already imported them
+ * @param processed The number of rows read and processed by this run
+ * @param created The number of users that were created
+ * @param duplicates The number of rows rejected because a user with the same name already exists
+ * @param invalid The number of rows rejected because they could not be parsed or failed validation
+ * @param elapsedMillis The duration of the import, in milliseconds
+ * @param rowsPerSecond The number of rows processed per second
+ * @param errors The first rejected rows, with their line numbers and reasons
+ */
+public record ImportReport(long skipped, long processed, long created, long duplicates, long invalid,
+                           long elapsedMillis, long rowsPerSecond, List<String> errors) {
+}
@@ -0,0 +1,9 @@
+package com.kamo.user_crud.dtos;
+
+/**
+ * The MessageResponse record is the body of a successful write that returns no data, such as a patch or a delete.
+ *
+ * @param message The confirmation message
+ */
+public record MessageResponse(String message) {
+}
@@ -0,0 +1,13 @@
+package com.kamo.user_crud.dtos;
+
+/**
+ * The Problem record is the body of every error response, in the problem details format of RFC 7807
+ * (application/problem+json).
+ *
+ * @param type A URI identifying the kind of problem
+ * @param title A short summary of the kind of problem, the same for every occurrence of it
+ * @param status The HTTP status code of the response
+ * @param detail An explanation of this occurrence of the problem
+ */
+public record Problem(String type, String title, int status, String detail) {
+}
@@ -0,0 +1,84 @@
+package com.kamo.user_crud.dtos;
+
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+
+import java.util.Locale;
+
+/**
+ * The UserDataFormat enum lists the formats users are imported from and exported to in bulk.
+ */
+public enum UserDataFormat {
+
+    /**
+     * Comma-separated values with a header row.
+     */
+    CSV("text/csv", ".csv"),
+
+    /**
+     * Newline-delimited JSON, one user object per line.
+     */
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String mediaType;
+
+    private final String extension;
+
+    UserDataFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the media type of documents in this format.
+     *
+     * @return The media type
+     */
+    public String mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Returns the file extension of documents in this format.
+     *
+     * @return The file extension, including the dot
+     */
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Determines a format from its name, ignoring case.
+     *
+     * @param name The name of the format, csv or ndjson
+     * @return The format
+     * @throws InvalidResourceArgumentException If the name is not csv or ndjson
+     */
+    public static UserDataFormat of(String name) throws InvalidResourceArgumentException {
+        for (UserDataFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+
+        throw new InvalidResourceArgumentException("Format must be csv or ndjson.");
+    }
+
+    /**
+     * Determines the format of a file from its extension.
+     *
+     * @param fileName The name of the file
+     * @return The format of the file
+     * @throws InvalidResourceArgumentException If the extension is not .csv, .ndjson or .jsonl
+     */
+    public static UserDataFormat ofFileName(String fileName) throws InvalidResourceArgumentException {
+        String name = fileName.toLowerCase(Locale.ROOT);
+
+        if (name.endsWith(".csv")) {
+            return CSV;
+        } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+
+        throw new InvalidResourceArgumentException("Import file must be a .csv, .ndjson or .jsonl file.");
+    }
+}
@@ -0,0 +1,14 @@
+package com.kamo.user_crud.dtos;
+
+import com.kamo.user_crud.entities.User;
+
+import java.util.List;
+
+/**
+ * The UserPage record represents one page of users returned by the keyset-paginated listing endpoint.
+ *
+ * @param data The users on this page, ordered by ascending user ID
+ * @param nextCursor The opaque continuation token for the next page, or null if this is the last page
+ */
+public record UserPage(List<User> data, String nextCursor) {
+}
@@ -0,0 +1,74 @@
+package com.kamo.user_crud.dtos;
+
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The UserPatch record represents a JSON Merge Patch (RFC 7396) of a user: the attributes a PATCH request changes
+ * and their new values. Attributes that are absent from the patch are left unchanged, and a null value removes the
+ * attribute. Only the attributes in {@link #PATCHABLE_ATTRIBUTES} may be patched.
+ *
+ * @param changes The new values of the changed attributes, by attribute name
+ */
+public record UserPatch(Map<String, String> changes) {
+
+    /**
+     * The attributes of a user that a patch may change.
+     */
+    public static final List<String> PATCHABLE_ATTRIBUTES = List.of("firstName", "lastName", "contactNumber");
+
+    /**
+     * Parses a JSON Merge Patch document.
+     *
+     * @param mergePatch The patch document, as deserialized from JSON
+     * @return The UserPatch
+     * @throws InvalidResourceArgumentException If the patch is empty, or changes an attribute that cannot be patched
+     * or sets one to a value that is not a string
+     */
+    public static UserPatch of(Map<String, ?> mergePatch) throws InvalidResourceArgumentException {
+        if (mergePatch == null || mergePatch.isEmpty()) {
+            throw new InvalidResourceArgumentException("Patch must change at least one attribute.");
+        }
+
+        // LinkedHashMap permits the null values that remove an attribute
+        Map<String, String> changes = new LinkedHashMap<>();
+
+        for (Map.Entry<String, ?> entry : mergePatch.entrySet()) {
+            if (!PATCHABLE_ATTRIBUTES.contains(entry.getKey())) {
+                throw new InvalidResourceArgumentException("Attribute '" + entry.getKey() + "' cannot be patched.");
+            }
+
+            if (entry.getValue() != null && !(entry.getValue() instanceof String)) {
+                throw new InvalidResourceArgumentException("Attribute '" + entry.getKey() + "' must be a string.");
+            }
+
+            changes.put(entry.getKey(), (String) entry.getValue());
+        }
+
+        return new UserPatch(Collections.unmodifiableMap(changes));
+    }
+
+    /**
+     * Checks whether the patch changes the specified attribute.
+     *
+     * @param attribute The name of the attribute
+     * @return True if the patch changes the attribute, false otherwise
+     */
+    public boolean contains(String attribute) {
+        return changes.containsKey(attribute);
+    }
+
+    /**
+     * Returns the new value of the specified attribute.
+     *
+     * @param attribute The name of the attribute
+     * @return The new value, or null if the patch removes the attribute or does not change it
+     */
+    public String get(String attribute) {
+        return changes.get(attribute);
+    }
+}
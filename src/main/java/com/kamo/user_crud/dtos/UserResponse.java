@@ -0,0 +1,12 @@
+package com.kamo.user_crud.dtos;
+
+import com.kamo.user_crud.entities.User;
+
+/**
+ * The UserResponse record is the body of a successful update, confirming it together with the updated user.
+ *
+ * @param message The confirmation message
+ * @param data The updated user
+ */
+public record UserResponse(String message, User data) {
+}
@@ -1,10 +1,18 @@
 package com.kamo.user_crud.entities;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.kamo.user_crud.validators.ContactNumberValidator;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Locale;
+
 /**
  * The User class represents a user entity with its attributes. This class is mapped to a database table using JPA.
+ * No two users may share the same first name and last name; this is enforced by a unique constraint.
+ * The same class is mapped for Spring Data R2DBC, which the reactive profile uses instead of JPA; there the table
+ * name is quoted explicitly, as Hibernate does for the backticks, because user is a reserved word in H2.
  * <br/><br/>
  *
  * Attributes:
@@ -13,19 +21,43 @@ import lombok.NoArgsConstructor;
  * <li>firstName</li>
  * <li>lastName</li>
  * <li>contactNumber</li>
+ * <li>normalizedContactNumber</li>
+ * <li>firstNameLower</li>
+ * <li>lastNameLower</li>
+ * <li>version</li>
  * </ul>
  */
 @Entity
-@Table(name = "`user`")
+@Table(
+        name = "`user`",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_user_first_name_last_name",
+                columnNames = {"firstName", "lastName"}
+        ),
+        indexes = {
+                @Index(name = "idx_user_normalized_contact_number", columnList = "normalizedContactNumber"),
+                @Index(name = "idx_user_first_name_lower", columnList = "firstNameLower, userId"),
+                @Index(name = "idx_user_last_name_lower", columnList = "lastNameLower, userId")
+        }
+)
+@org.springframework.data.relational.core.mapping.Table("\"user\"")
 @Data
 @NoArgsConstructor
 public class User {
 
+    /**
+     * The number of IDs each instance takes from the sequence at a time.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * The unique identifier for the user.
+     * IDs are drawn from a pooled sequence so that Hibernate can batch inserts.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @org.springframework.data.annotation.Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long userId;
 
     /**
@@ -43,6 +75,35 @@ public class User {
      */
     private String contactNumber;
 
+    /**
+     * The contact number of the user reduced to its digits (E.164-style, without the plus sign).
+     * It is derived from the contact number whenever the user is written, and is indexed for equality lookups.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String normalizedContactNumber;
+
+    /**
+     * The first name of the user in lower case, indexed for case-insensitive prefix searches.
+     */
+    @JsonIgnore
+    private String firstNameLower;
+
+    /**
+     * The last name of the user in lower case, indexed for case-insensitive prefix searches.
+     */
+    @JsonIgnore
+    private String lastNameLower;
+
+    /**
+     * The version of the user, which starts at 0 and is incremented on every update.
+     * It is served as the ETag of the user and is checked against the If-Match header of conditional updates.
+     * Spring Data JPA rejects the Spring Data version annotation on JPA entities, so over R2DBC the version is
+     * maintained by ReactiveUserRepository instead.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     /**
      * Constructs a new User with the specified parameters.
      *
@@ -55,4 +116,27 @@ public class User {
         this.lastName = lastName;
         this.contactNumber = contactNumber;
     }
+
+    /**
+     * Derives the normalized contact number and the lower-case names from the attributes of the user.
+     * This runs automatically before the user is inserted or updated through the persistence context, and must be
+     * called explicitly before the user is written with a bulk JPQL update or through R2DBC.
+     */
+    @PrePersist
+    @PreUpdate
+    public void normalize() {
+        normalizedContactNumber = ContactNumberValidator.normalize(contactNumber);
+        firstNameLower = toLowerCase(firstName);
+        lastNameLower = toLowerCase(lastName);
+    }
+
+    /**
+     * Converts a name to lower case independently of the default locale.
+     *
+     * @param name The name to be converted
+     * @return The name in lower case, or null if the name is null
+     */
+    public static String toLowerCase(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
 }
@@ -0,0 +1,111 @@
+package com.kamo.user_crud.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * The UserChangeEvent class represents a change to a user, recorded in the transactional outbox. An event is written
+ * in the same transaction as the change it describes, so it exists if and only if the change was committed.
+ * <br/><br/>
+ *
+ * Events are identified by their event ID when they are written. The dispatcher later assigns them their position,
+ * a gapless sequence number in the order they became visible, which consumers of the change stream use as their
+ * resumable offset.
+ * <br/><br/>
+ *
+ * Attributes:
+ * <ul>
+ * <li>eventId</li>
+ * <li>position</li>
+ * <li>userId</li>
+ * <li>type</li>
+ * <li>version</li>
+ * <li>occurredAt</li>
+ * <li>payload</li>
+ * </ul>
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_user_change_event_position", columnList = "position", unique = true))
+@Data
+@NoArgsConstructor
+public class UserChangeEvent {
+
+    /**
+     * The kinds of change to a user.
+     */
+    public enum Type {
+        /** The user was added; the payload holds the whole user. */
+        CREATED,
+        /** The user was replaced; the payload holds the whole user. */
+        UPDATED,
+        /** Some attributes of the user were changed; the payload holds only the changed attributes. */
+        PATCHED,
+        /** The user was deleted; there is no payload. */
+        DELETED
+    }
+
+    /**
+     * The unique identifier for the event, assigned when it is written.
+     */
+    @Id
+    @JsonIgnore
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_change_event_seq")
+    @SequenceGenerator(name = "user_change_event_seq", sequenceName = "user_change_event_seq", allocationSize = 50)
+    private Long eventId;
+
+    /**
+     * The position of the event in the change stream, or null if it has not been dispatched yet.
+     */
+    private Long position;
+
+    /**
+     * The ID of the changed user.
+     */
+    private Long userId;
+
+    /**
+     * The kind of change.
+     */
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    /**
+     * The version of the user after the change, or null if it is not known.
+     */
+    private Long version;
+
+    /**
+     * The time the change was made.
+     */
+    private Instant occurredAt;
+
+    /**
+     * The JSON document describing the change, which is written to the change stream as it is.
+     */
+    @JsonRawValue
+    @JsonProperty("data")
+    @Column(length = 4000)
+    private String payload;
+
+    /**
+     * Constructs a new UserChangeEvent that occurred now.
+     *
+     * @param userId The ID of the changed user
+     * @param type The kind of change
+     * @param version The version of the user after the change, or null if it is not known
+     * @param payload The JSON document describing the change, or null if there is none
+     */
+    public UserChangeEvent(Long userId, Type type, Long version, String payload) {
+        this.userId = userId;
+        this.type = type;
+        this.version = version;
+        this.payload = payload;
+        this.occurredAt = Instant.now();
+    }
+}
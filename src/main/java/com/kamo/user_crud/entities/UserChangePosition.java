@@ -0,0 +1,42 @@
+package com.kamo.user_crud.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The UserChangePosition class is the single row holding the position of the last dispatched UserChangeEvent.
+ * Dispatchers lock it while they assign positions, so that the instances sharing a database take turns and each
+ * continues from the position the previous one reached.
+ * <br/><br/>
+ *
+ * Attributes:
+ * <ul>
+ * <li>id</li>
+ * <li>position</li>
+ * </ul>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangePosition {
+
+    /**
+     * The ID of the only row.
+     */
+    public static final long ID = 1L;
+
+    /**
+     * The identifier of the row, always {@link #ID}.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * The position of the last dispatched event, or 0 if no event has been dispatched.
+     */
+    private Long position;
+}
@@ -0,0 +1,40 @@
+package com.kamo.user_crud.exceptions;
+
+/**
+ * Base class of the exceptions that report an expected outcome of a request, such as a user that does not exist or
+ * data that fails validation, rather than a fault in the application.
+ * <br/><br/>
+ *
+ * These exceptions are thrown on routine requests and are fully described by their type and message, so by default
+ * they do not capture a stack trace, which would otherwise walk every frame of the proxy and servlet stack on each
+ * throw, and do not record suppressed exceptions. Set user-crud.exceptions.stack-traces to true to capture them when
+ * debugging.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    private static volatile boolean stackTracesEnabled = false;
+
+    /**
+     * Constructs a new DomainException with the specified detail message.
+     * @param message The detail message.
+     */
+    protected DomainException(String message) {
+        super(message, null, stackTracesEnabled, stackTracesEnabled);
+    }
+
+    /**
+     * Sets whether domain exceptions constructed from now on capture a stack trace and record suppressed exceptions.
+     * @param enabled Whether to capture stack traces.
+     */
+    public static void setStackTracesEnabled(boolean enabled) {
+        stackTracesEnabled = enabled;
+    }
+
+    /**
+     * Returns whether domain exceptions capture a stack trace.
+     * @return True if new domain exceptions capture a stack trace, false otherwise.
+     */
+    public static boolean isStackTracesEnabled() {
+        return stackTracesEnabled;
+    }
+}
@@ -3,7 +3,7 @@ package com.kamo.user_crud.exceptions;
 /**
  * Custom exception to indicate that some of the resource arguments don't match. for example, an incorrect phone number.
  */
-public class InvalidResourceArgumentException extends RuntimeException {
+public class InvalidResourceArgumentException extends DomainException {
 
     /**
      * Constructs a new InvalidResourceArgumentException with the specified detail message.
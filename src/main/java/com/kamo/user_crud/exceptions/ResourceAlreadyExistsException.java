@@ -3,7 +3,7 @@ package com.kamo.user_crud.exceptions;
 /**
  * Custom exception to indicate that a resource already exists in the database.
  */
-public class ResourceAlreadyExistsException extends RuntimeException {
+public class ResourceAlreadyExistsException extends DomainException {
 
     /**
      * Constructs a new ResourceAlreadyExistsException with the specified detail message.
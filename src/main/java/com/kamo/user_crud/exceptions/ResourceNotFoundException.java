@@ -3,7 +3,7 @@ package com.kamo.user_crud.exceptions;
 /**
  * Custom exception to indicate that a resource is not found in the database.
  */
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends DomainException {
 
     /**
      * Constructs a new ResourceNotFoundException with the specified detail message.
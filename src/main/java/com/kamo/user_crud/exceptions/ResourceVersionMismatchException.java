@@ -0,0 +1,15 @@
+package com.kamo.user_crud.exceptions;
+
+/**
+ * Custom exception to indicate that a resource has been modified since the version the client expected.
+ */
+public class ResourceVersionMismatchException extends DomainException {
+
+    /**
+     * Constructs a new ResourceVersionMismatchException with the specified detail message.
+     * @param message The detail message.
+     */
+    public ResourceVersionMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,79 @@
+package com.kamo.user_crud.filters;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AccessLogFilter class logs a sample of the requests served by the blocking stack.
+ * <br/><br/>
+ *
+ * With a sample rate of N, about one request in N is logged with its method, path, status and duration. Requests
+ * that fail with a server error are always logged. A sample rate of 0, the default, turns the access log off, so
+ * that at high request rates logging does not dominate CPU time or add to tail latency; per-request latency is
+ * still recorded in full by the metrics.
+ */
+@Component
+@Profile("!reactive")
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogFilter.class);
+
+    private final int sampleRate;
+
+    /**
+     * Constructs a new AccessLogFilter.
+     *
+     * @param sampleRate The N of logging one request in N, or 0 to turn the access log off
+     */
+    public AccessLogFilter(@Value("${user-crud.access-log.sample-rate:0}") int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Skips the filter entirely when the access log is turned off.
+     *
+     * @param request The current request
+     * @return true if the access log is turned off
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return sampleRate <= 0;
+    }
+
+    /**
+     * Serves the request and logs it if it is sampled or failed with a server error.
+     *
+     * @param request The current request
+     * @param response The current response
+     * @param filterChain The remaining filter chain
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean sampled = sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+        long start = System.nanoTime();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int status = response.getStatus();
+
+            if (sampled || status >= 500) {
+                logger.info("{} {} {} {}ms", request.getMethod(), request.getRequestURI(), status,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.kamo.user_crud.filters;
+
+import com.kamo.user_crud.handlers.ApiProblem;
+import com.kamo.user_crud.limiters.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LoadSheddingFilter class rejects requests to /api/users with 503 Service Unavailable while the application is
+ * overloaded, instead of queueing them for a database connection until they time out.
+ * <br/><br/>
+ *
+ * The number of requests served at once is bounded by an AdaptiveConcurrencyLimiter, whose limit shrinks when
+ * requests get slower than the latency threshold or fail with a server error, and grows again while they are fast.
+ * The import, export and change stream endpoints are not limited, since they are long-running by design and their
+ * duration says nothing about overload. The number of rejected requests, the limit and the requests in flight are
+ * published as metrics.
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 11)
+public class LoadSheddingFilter extends OncePerRequestFilter implements MeterBinder {
+
+    /**
+     * The number of seconds after which clients are asked to retry a rejected request.
+     */
+    static final long RETRY_AFTER_SECONDS = 1;
+
+    private static final byte[] OVERLOADED_BODY = ApiProblem.OVERLOADED.toJson("Service is overloaded.");
+
+    private static final Set<String> LONG_RUNNING_PATHS = Set.of(
+            "/api/users/changes", "/api/users/export", "/api/users/import");
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructs a new LoadSheddingFilter with the specified settings.
+     *
+     * @param enabled Whether requests are limited at all
+     * @param initialLimit The number of requests that may be served at once on startup
+     * @param minLimit The lowest the limit may drop to
+     * @param maxLimit The highest the limit may grow to
+     * @param latencyThreshold The latency above which a request lowers the limit
+     */
+    @Autowired
+    public LoadSheddingFilter(@Value("${user-crud.load-shedding.enabled:true}") boolean enabled,
+                              @Value("${user-crud.load-shedding.initial-limit:20}") int initialLimit,
+                              @Value("${user-crud.load-shedding.min-limit:2}") int minLimit,
+                              @Value("${user-crud.load-shedding.max-limit:200}") int maxLimit,
+                              @Value("${user-crud.load-shedding.latency-threshold:250ms}") Duration latencyThreshold) {
+        this(enabled
+                ? new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(), 0.9)
+                : null);
+    }
+
+    /**
+     * Constructs a new LoadSheddingFilter limiting requests with the specified limiter.
+     *
+     * @param limiter The limiter, or null to not limit requests
+     */
+    LoadSheddingFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * Skips the filter when load shedding is turned off, and for requests outside /api/users or to its long-running
+     * endpoints.
+     *
+     * @param request The current request
+     * @return true if the request is not limited
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+
+        return limiter == null || !path.startsWith("/api/users") || LONG_RUNNING_PATHS.contains(path);
+    }
+
+    /**
+     * Serves the request if the limiter admits it, and rejects it with 503 Service Unavailable otherwise.
+     *
+     * @param request The current request
+     * @param response The current response
+     * @param filterChain The remaining filter chain
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            reject(response, ApiProblem.OVERLOADED, RETRY_AFTER_SECONDS, OVERLOADED_BODY);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Binds the number of rejected requests, the current limit and the requests in flight to the registry.
+     *
+     * @param registry The registry to bind the metrics to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (limiter == null) {
+            return;
+        }
+
+        FunctionCounter.builder("user.requests.rejected", rejected, LongAdder::sum)
+                .description("The number of requests rejected before being served")
+                .tag("reason", "overloaded")
+                .register(registry);
+        Gauge.builder("user.requests.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("The number of requests that may be served at once")
+                .register(registry);
+        Gauge.builder("user.requests.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("The number of requests being served")
+                .register(registry);
+    }
+
+    /**
+     * Rejects a request with the status of a problem, a Retry-After header and the problem details.
+     *
+     * @param response The response to write to
+     * @param problem The reason the request is rejected
+     * @param retryAfterSeconds The number of seconds after which the client may retry
+     * @param body The problem details, serialized once by the filter
+     */
+    static void reject(HttpServletResponse response, ApiProblem problem, long retryAfterSeconds, byte[] body)
+            throws IOException {
+        response.setStatus(problem.status().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,152 @@
+package com.kamo.user_crud.filters;
+
+import com.kamo.user_crud.handlers.ApiProblem;
+import com.kamo.user_crud.limiters.ClientRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The RateLimitFilter class rejects requests to /api/users with 429 Too Many Requests once a client exceeds its
+ * request rate, before they take up any of the capacity of the application.
+ * <br/><br/>
+ *
+ * Each client has a token bucket in a ClientRateLimiter, holding up to the burst size and refilled at the configured
+ * rate. Clients are told by the Retry-After header when they have a token again. By default a client is identified by
+ * its remote address; behind a proxy, or to limit by API key, set the client header to the header that identifies
+ * it. A header holding a list, such as X-Forwarded-For, identifies the client by its last entry, which is the one
+ * appended by the proxy in front of the application and cannot be forged by the client. Rate limiting is off by
+ * default, as without a client header every client behind a proxy or load balancer would share one bucket. The number
+ * of rejected requests and of tracked clients are published as metrics.
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final byte[] RATE_LIMITED_BODY = ApiProblem.RATE_LIMITED.toJson("Rate limit exceeded.");
+
+    private final ClientRateLimiter limiter;
+
+    private final String clientHeader;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructs a new RateLimitFilter with the specified settings.
+     *
+     * @param enabled Whether requests are rate limited at all
+     * @param requestsPerSecond The sustained number of requests per second a client may make
+     * @param burst The number of requests a client may make at once after being idle
+     * @param maxClients The maximum number of clients whose buckets are kept
+     * @param clientHeader The request header identifying the client, or empty to use its remote address
+     */
+    @Autowired
+    public RateLimitFilter(@Value("${user-crud.rate-limit.enabled:false}") boolean enabled,
+                           @Value("${user-crud.rate-limit.requests-per-second:100}") double requestsPerSecond,
+                           @Value("${user-crud.rate-limit.burst:200}") int burst,
+                           @Value("${user-crud.rate-limit.max-clients:100000}") long maxClients,
+                           @Value("${user-crud.rate-limit.client-header:}") String clientHeader) {
+        this(enabled ? new ClientRateLimiter(requestsPerSecond, burst, maxClients) : null, clientHeader);
+    }
+
+    /**
+     * Constructs a new RateLimitFilter limiting requests with the specified limiter.
+     *
+     * @param limiter The limiter, or null to not limit requests
+     * @param clientHeader The request header identifying the client, or empty to use its remote address
+     */
+    RateLimitFilter(ClientRateLimiter limiter, String clientHeader) {
+        this.limiter = limiter;
+        this.clientHeader = clientHeader;
+    }
+
+    /**
+     * Skips the filter when rate limiting is turned off, and for requests outside /api/users.
+     *
+     * @param request The current request
+     * @return true if the request is not limited
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return limiter == null || !request.getRequestURI().startsWith("/api/users");
+    }
+
+    /**
+     * Serves the request if its client has a token left, and rejects it with 429 Too Many Requests otherwise.
+     *
+     * @param request The current request
+     * @param response The current response
+     * @param filterChain The remaining filter chain
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = limiter.tryAcquire(clientOf(request));
+
+        if (waitNanos > 0) {
+            rejected.increment();
+            LoadSheddingFilter.reject(response, ApiProblem.RATE_LIMITED,
+                    Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)),
+                    RATE_LIMITED_BODY);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Binds the number of rejected requests and of tracked clients to the registry.
+     *
+     * @param registry The registry to bind the metrics to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (limiter == null) {
+            return;
+        }
+
+        FunctionCounter.builder("user.requests.rejected", rejected, LongAdder::sum)
+                .description("The number of requests rejected before being served")
+                .tag("reason", "rate_limited")
+                .register(registry);
+        Gauge.builder("user.rate.limit.clients", limiter, ClientRateLimiter::getClientCount)
+                .description("The number of clients whose request rate is tracked")
+                .register(registry);
+    }
+
+    /**
+     * Returns the key identifying the client of a request.
+     *
+     * @param request The current request
+     * @return The last entry of the client header if it is configured and present, otherwise the remote address
+     */
+    private String clientOf(HttpServletRequest request) {
+        if (!clientHeader.isEmpty()) {
+            String client = request.getHeader(clientHeader);
+
+            if (client != null && !client.isBlank()) {
+                // Entries in front of the last one were sent by the client, or by proxies it passed on the way
+                return client.substring(client.lastIndexOf(',') + 1).trim();
+            }
+        }
+
+        return request.getRemoteAddr();
+    }
+}
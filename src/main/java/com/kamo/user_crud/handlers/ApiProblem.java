@@ -0,0 +1,128 @@
+package com.kamo.user_crud.handlers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.kamo.user_crud.dtos.Problem;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * The ApiProblem enum lists the kinds of problems the API reports, each with its problem type URI, title and status.
+ * <br/><br/>
+ *
+ * The response headers of each kind are built once and shared by every response, and occurrences are serialized with
+ * a single ObjectWriter that is built once, so that reporting a problem only allocates its detail and the serialized
+ * body. The exceptions of the web frameworks are reported as ProblemDetail by their ResponseEntityExceptionHandler
+ * instead, in the same format.
+ */
+public enum ApiProblem {
+    USER_NOT_FOUND("user-not-found", "User not found", HttpStatus.NOT_FOUND),
+    INVALID_ARGUMENT("invalid-argument", "Invalid argument", HttpStatus.BAD_REQUEST),
+    INVALID_PARAMETER("invalid-parameter", "Invalid request parameter", HttpStatus.BAD_REQUEST),
+    USER_ALREADY_EXISTS("user-already-exists", "User already exists", HttpStatus.BAD_REQUEST),
+    VERSION_MISMATCH("version-mismatch", "User has been modified", HttpStatus.PRECONDITION_FAILED),
+    RATE_LIMITED("rate-limited", "Too many requests", HttpStatus.TOO_MANY_REQUESTS),
+    OVERLOADED("overloaded", "Service overloaded", HttpStatus.SERVICE_UNAVAILABLE),
+    DATA_ACCESS_FAILURE("data-access-failure", "Data access failure", HttpStatus.INTERNAL_SERVER_ERROR),
+    INTERNAL_ERROR("internal-error", "Internal server error", HttpStatus.INTERNAL_SERVER_ERROR);
+
+    /**
+     * The prefix of the problem type URIs.
+     */
+    public static final String TYPE_PREFIX = "urn:user-crud:problem:";
+
+    private static final ObjectWriter PROBLEM_WRITER = new ObjectMapper().writerFor(Problem.class);
+
+    private final String type;
+
+    private final String title;
+
+    private final HttpStatus status;
+
+    private final HttpHeaders headers;
+
+    ApiProblem(String name, String title, HttpStatus status) {
+        this.type = TYPE_PREFIX + name;
+        this.title = title;
+        this.status = status;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * Returns the problem type URI.
+     *
+     * @return The URI identifying this kind of problem
+     */
+    public String type() {
+        return type;
+    }
+
+    /**
+     * Returns the title of the problem.
+     *
+     * @return The short summary of this kind of problem
+     */
+    public String title() {
+        return title;
+    }
+
+    /**
+     * Returns the status of the responses reporting the problem.
+     *
+     * @return The HTTP status
+     */
+    public HttpStatus status() {
+        return status;
+    }
+
+    /**
+     * Returns the headers of the responses reporting the problem.
+     *
+     * @return The read-only response headers
+     */
+    public HttpHeaders headers() {
+        return headers;
+    }
+
+    /**
+     * Describes an occurrence of the problem.
+     *
+     * @param detail The explanation of this occurrence
+     * @return The problem details
+     */
+    public Problem with(String detail) {
+        return new Problem(type, title, status.value(), detail);
+    }
+
+    /**
+     * Serializes an occurrence of the problem with the cached writer. Responses that are written before a request
+     * reaches the application use it to build their body once.
+     *
+     * @param detail The explanation of the occurrence
+     * @return The JSON document
+     */
+    public byte[] toJson(String detail) {
+        try {
+            return PROBLEM_WRITER.writeValueAsBytes(with(detail));
+        } catch (JsonProcessingException e) {
+            // A record of strings and an int always serializes
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Builds the response reporting an occurrence of the problem.
+     *
+     * @param detail The explanation of this occurrence
+     * @return A ResponseEntity containing the problem details, with the status and headers of the problem
+     */
+    public ResponseEntity<byte[]> toResponse(String detail) {
+        return new ResponseEntity<>(toJson(detail), headers, status);
+    }
+}
@@ -1,28 +1,155 @@
 package com.kamo.user_crud.handlers;
 
-import org.springframework.http.HttpStatus;
+import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
+import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.exceptions.ResourceVersionMismatchException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 /**
  * GlobalExceptionHandler is a centralized exception handling component for the application.
- * It uses @ControllerAdvice to apply global exception handling across all controllers.
+ * It uses @ControllerAdvice to apply global exception handling across all controllers on the blocking stack; the
+ * reactive stack is handled by {@link ReactiveExceptionHandler}.
+ * <br/><br/>
+ *
+ * Every error is reported as RFC 7807 problem details (application/problem+json). The exceptions of Spring MVC, such
+ * as an unreadable request body or an unsupported media type, are handled by {@link ResponseEntityExceptionHandler}
+ * and keep their own 4xx status; the exceptions of the application are mapped onto the kinds of problem listed in
+ * {@link ApiProblem}, with the exception message as the detail. Their bodies are serialized with the writer and
+ * headers that ApiProblem builds once, so the common 400 and 404 responses only allocate their detail and bytes.
  */
 @ControllerAdvice
-public class GlobalExceptionHandler {
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
     /**
-     * Handles all exceptions that occur during the execution of controller methods.
+     * The detail of every database failure, whose own message is not shown to clients.
+     */
+    static final String DATA_ACCESS_FAILURE_DETAIL = "The users could not be read or written.";
+
+    /**
+     * Handles a user that does not exist.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and HTTP status 404 (Not Found)
+     */
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<byte[]> handleNotFound(ResourceNotFoundException ex) {
+
+        return ApiProblem.USER_NOT_FOUND.toResponse(ex.getMessage());
+    }
+
+    /**
+     * Handles a request with invalid user data or arguments.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and HTTP status 400 (Bad Request)
+     */
+    @ExceptionHandler(InvalidResourceArgumentException.class)
+    public ResponseEntity<byte[]> handleInvalidArgument(InvalidResourceArgumentException ex) {
+
+        return ApiProblem.INVALID_ARGUMENT.toResponse(ex.getMessage());
+    }
+
+    /**
+     * Handles a user whose first name and last name are already taken.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and HTTP status 400 (Bad Request)
+     */
+    @ExceptionHandler(ResourceAlreadyExistsException.class)
+    public ResponseEntity<byte[]> handleAlreadyExists(ResourceAlreadyExistsException ex) {
+
+        return ApiProblem.USER_ALREADY_EXISTS.toResponse(ex.getMessage());
+    }
+
+    /**
+     * Handles a conditional write to a user that is no longer at the expected version.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and HTTP status 412 (Precondition Failed)
+     */
+    @ExceptionHandler(ResourceVersionMismatchException.class)
+    public ResponseEntity<byte[]> handleVersionMismatch(ResourceVersionMismatchException ex) {
+
+        return ApiProblem.VERSION_MISMATCH.toResponse(ex.getMessage());
+    }
+
+    /**
+     * Handles a failure to read or write the database. Its message may quote SQL or constraint names, so it is only
+     * logged, and the client is sent a fixed detail.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and HTTP status 500 (Internal Server Error)
+     */
+    @ExceptionHandler(DataAccessFailureException.class)
+    public ResponseEntity<byte[]> handleDataAccessFailure(DataAccessFailureException ex) {
+        logger.error("Data access failure while handling a request: {}", ex.getMessage());
+
+        return ApiProblem.DATA_ACCESS_FAILURE.toResponse(DATA_ACCESS_FAILURE_DETAIL);
+    }
+
+    /**
+     * Handles all other exceptions that occur during the execution of controller methods. Exceptions that carry an
+     * HTTP status of their own but are not handled by {@link ResponseEntityExceptionHandler} are reported with that
+     * status; anything else is logged and reported as an internal server error without its message.
      *
      * @param ex The exception that was thrown
-     * @param request The current web request during which the exception occurred
-     * @return A ResponseEntity containing the exception message and HTTP status 500 (Internal Server Error)
+     * @return A ResponseEntity containing the problem details and the status of the exception, or HTTP status 500
+     * (Internal Server Error)
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<?> handleGlobalException(Exception ex, WebRequest request) {
+    public ResponseEntity<?> handleGlobalException(Exception ex) {
+        if (ex instanceof ErrorResponse errorResponse) {
+            return ResponseEntity.status(errorResponse.getStatusCode())
+                    .headers(errorResponse.getHeaders())
+                    .body(errorResponse.getBody());
+        }
 
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        logger.error("Unexpected error while handling a request", ex);
+        return ApiProblem.INTERNAL_ERROR.toResponse("An unexpected error occurred.");
+    }
+
+    /**
+     * Handles a request parameter or path variable that cannot be converted to the type the controller method expects,
+     * such as a user ID that is not a number. The request is rejected before it reaches a service or the database.
+     *
+     * @param ex The exception that was thrown
+     * @param headers The headers of the response
+     * @param status The status of the response, 400 (Bad Request)
+     * @param request The current request
+     * @return A ResponseEntity containing the problem details and HTTP status 400 (Bad Request)
+     */
+    @Override
+    protected ResponseEntity<Object> handleTypeMismatch(TypeMismatchException ex, HttpHeaders headers,
+                                                        HttpStatusCode status, WebRequest request) {
+
+        return ResponseEntity.status(status)
+                .headers(ApiProblem.INVALID_PARAMETER.headers())
+                .body(ApiProblem.INVALID_PARAMETER.toJson(invalidParameterDetail(ex.getPropertyName(), ex.getValue())));
+    }
+
+    /**
+     * Explains a request parameter or path variable with a value of the wrong type.
+     *
+     * @param name The name of the parameter
+     * @param value The value received for the parameter
+     * @return The detail of the problem
+     */
+    static String invalidParameterDetail(String name, Object value) {
+        return "Invalid value '" + value + "' for parameter '" + name + "'.";
     }
 }
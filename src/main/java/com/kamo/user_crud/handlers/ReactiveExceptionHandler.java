@@ -0,0 +1,139 @@
+package com.kamo.user_crud.handlers;
+
+import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
+import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.exceptions.ResourceVersionMismatchException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactiveExceptionHandler is the counterpart of {@link GlobalExceptionHandler} on the reactive stack. It reports
+ * every error as the same RFC 7807 problem details, leaving the exceptions of Spring WebFlux with their own 4xx status
+ * and mapping the exceptions of the application onto the kinds of problem listed in {@link ApiProblem}.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler extends ResponseEntityExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+
+    /**
+     * Handles a user that does not exist.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and HTTP status 404 (Not Found)
+     */
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<byte[]> handleNotFound(ResourceNotFoundException ex) {
+
+        return ApiProblem.USER_NOT_FOUND.toResponse(ex.getMessage());
+    }
+
+    /**
+     * Handles a request with invalid user data or arguments.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and HTTP status 400 (Bad Request)
+     */
+    @ExceptionHandler(InvalidResourceArgumentException.class)
+    public ResponseEntity<byte[]> handleInvalidArgument(InvalidResourceArgumentException ex) {
+
+        return ApiProblem.INVALID_ARGUMENT.toResponse(ex.getMessage());
+    }
+
+    /**
+     * Handles a user whose first name and last name are already taken.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and HTTP status 400 (Bad Request)
+     */
+    @ExceptionHandler(ResourceAlreadyExistsException.class)
+    public ResponseEntity<byte[]> handleAlreadyExists(ResourceAlreadyExistsException ex) {
+
+        return ApiProblem.USER_ALREADY_EXISTS.toResponse(ex.getMessage());
+    }
+
+    /**
+     * Handles a conditional write to a user that is no longer at the expected version.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and HTTP status 412 (Precondition Failed)
+     */
+    @ExceptionHandler(ResourceVersionMismatchException.class)
+    public ResponseEntity<byte[]> handleVersionMismatch(ResourceVersionMismatchException ex) {
+
+        return ApiProblem.VERSION_MISMATCH.toResponse(ex.getMessage());
+    }
+
+    /**
+     * Handles a failure to read or write the database. Its message may quote SQL or constraint names, so it is only
+     * logged, and the client is sent a fixed detail.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and HTTP status 500 (Internal Server Error)
+     */
+    @ExceptionHandler(DataAccessFailureException.class)
+    public ResponseEntity<byte[]> handleDataAccessFailure(DataAccessFailureException ex) {
+        logger.error("Data access failure while handling a request: {}", ex.getMessage());
+
+        return ApiProblem.DATA_ACCESS_FAILURE.toResponse(GlobalExceptionHandler.DATA_ACCESS_FAILURE_DETAIL);
+    }
+
+    /**
+     * Handles all other exceptions that occur during the execution of controller methods, as
+     * {@link GlobalExceptionHandler#handleGlobalException(Exception)} does on the blocking stack.
+     *
+     * @param ex The exception that was thrown
+     * @return A ResponseEntity containing the problem details and the status of the exception, or HTTP status 500
+     * (Internal Server Error)
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<?> handleGlobalException(Exception ex) {
+        if (ex instanceof ErrorResponse errorResponse) {
+            return ResponseEntity.status(errorResponse.getStatusCode())
+                    .headers(errorResponse.getHeaders())
+                    .body(errorResponse.getBody());
+        }
+
+        logger.error("Unexpected error while handling a request", ex);
+        return ApiProblem.INTERNAL_ERROR.toResponse("An unexpected error occurred.");
+    }
+
+    /**
+     * Handles a request that cannot be bound to the controller method, such as a user ID that is not a number. The
+     * request is rejected before it reaches a service or the database.
+     *
+     * @param ex The exception that was thrown
+     * @param headers The headers of the response
+     * @param status The status of the response, 400 (Bad Request)
+     * @param exchange The current exchange
+     * @return A ResponseEntity containing the problem details and HTTP status 400 (Bad Request)
+     */
+    @Override
+    protected Mono<ResponseEntity<Object>> handleServerWebInputException(ServerWebInputException ex,
+                                                                         HttpHeaders headers, HttpStatusCode status,
+                                                                         ServerWebExchange exchange) {
+        MethodParameter parameter = ex.getMethodParameter();
+        String detail = ex.getCause() instanceof TypeMismatchException mismatch && parameter != null
+                ? GlobalExceptionHandler.invalidParameterDetail(parameter.getParameterName(), mismatch.getValue())
+                : ex.getReason();
+
+        return Mono.just(ResponseEntity.status(status)
+                .headers(ApiProblem.INVALID_PARAMETER.headers())
+                .body(ApiProblem.INVALID_PARAMETER.toJson(detail)));
+    }
+}
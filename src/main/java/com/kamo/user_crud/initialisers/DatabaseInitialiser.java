@@ -1,29 +1,52 @@
 package com.kamo.user_crud.initialisers;
 
-import com.kamo.user_crud.entities.User;
-import com.kamo.user_crud.repositories.UserRepository;
+import com.kamo.user_crud.dtos.UserDataFormat;
+import com.kamo.user_crud.services.UserImportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 
 /**
- * Component class responsible for initializing the database with dummy entries upon application startup.
+ * Component class responsible for initializing the database upon application startup.
+ * If an import file is configured, its users are imported, resuming an interrupted import of the same file;
+ * otherwise the database is seeded with the dummy entries in db/seed/users.csv, unless seeding is turned off.
  */
 @Component
+@Profile("!reactive")
 public class DatabaseInitialiser implements CommandLineRunner {
 
-    private final UserRepository userRepository; // Assuming you have a UserRepository
+    /**
+     * The classpath location of the dummy entries.
+     */
+    public static final String SEED_RESOURCE = "db/seed/users.csv";
+
+    private final UserImportService userImportService;
+
+    private final String importFile;
+
+    private final boolean seed;
 
     /**
-     * Constructs a new DatabaseInitializer with the specified UserRepository.
+     * Constructs a new DatabaseInitialiser with the specified UserImportService.
      *
-     * @param userRepository The UserRepository used to interact with the database
+     * @param userImportService The UserImportService used to load the users into the database
+     * @param importFile The path of the CSV or NDJSON file to import, or empty to seed the dummy entries
+     * @param seed Whether to seed the dummy entries when no import file is set
      */
     @Autowired
-    public DatabaseInitialiser(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public DatabaseInitialiser(UserImportService userImportService,
+                               @Value("${user-crud.import.file:}") String importFile,
+                               @Value("${user-crud.import.seed:true}") boolean seed) {
+        this.userImportService = userImportService;
+        this.importFile = importFile;
+        this.seed = seed;
     }
 
     /**
@@ -32,12 +55,18 @@ public class DatabaseInitialiser implements CommandLineRunner {
      * @param args Command-line arguments (not used)
      */
     @Override
-    public void run(String... args) {
-        // Create dummy user entries
-        User user1 = new User("John", "Doe", "+27 123 456 789");
-        User user2 = new User("Jane", "Doe", "+98 765 432 100");
+    public void run(String... args) throws IOException {
+        if (!importFile.isBlank()) {
+            userImportService.importUsers(Path.of(importFile));
+            return;
+        }
+        if (!seed) {
+            return;
+        }
 
-        // Save the dummy entries to the database
-        userRepository.saveAll(List.of(user1, user2));
+        // Seed the dummy entries
+        try (InputStream in = new ClassPathResource(SEED_RESOURCE).getInputStream()) {
+            userImportService.importUsers(in, UserDataFormat.CSV, 0);
+        }
     }
 }
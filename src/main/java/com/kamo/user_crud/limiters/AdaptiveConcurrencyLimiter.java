@@ -0,0 +1,171 @@
+package com.kamo.user_crud.limiters;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The AdaptiveConcurrencyLimiter class bounds the number of requests served at once, with a limit that adapts to
+ * how long the requests take.
+ * <br/><br/>
+ *
+ * The limit follows additive increase, multiplicative decrease (AIMD), as TCP congestion control does: every request
+ * that completes within the latency threshold raises the limit by 1/limit, about 1 for every limit requests, while
+ * a request that takes longer or fails with a server error multiplies it by the backoff ratio. The limit is only
+ * raised while at least half of it is in use, so it does not drift up while the application is idle, and it is
+ * lowered at most once per latency threshold, so that the requests that were already queued when the application
+ * became overloaded cut it once rather than each on their own. Requests beyond the limit are rejected straight away,
+ * which keeps the queue in front of the database, and therefore the latency of the admitted requests, short.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyThresholdNanos;
+
+    private final double backoffRatio;
+
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // The limit is a double, so that it can grow by fractions of a request; it is stored as its bits
+    private final AtomicLong limitBits;
+
+    private final AtomicLong lastDecrease;
+
+    /**
+     * Constructs a new AdaptiveConcurrencyLimiter.
+     *
+     * @param initialLimit The limit to start with
+     * @param minLimit The lowest the limit may drop to
+     * @param maxLimit The highest the limit may grow to
+     * @param latencyThresholdNanos The latency in nanoseconds above which a request lowers the limit
+     * @param backoffRatio The factor, between 0 and 1, the limit is multiplied by when it is lowered
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos,
+                                      double backoffRatio) {
+        this(initialLimit, minLimit, maxLimit, latencyThresholdNanos, backoffRatio, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new AdaptiveConcurrencyLimiter reading the time from the specified clock.
+     *
+     * @param initialLimit The limit to start with
+     * @param minLimit The lowest the limit may drop to
+     * @param maxLimit The highest the limit may grow to
+     * @param latencyThresholdNanos The latency in nanoseconds above which a request lowers the limit
+     * @param backoffRatio The factor, between 0 and 1, the limit is multiplied by when it is lowered
+     * @param clock The clock returning the current time in nanoseconds
+     */
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos,
+                               double backoffRatio, LongSupplier clock) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException(
+                    "The limits must satisfy 1 <= min <= max and the backoff ratio must be between 0 and 1.");
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.clock = clock;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(Math.min(Math.max(initialLimit, minLimit), maxLimit)));
+        this.lastDecrease = new AtomicLong(clock.getAsLong() - latencyThresholdNanos);
+    }
+
+    /**
+     * Admits a request if fewer requests than the limit are in flight. An admitted request must be released with
+     * {@link #release(long, boolean)} once it completes.
+     *
+     * @return True if the request is admitted, false if it should be rejected
+     */
+    public boolean tryAcquire() {
+        int limit = getLimit();
+
+        while (true) {
+            int current = inFlight.get();
+
+            if (current >= limit) {
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request and adapts the limit to how it went.
+     *
+     * @param latencyNanos How long the request took, in nanoseconds
+     * @param failed Whether the request failed with a server error
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (current * 2 >= getLimit()) {
+            increase();
+        }
+    }
+
+    /**
+     * Returns the current limit, rounded down to a whole number of requests.
+     *
+     * @return The number of requests that may be in flight at once
+     */
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     *
+     * @return The number of admitted requests that have not been released yet
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Raises the limit by 1/limit, up to the maximum.
+     */
+    private void increase() {
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+
+            if (limit >= maxLimit
+                    || limitBits.compareAndSet(bits, Double.doubleToLongBits(Math.min(limit + 1 / limit, maxLimit)))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Multiplies the limit by the backoff ratio, down to the minimum, unless it has already been lowered within the
+     * last latency threshold.
+     */
+    private void decrease() {
+        long now = clock.getAsLong();
+        long last = lastDecrease.get();
+
+        if (now - last < latencyThresholdNanos || !lastDecrease.compareAndSet(last, now)) {
+            return;
+        }
+
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+
+            if (limitBits.compareAndSet(bits, Double.doubleToLongBits(Math.max(limit * backoffRatio, minLimit)))) {
+                return;
+            }
+        }
+    }
+}
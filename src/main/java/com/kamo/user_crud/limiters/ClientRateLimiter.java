@@ -0,0 +1,101 @@
+package com.kamo.user_crud.limiters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The ClientRateLimiter class limits the rate of requests of each client with a token bucket per client.
+ * <br/><br/>
+ *
+ * The buckets are implemented with the generic cell rate algorithm (GCRA): instead of a token count that has to be
+ * refilled, each client only has the theoretical arrival time of its next request, which a request moves forward by
+ * the emission interval if it is admitted. This is equivalent to a bucket of {@code burst} tokens refilled at
+ * {@code requestsPerSecond}, and is a single compare-and-set on an AtomicLong, so admitting a request takes no lock.
+ * The buckets are kept in a bounded Caffeine map, which is striped internally so that clients do not contend with each
+ * other. A bucket is dropped once its client has been idle long enough for it to be full again, so dropping it loses
+ * nothing; if there are more clients than the map holds, the least recently seen clients start over with a full
+ * bucket.
+ */
+public class ClientRateLimiter {
+
+    private final long emissionIntervalNanos;
+
+    private final long burstToleranceNanos;
+
+    private final LongSupplier clock;
+
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * Constructs a new ClientRateLimiter.
+     *
+     * @param requestsPerSecond The sustained number of requests per second a client may make
+     * @param burst The number of requests a client may make at once after being idle
+     * @param maxClients The maximum number of clients whose buckets are kept
+     */
+    public ClientRateLimiter(double requestsPerSecond, int burst, long maxClients) {
+        this(requestsPerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new ClientRateLimiter reading the time from the specified clock.
+     *
+     * @param requestsPerSecond The sustained number of requests per second a client may make
+     * @param burst The number of requests a client may make at once after being idle
+     * @param maxClients The maximum number of clients whose buckets are kept
+     * @param clock The clock returning the current time in nanoseconds
+     */
+    ClientRateLimiter(double requestsPerSecond, int burst, long maxClients, LongSupplier clock) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("The rate must be positive and the burst at least 1.");
+        }
+
+        this.emissionIntervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(burstToleranceNanos + emissionIntervalNanos))
+                .ticker(clock::getAsLong)
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the specified client, if it has one.
+     *
+     * @param client The key identifying the client
+     * @return 0 if the request is admitted, otherwise the number of nanoseconds until the client has a token again
+     */
+    public long tryAcquire(String client) {
+        AtomicLong theoreticalArrival = buckets.get(client, key -> new AtomicLong(clock.getAsLong()));
+
+        while (true) {
+            long now = clock.getAsLong();
+            long arrival = theoreticalArrival.get();
+            long start = arrival - now > 0 ? arrival : now;
+            long wait = start - now - burstToleranceNanos;
+
+            if (wait > 0) {
+                return wait;
+            }
+
+            if (theoreticalArrival.compareAndSet(arrival, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate number of clients whose buckets are kept.
+     *
+     * @return The number of tracked clients
+     */
+    public long getClientCount() {
+        return buckets.estimatedSize();
+    }
+}
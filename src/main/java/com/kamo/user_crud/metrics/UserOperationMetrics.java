@@ -0,0 +1,123 @@
+package com.kamo.user_crud.metrics;
+
+import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
+import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.exceptions.ResourceVersionMismatchException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The UserOperationMetrics class times the operations of the user service and counts them by outcome.
+ * <br/><br/>
+ *
+ * Every operation is recorded in the {@value #METRIC_NAME} timer, tagged with the operation name and one of the
+ * outcomes {@value #SUCCESS}, {@value #NOT_FOUND}, {@value #INVALID}, {@value #DUPLICATE},
+ * {@value #VERSION_MISMATCH}, {@value #DATA_ERROR} or {@value #ERROR}. The timer publishes a percentile histogram,
+ * so latency percentiles such as p99 can be computed and aggregated across instances by the monitoring system, and
+ * its count is the number of operations per outcome.
+ */
+@Component
+public class UserOperationMetrics {
+
+    /**
+     * The name of the timer recording user operations.
+     */
+    public static final String METRIC_NAME = "user.operations";
+
+    // Outcome tags
+    public static final String SUCCESS = "success";
+    public static final String NOT_FOUND = "not_found";
+    public static final String INVALID = "invalid";
+    public static final String DUPLICATE = "duplicate";
+    public static final String VERSION_MISMATCH = "version_mismatch";
+    public static final String DATA_ERROR = "data_error";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+
+    // Timers are looked up once per operation and outcome rather than rebuilt on every call
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new UserOperationMetrics recording into the specified registry.
+     *
+     * @param registry The MeterRegistry the timers are registered in
+     */
+    public UserOperationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Runs an operation and records its duration and outcome. Exceptions thrown by the operation are rethrown.
+     *
+     * @param operation The name of the operation, such as "add" or "get"
+     * @param action The operation to run
+     * @return The result of the operation
+     */
+    public <T> T record(String operation, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = ERROR;
+
+        try {
+            T result = action.get();
+            outcome = SUCCESS;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            timer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Maps an exception thrown by an operation to its outcome tag.
+     *
+     * @param e The exception
+     * @return The outcome tag
+     */
+    static String outcomeOf(Throwable e) {
+        if (e instanceof ResourceNotFoundException) {
+            return NOT_FOUND;
+        } else if (e instanceof InvalidResourceArgumentException) {
+            return INVALID;
+        } else if (e instanceof ResourceAlreadyExistsException) {
+            return DUPLICATE;
+        } else if (e instanceof ResourceVersionMismatchException) {
+            return VERSION_MISMATCH;
+        } else if (e instanceof DataAccessFailureException) {
+            return DATA_ERROR;
+        } else {
+            return ERROR;
+        }
+    }
+
+    /**
+     * Returns the timer of an operation and outcome, registering it on first use.
+     *
+     * @param operation The name of the operation
+     * @param outcome The outcome tag
+     * @return The timer
+     */
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, key -> Timer.builder(METRIC_NAME)
+                        .description("Duration and outcome of user service operations")
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.of(100, ChronoUnit.MICROS))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(registry));
+    }
+}
@@ -0,0 +1,321 @@
+package com.kamo.user_crud.repositories;
+
+import com.kamo.user_crud.dtos.UserPatch;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.validators.ContactNumberValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.dialect.Escaper;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+/**
+ * The ReactiveUserRepository class provides non-blocking access to User entities over R2DBC.
+ * It mirrors the queries of {@link UserRepository} and is only used by the reactive profile.
+ * <br/><br/>
+ *
+ * It is a class built on R2dbcEntityTemplate rather than a Spring Data repository interface, because the JPA
+ * repository scanning of the blocking stack rejects reactive repository interfaces it finds on the classpath.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveUserRepository {
+
+    private final R2dbcEntityTemplate template;
+
+    /**
+     * Constructs a new ReactiveUserRepository with the specified R2dbcEntityTemplate.
+     *
+     * @param template The R2dbcEntityTemplate used to interact with the database
+     */
+    @Autowired
+    public ReactiveUserRepository(R2dbcEntityTemplate template) {
+        this.template = template;
+    }
+
+    /**
+     * Inserts a new user at version 0, whose ID is generated by the database.
+     *
+     * @param user The User object to be inserted, already normalized
+     * @return A Mono emitting the inserted User object with its ID
+     */
+    public Mono<User> insert(User user) {
+        user.setVersion(0L);
+        return template.insert(user);
+    }
+
+    /**
+     * Finds a user by their ID.
+     *
+     * @param userId The ID of the user
+     * @return A Mono emitting the user, or completing empty if the user does not exist
+     */
+    public Mono<User> findById(Long userId) {
+        return template.selectOne(query(where("userId").is(userId)), User.class);
+    }
+
+    /**
+     * Finds the users with the specified normalized contact number.
+     *
+     * @param normalizedContactNumber The contact number reduced to its digits
+     * @return A Flux emitting the users with that contact number
+     */
+    public Flux<User> findByNormalizedContactNumber(String normalizedContactNumber) {
+        return template.select(query(where("normalizedContactNumber").is(normalizedContactNumber)), User.class);
+    }
+
+    /**
+     * Finds the users with an ID greater than the specified ID, in ascending ID order.
+     *
+     * @param userId The ID the users must come after
+     * @param limit The maximum number of users to return
+     * @return A Flux emitting the users after the specified ID
+     */
+    public Flux<User> findByUserIdGreaterThan(long userId, int limit) {
+        return template.select(inUserIdOrder(query(where("userId").greaterThan(userId)), limit), User.class);
+    }
+
+    /**
+     * Streams every user with an ID greater than the specified ID, in ascending ID order. Rows are read from the
+     * database as the subscriber requests them.
+     *
+     * @param userId The ID the users must come after
+     * @return A Flux emitting the users after the specified ID
+     */
+    public Flux<User> streamByUserIdGreaterThan(long userId) {
+        return template.select(query(where("userId").greaterThan(userId)).sort(Sort.by("userId")), User.class);
+    }
+
+    /**
+     * Finds the users whose lower-case first name starts with the specified prefix and whose ID is greater than
+     * the specified ID, in ascending ID order.
+     *
+     * @param prefix The lower-case prefix
+     * @param userId The ID the users must come after
+     * @param limit The maximum number of users to return
+     * @return A Flux emitting the matching users
+     */
+    public Flux<User> findByFirstNameLowerStartingWith(String prefix, long userId, int limit) {
+        return template.select(inUserIdOrder(query(where("firstNameLower").like(startingWith(prefix))
+                .and("userId").greaterThan(userId)), limit), User.class);
+    }
+
+    /**
+     * Finds the users whose lower-case last name starts with the specified prefix and whose ID is greater than
+     * the specified ID, in ascending ID order.
+     *
+     * @param prefix The lower-case prefix
+     * @param userId The ID the users must come after
+     * @param limit The maximum number of users to return
+     * @return A Flux emitting the matching users
+     */
+    public Flux<User> findByLastNameLowerStartingWith(String prefix, long userId, int limit) {
+        return template.select(inUserIdOrder(query(where("lastNameLower").like(startingWith(prefix))
+                .and("userId").greaterThan(userId)), limit), User.class);
+    }
+
+    /**
+     * Updates the attributes of a user with a single UPDATE statement and increments its version.
+     *
+     * @param userId The ID of the user to be updated
+     * @param user The User object with updated data, already normalized
+     * @return A Mono emitting the number of users updated, which is 0 if the user does not exist
+     */
+    public Mono<Long> updateByUserId(Long userId, User user) {
+        return update(userId, null, columnsOf(user));
+    }
+
+    /**
+     * Updates the attributes of a user with a single UPDATE statement if it is still at the specified version, and
+     * increments its version.
+     *
+     * @param userId The ID of the user to be updated
+     * @param version The version the user must be at
+     * @param user The User object with updated data, already normalized
+     * @return A Mono emitting the number of users updated, which is 0 if the user does not exist or is at another
+     * version
+     */
+    public Mono<Long> updateByUserIdAndVersion(Long userId, Long version, User user) {
+        return update(userId, version, columnsOf(user));
+    }
+
+    /**
+     * Applies a patch to a user with a single UPDATE statement that sets only the changed columns and their derived
+     * columns, and increments its version.
+     *
+     * @param userId The ID of the user to be patched
+     * @param patch The changes to apply
+     * @return A Mono emitting the number of users updated, which is 0 if the user does not exist
+     */
+    public Mono<Long> patchByUserId(Long userId, UserPatch patch) {
+        return update(userId, null, columnsOf(patch));
+    }
+
+    /**
+     * Applies a patch to a user with a single UPDATE statement if it is still at the specified version, setting only
+     * the changed columns and their derived columns, and increments its version.
+     *
+     * @param userId The ID of the user to be patched
+     * @param version The version the user must be at
+     * @param patch The changes to apply
+     * @return A Mono emitting the number of users updated, which is 0 if the user does not exist or is at another
+     * version
+     */
+    public Mono<Long> patchByUserIdAndVersion(Long userId, Long version, UserPatch patch) {
+        return update(userId, version, columnsOf(patch));
+    }
+
+    /**
+     * Deletes a user with a single DELETE statement.
+     *
+     * @param userId The ID of the user to be deleted
+     * @return A Mono emitting the number of users deleted, which is 0 if the user does not exist
+     */
+    public Mono<Long> deleteByUserId(Long userId) {
+        return template.delete(query(where("userId").is(userId)), User.class);
+    }
+
+    /**
+     * Deletes a user with a single DELETE statement if it is still at the specified version.
+     *
+     * @param userId The ID of the user to be deleted
+     * @param version The version the user must be at
+     * @return A Mono emitting the number of users deleted, which is 0 if the user does not exist or is at another
+     * version
+     */
+    public Mono<Long> deleteByUserIdAndVersion(Long userId, Long version) {
+        return template.delete(query(where("userId").is(userId).and("version").is(version)), User.class);
+    }
+
+    /**
+     * Checks whether a user with the specified ID exists.
+     *
+     * @param userId The ID of the user
+     * @return A Mono emitting true if the user exists, false otherwise
+     */
+    public Mono<Boolean> existsById(Long userId) {
+        return template.exists(query(where("userId").is(userId)), User.class);
+    }
+
+    /**
+     * Sets columns of a user and increments its version, optionally only if it is at the specified version.
+     * The statement is written in SQL because the version is incremented by the database, which the Update API of
+     * Spring Data Relational cannot express. Each column is bound to a parameter of the same name.
+     *
+     * @param userId The ID of the user to be updated
+     * @param version The version the user must be at, or null to update it at any version
+     * @param columns The new values of the columns to set, by column name
+     * @return A Mono emitting the number of users updated
+     */
+    private Mono<Long> update(Long userId, Long version, Map<String, String> columns) {
+        String sql = "UPDATE \"user\" SET "
+                + columns.keySet().stream().map(column -> column + " = :" + column).collect(Collectors.joining(", "))
+                + ", version = version + 1 WHERE user_id = :userId"
+                + (version != null ? " AND version = :version" : "");
+
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(sql).bind("userId", userId);
+
+        for (Map.Entry<String, String> column : columns.entrySet()) {
+            spec = bind(spec, column.getKey(), column.getValue());
+        }
+
+        if (version != null) {
+            spec = spec.bind("version", version);
+        }
+
+        return spec.fetch().rowsUpdated();
+    }
+
+    /**
+     * Returns the columns a full update of a user sets.
+     *
+     * @param user The User object with updated data, already normalized
+     * @return The new values of the columns, by column name
+     */
+    private static Map<String, String> columnsOf(User user) {
+        Map<String, String> columns = new LinkedHashMap<>();
+
+        columns.put("first_name", user.getFirstName());
+        columns.put("last_name", user.getLastName());
+        columns.put("contact_number", user.getContactNumber());
+        columns.put("normalized_contact_number", user.getNormalizedContactNumber());
+        columns.put("first_name_lower", user.getFirstNameLower());
+        columns.put("last_name_lower", user.getLastNameLower());
+
+        return columns;
+    }
+
+    /**
+     * Returns the columns a patch sets: the changed columns and their derived columns, computed as
+     * {@link User#normalize()} would.
+     *
+     * @param patch The changes to apply
+     * @return The new values of the columns, by column name
+     */
+    private static Map<String, String> columnsOf(UserPatch patch) {
+        Map<String, String> columns = new LinkedHashMap<>();
+
+        if (patch.contains("firstName")) {
+            columns.put("first_name", patch.get("firstName"));
+            columns.put("first_name_lower", User.toLowerCase(patch.get("firstName")));
+        }
+
+        if (patch.contains("lastName")) {
+            columns.put("last_name", patch.get("lastName"));
+            columns.put("last_name_lower", User.toLowerCase(patch.get("lastName")));
+        }
+
+        if (patch.contains("contactNumber")) {
+            columns.put("contact_number", patch.get("contactNumber"));
+            columns.put("normalized_contact_number", ContactNumberValidator.normalize(patch.get("contactNumber")));
+        }
+
+        return columns;
+    }
+
+    /**
+     * Binds a string parameter of a statement, which may be null.
+     *
+     * @param spec The statement
+     * @param name The name of the parameter
+     * @param value The value of the parameter, or null
+     * @return The statement with the parameter bound
+     */
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                          String value) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, String.class);
+    }
+
+    /**
+     * Orders a query by ascending ID and limits the number of users it returns.
+     *
+     * @param query The query
+     * @param limit The maximum number of users to return
+     * @return The ordered and limited query
+     */
+    private static Query inUserIdOrder(Query query, int limit) {
+        return query.sort(Sort.by("userId")).limit(limit);
+    }
+
+    /**
+     * Builds a LIKE pattern matching values that start with the specified prefix, taken literally.
+     *
+     * @param prefix The prefix
+     * @return The LIKE pattern
+     */
+    private static String startingWith(String prefix) {
+        return Escaper.DEFAULT.escape(prefix) + "%";
+    }
+}
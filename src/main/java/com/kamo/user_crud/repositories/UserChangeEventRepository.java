@@ -0,0 +1,41 @@
+package com.kamo.user_crud.repositories;
+
+import com.kamo.user_crud.entities.UserChangeEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * The UserChangeEventRepository interface provides access to the UserChangeEvent outbox in the database.
+ */
+@Repository
+public interface UserChangeEventRepository extends JpaRepository<UserChangeEvent, Long> {
+
+    /**
+     * Retrieves the oldest events that have not been dispatched yet, in the order they were written.
+     *
+     * @param limit The maximum number of events to return
+     * @return The undispatched events, ordered by ascending event ID
+     */
+    List<UserChangeEvent> findByPositionIsNullOrderByEventIdAsc(Limit limit);
+
+    /**
+     * Retrieves the dispatched events after the specified position, using the index on the position.
+     *
+     * @param position The position after which to start (exclusive)
+     * @param limit The maximum number of events to return
+     * @return The events with a position greater than the specified position, ordered by ascending position
+     */
+    List<UserChangeEvent> findByPositionGreaterThanOrderByPositionAsc(Long position, Limit limit);
+
+    /**
+     * Retrieves the position of the last dispatched event.
+     *
+     * @return The greatest position, or null if no event has been dispatched
+     */
+    @Query("select max(e.position) from UserChangeEvent e")
+    Long findMaxPosition();
+}
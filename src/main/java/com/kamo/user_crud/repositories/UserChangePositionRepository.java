@@ -0,0 +1,28 @@
+package com.kamo.user_crud.repositories;
+
+import com.kamo.user_crud.entities.UserChangePosition;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * The UserChangePositionRepository interface provides access to the position of the change stream in the database.
+ */
+@Repository
+public interface UserChangePositionRepository extends JpaRepository<UserChangePosition, Long> {
+
+    /**
+     * Retrieves the position row and locks it until the end of the current transaction (SELECT ... FOR UPDATE), so
+     * that other instances wait to assign positions until this one has committed.
+     *
+     * @param id The ID of the row
+     * @return The locked row, or an empty Optional if it has not been created yet
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from UserChangePosition p where p.id = :id")
+    Optional<UserChangePosition> findLockedById(Long id);
+}
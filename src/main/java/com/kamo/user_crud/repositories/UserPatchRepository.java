@@ -0,0 +1,32 @@
+package com.kamo.user_crud.repositories;
+
+import com.kamo.user_crud.dtos.UserPatch;
+
+/**
+ * The UserPatchRepository interface is the custom fragment of {@link UserRepository} that applies partial updates.
+ * Unlike the updates declared with JPQL, the statement depends on which attributes a patch changes, so it is built
+ * with the Criteria API by {@link UserPatchRepositoryImpl}.
+ */
+public interface UserPatchRepository {
+
+    /**
+     * Applies a patch to a user in a single UPDATE statement that sets only the changed columns and their derived
+     * columns, without loading the user first, and increments its version.
+     *
+     * @param userId The ID of the user to be patched
+     * @param patch The changes to apply
+     * @return The number of users updated, which is 0 if the user does not exist
+     */
+    int patchByUserId(Long userId, UserPatch patch);
+
+    /**
+     * Applies a patch to a user in a single UPDATE statement if it is still at the specified version, setting only the
+     * changed columns and their derived columns, and increments its version.
+     *
+     * @param userId The ID of the user to be patched
+     * @param version The version the user must be at
+     * @param patch The changes to apply
+     * @return The number of users updated, which is 0 if the user does not exist or is at another version
+     */
+    int patchByUserIdAndVersion(Long userId, Long version, UserPatch patch);
+}
@@ -0,0 +1,84 @@
+package com.kamo.user_crud.repositories;
+
+import com.kamo.user_crud.dtos.UserPatch;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.validators.ContactNumberValidator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The UserPatchRepositoryImpl class implements {@link UserPatchRepository} with Criteria API bulk updates.
+ * Spring Data JPA finds it by its name and merges its methods into {@link UserRepository}.
+ */
+public class UserPatchRepositoryImpl implements UserPatchRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Constructs a new UserPatchRepositoryImpl with the specified EntityManager.
+     *
+     * @param entityManager The EntityManager used to execute the updates
+     */
+    @Autowired
+    public UserPatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int patchByUserId(Long userId, UserPatch patch) {
+        return patch(userId, null, patch);
+    }
+
+    @Override
+    @Transactional
+    public int patchByUserIdAndVersion(Long userId, Long version, UserPatch patch) {
+        return patch(userId, version, patch);
+    }
+
+    /**
+     * Builds and executes the UPDATE statement of a patch. The bulk update bypasses the entity callbacks, so the
+     * derived columns of the changed attributes are computed here, as {@link User#normalize()} would.
+     *
+     * @param userId The ID of the user to be patched
+     * @param version The version the user must be at, or null to patch it at any version
+     * @param patch The changes to apply
+     * @return The number of users updated
+     */
+    private int patch(Long userId, Long version, UserPatch patch) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = builder.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+
+        if (patch.contains("firstName")) {
+            update.set(user.<String>get("firstName"), patch.get("firstName"));
+            update.set(user.<String>get("firstNameLower"), User.toLowerCase(patch.get("firstName")));
+        }
+
+        if (patch.contains("lastName")) {
+            update.set(user.<String>get("lastName"), patch.get("lastName"));
+            update.set(user.<String>get("lastNameLower"), User.toLowerCase(patch.get("lastName")));
+        }
+
+        if (patch.contains("contactNumber")) {
+            update.set(user.<String>get("contactNumber"), patch.get("contactNumber"));
+            update.set(user.<String>get("normalizedContactNumber"),
+                    ContactNumberValidator.normalize(patch.get("contactNumber")));
+        }
+
+        update.set(user.<Long>get("version"), builder.sum(user.<Long>get("version"), 1L));
+
+        Predicate where = builder.equal(user.get("userId"), userId);
+
+        if (version != null) {
+            where = builder.and(where, builder.equal(user.get("version"), version));
+        }
+
+        return entityManager.createQuery(update.where(where)).executeUpdate();
+    }
+}
@@ -1,15 +1,32 @@
 package com.kamo.user_crud.repositories;
 
 import com.kamo.user_crud.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * The UserRepository interface provides access to User entities in the database.
- * It extends JpaRepository to inherit CRUD methods for User entities.
+ * It extends JpaRepository to inherit CRUD methods for User entities, and UserPatchRepository for partial updates.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, Long>, UserPatchRepository {
+
+    /**
+     * The number of rows fetched from the database per round trip when streaming users.
+     */
+    String STREAM_FETCH_SIZE = "1000";
 
     /**
      * Checks if a user with the specified first name and last name already exists in the database.
@@ -19,4 +36,196 @@ public interface UserRepository extends JpaRepository<User, String> {
      * @return True if the user exists, false otherwise
      */
     boolean existsByFirstNameAndLastName(String firstName, String lastName);
+
+    /**
+     * Retrieves the users with the specified normalized contact number, using the index on that column.
+     *
+     * @param normalizedContactNumber The contact number reduced to its digits
+     * @return The users with that contact number
+     */
+    List<User> findByNormalizedContactNumber(String normalizedContactNumber);
+
+    /**
+     * Retrieves the next page of users after the specified user ID, ordered by ascending user ID.
+     * The query seeks directly to the ID on the primary key index instead of skipping rows with an OFFSET,
+     * so every page costs the same regardless of how deep into the table it is.
+     *
+     * @param userId The user ID after which to start the page (exclusive)
+     * @param limit The maximum number of users to return
+     * @return The users with an ID greater than the specified ID, up to the limit
+     */
+    List<User> findByUserIdGreaterThanOrderByUserIdAsc(Long userId, Limit limit);
+
+    /**
+     * Streams every user in ascending user ID order over a forward-only cursor, fetching
+     * {@link #STREAM_FETCH_SIZE} rows per round trip. The users are read-only and are not put in the second-level
+     * cache. The stream must be consumed and closed inside a transaction, and the caller should detach each user once
+     * it is done with it so that the persistence context does not grow with the table.
+     *
+     * @return The stream of all users
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<User> streamAllByOrderByUserIdAsc();
+
+    /**
+     * Streams the first name and last name of every user over a forward-only cursor, fetching
+     * {@link #STREAM_FETCH_SIZE} rows per round trip, without loading the users. The stream must be consumed and
+     * closed inside a transaction.
+     *
+     * @return The stream of names, each an array of the first name and the last name
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select u.firstName, u.lastName from User u")
+    Stream<Object[]> streamAllNames();
+
+    /**
+     * Retrieves the next page of users whose lower-case first name starts with the specified prefix, ordered by
+     * ascending user ID. The prefix is matched with a LIKE on the indexed lower-case column, with any wildcard
+     * characters in it escaped.
+     *
+     * @param prefix The lower-case prefix to match
+     * @param userId The user ID after which to start the page (exclusive)
+     * @param limit The maximum number of users to return
+     * @return The matching users with an ID greater than the specified ID, up to the limit
+     */
+    List<User> findByFirstNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc(String prefix, Long userId,
+                                                                                    Limit limit);
+
+    /**
+     * Retrieves the next page of users whose lower-case last name starts with the specified prefix, ordered by
+     * ascending user ID. The prefix is matched with a LIKE on the indexed lower-case column, with any wildcard
+     * characters in it escaped.
+     *
+     * @param prefix The lower-case prefix to match
+     * @param userId The user ID after which to start the page (exclusive)
+     * @param limit The maximum number of users to return
+     * @return The matching users with an ID greater than the specified ID, up to the limit
+     */
+    List<User> findByLastNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc(String prefix, Long userId,
+                                                                                   Limit limit);
+
+    /**
+     * Retrieves the users whose first name is one of the specified first names and whose last name is one of the
+     * specified last names. The result is a superset of the exact (first name, last name) pairs, which callers
+     * narrow down in memory; this lets a whole batch be checked for duplicates in a single query.
+     *
+     * @param firstNames The first names to match
+     * @param lastNames The last names to match
+     * @return The matching users
+     */
+    List<User> findByFirstNameInAndLastNameIn(Collection<String> firstNames, Collection<String> lastNames);
+
+    /**
+     * Retrieves the users with the specified IDs.
+     *
+     * @param userIds The IDs of the users to retrieve
+     * @return The users that exist, in no particular order
+     */
+    List<User> findByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * Retrieves which of the specified user IDs exist in the database.
+     *
+     * @param userIds The IDs to check
+     * @return The IDs that exist, in no particular order
+     */
+    @Query("select u.userId from User u where u.userId in :userIds")
+    List<Long> findExistingUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Retrieves a page of user IDs after the specified ID, ordered by ID, without loading the users.
+     *
+     * @param userId The ID to start after
+     * @param limit The maximum number of IDs to return
+     * @return The IDs greater than the specified ID, in ascending order
+     */
+    @Query("select u.userId from User u where u.userId > :userId order by u.userId")
+    List<Long> findUserIdsAfter(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Retrieves the version of a user without loading it.
+     *
+     * @param userId The ID of the user
+     * @return The version of the user, or null if the user does not exist
+     */
+    @Query("select u.version from User u where u.userId = :userId")
+    Long findVersionByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes the users with the specified IDs in a single statement, without loading them first.
+     *
+     * @param userIds The IDs of the users to delete
+     * @return The number of users deleted
+     */
+    @Modifying
+    @Query("delete from User u where u.userId in :userIds")
+    int deleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Updates the attributes of a user in a single statement, without loading it first, and increments its version.
+     * The derived columns of the user must have been computed with {@link User#normalize()} beforehand.
+     *
+     * @param userId The ID of the user to be updated
+     * @param user The User object with the new attributes
+     * @return The number of users updated, which is 0 if the user does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.firstName = :#{#user.firstName}, u.lastName = :#{#user.lastName}, "
+            + "u.contactNumber = :#{#user.contactNumber}, "
+            + "u.normalizedContactNumber = :#{#user.normalizedContactNumber}, "
+            + "u.firstNameLower = :#{#user.firstNameLower}, u.lastNameLower = :#{#user.lastNameLower}, "
+            + "u.version = u.version + 1 "
+            + "where u.userId = :userId")
+    int updateByUserId(@Param("userId") Long userId, @Param("user") User user);
+
+    /**
+     * Updates the attributes of a user in a single statement if it is still at the specified version, and increments
+     * its version. The derived columns of the user must have been computed with {@link User#normalize()} beforehand.
+     *
+     * @param userId The ID of the user to be updated
+     * @param version The version the user must be at
+     * @param user The User object with the new attributes
+     * @return The number of users updated, which is 0 if the user does not exist or is at another version
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.firstName = :#{#user.firstName}, u.lastName = :#{#user.lastName}, "
+            + "u.contactNumber = :#{#user.contactNumber}, "
+            + "u.normalizedContactNumber = :#{#user.normalizedContactNumber}, "
+            + "u.firstNameLower = :#{#user.firstNameLower}, u.lastNameLower = :#{#user.lastNameLower}, "
+            + "u.version = u.version + 1 "
+            + "where u.userId = :userId and u.version = :version")
+    int updateByUserIdAndVersion(@Param("userId") Long userId, @Param("version") Long version,
+                                 @Param("user") User user);
+
+    /**
+     * Deletes a user in a single statement, without loading it first.
+     *
+     * @param userId The ID of the user to be deleted
+     * @return The number of users deleted, which is 0 if the user does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes a user in a single statement if it is still at the specified version, without loading it first.
+     *
+     * @param userId The ID of the user to be deleted
+     * @param version The version the user must be at
+     * @return The number of users deleted, which is 0 if the user does not exist or is at another version
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.userId = :userId and u.version = :version")
+    int deleteByUserIdAndVersion(@Param("userId") Long userId, @Param("version") Long version);
 }
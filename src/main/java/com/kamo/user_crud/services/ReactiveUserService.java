@@ -0,0 +1,366 @@
+package com.kamo.user_crud.services;
+
+import com.kamo.user_crud.dtos.UserPage;
+import com.kamo.user_crud.dtos.UserPatch;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
+import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.exceptions.ResourceVersionMismatchException;
+import com.kamo.user_crud.repositories.ReactiveUserRepository;
+import com.kamo.user_crud.validators.ContactNumberValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * The ReactiveUserService class provides the business logic of {@link UserService} without blocking the calling
+ * thread. It interacts with the ReactiveUserRepository over R2DBC and reports failures with the same exceptions,
+ * signalled as errors of the returned publishers. It is only active in the reactive profile.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserService.class);
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    /**
+     * Adds a new user. Duplicate names are detected by the unique constraint on first name and last name.
+     *
+     * @param user The User object to be added
+     * @return A Mono emitting the added User object
+     */
+    public Mono<User> addUser(User user) {
+        logger.debug("Adding user: {}", user);
+
+        // Validate phone number
+        if (!ContactNumberValidator.isValid(user.getContactNumber())) {
+            logger.error("Invalid phone number format for user: {}", user);
+            return Mono.error(new InvalidResourceArgumentException("Invalid phone number format for user."));
+        }
+
+        // R2DBC has no entity callbacks, so derive the normalized columns here
+        user.setUserId(null);
+        user.normalize();
+
+        return userRepository.insert(user)
+                .doOnNext(newUser -> logger.debug("Successfully added user: {}", newUser))
+                .onErrorMap(e -> {
+                    if (e instanceof DataIntegrityViolationException) {
+                        logger.warn("User with the same first name and last name already exists: {}", user);
+                        return new ResourceAlreadyExistsException(
+                                "User with the same first name and last name already exists.");
+                    }
+
+                    logger.error("Failed to add user: {}", user, e);
+                    return new DataAccessFailureException(e.getMessage());
+                });
+    }
+
+    /**
+     * Updates an existing user with a single conditional UPDATE statement. A missing user is detected from the
+     * affected row count and a duplicate name from the unique constraint on first name and last name.
+     *
+     * @param userId The ID of the user to be updated
+     * @param user The User object with updated data
+     * @return A Mono emitting the updated User object
+     */
+    public Mono<User> updateUser(long userId, User user) {
+        return updateUser(userId, user, null);
+    }
+
+    /**
+     * Updates an existing user with a single conditional UPDATE statement, optionally only if it is still at the
+     * expected version. The version of the returned user is only known, and therefore only set, when an expected
+     * version is given.
+     *
+     * @param userId The ID of the user to be updated
+     * @param user The User object with updated data
+     * @param expectedVersion The version the user must be at, or null to update it at any version
+     * @return A Mono emitting the updated User object
+     */
+    public Mono<User> updateUser(long userId, User user, Long expectedVersion) {
+        logger.debug("Updating user with ID {}: {}", userId, user);
+
+        // Validate phone number
+        if (!ContactNumberValidator.isValid(user.getContactNumber())) {
+            logger.error("Invalid phone number format for user: {}", user);
+            return Mono.error(new InvalidResourceArgumentException("Invalid phone number format for user."));
+        }
+
+        user.normalize();
+
+        Mono<Long> update = expectedVersion != null
+                ? userRepository.updateByUserIdAndVersion(userId, expectedVersion, user)
+                : userRepository.updateByUserId(userId, user);
+
+        return update
+                .onErrorMap(e -> {
+                    if (e instanceof DataIntegrityViolationException) {
+                        logger.warn("User with the same first name and last name already exists: {}", user);
+                        return new ResourceAlreadyExistsException(
+                                "User with the same first name and last name already exists.");
+                    }
+
+                    logger.error("Failed to update user with ID {}: {}", userId, user, e);
+                    return new DataAccessFailureException(e.getMessage());
+                })
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        return notFoundOrVersionMismatch("User with ID {} not found for update.", userId,
+                                expectedVersion);
+                    }
+
+                    user.setUserId(userId);
+                    user.setVersion(expectedVersion != null ? expectedVersion + 1 : null);
+                    logger.debug("Successfully updated user with ID {}: {}", userId, user);
+                    return Mono.just(user);
+                });
+    }
+
+    /**
+     * Applies a JSON Merge Patch to an existing user with a single UPDATE statement that sets only the changed
+     * columns, optionally only if it is still at the expected version. Only the changed attributes are validated.
+     *
+     * @param userId The ID of the user to be patched
+     * @param mergePatch The patch document, mapping the changed attributes to their new values
+     * @param expectedVersion The version the user must be at, or null to patch it at any version
+     * @return A Mono emitting true once the user is patched
+     */
+    public Mono<Boolean> patchUser(long userId, Map<String, ?> mergePatch, Long expectedVersion) {
+        logger.debug("Patching user with ID {}: {}", userId, mergePatch);
+
+        UserPatch patch;
+
+        try {
+            patch = UserPatch.of(mergePatch);
+        } catch (InvalidResourceArgumentException e) {
+            return Mono.error(e);
+        }
+
+        // Validate phone number, if it changes
+        if (patch.contains("contactNumber") && !ContactNumberValidator.isValid(patch.get("contactNumber"))) {
+            logger.error("Invalid phone number format for user patch: {}", mergePatch);
+            return Mono.error(new InvalidResourceArgumentException("Invalid phone number format for user."));
+        }
+
+        Mono<Long> update = expectedVersion != null
+                ? userRepository.patchByUserIdAndVersion(userId, expectedVersion, patch)
+                : userRepository.patchByUserId(userId, patch);
+
+        return update
+                .onErrorMap(e -> {
+                    if (e instanceof DataIntegrityViolationException) {
+                        logger.warn("User with the same first name and last name already exists: {}", mergePatch);
+                        return new ResourceAlreadyExistsException(
+                                "User with the same first name and last name already exists.");
+                    }
+
+                    logger.error("Failed to patch user with ID {}: {}", userId, mergePatch, e);
+                    return new DataAccessFailureException(e.getMessage());
+                })
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        return notFoundOrVersionMismatch("User with ID {} not found for patch.", userId,
+                                expectedVersion);
+                    }
+
+                    logger.debug("Successfully patched user with ID {}: {}", userId, mergePatch);
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * Retrieves a user by their ID.
+     *
+     * @param userId The ID of the user to be retrieved
+     * @return A Mono emitting the User object
+     */
+    public Mono<User> getUser(long userId) {
+        logger.debug("Retrieving user with ID {}", userId);
+
+        return userRepository.findById(userId)
+                .doOnNext(user -> logger.debug("Successfully retrieved user with ID {}: {}", userId, user))
+                .switchIfEmpty(Mono.defer(() -> notFound("User with ID {} not found.", userId)));
+    }
+
+    /**
+     * Deletes a user by their ID with a single DELETE statement. A missing user is detected from the affected row
+     * count.
+     *
+     * @param userId The ID of the user to be deleted
+     * @return A Mono emitting true once the user is deleted
+     */
+    public Mono<Boolean> deleteUser(long userId) {
+        return deleteUser(userId, null);
+    }
+
+    /**
+     * Deletes a user by their ID with a single DELETE statement, optionally only if it is still at the expected
+     * version.
+     *
+     * @param userId The ID of the user to be deleted
+     * @param expectedVersion The version the user must be at, or null to delete it at any version
+     * @return A Mono emitting true once the user is deleted
+     */
+    public Mono<Boolean> deleteUser(long userId, Long expectedVersion) {
+        logger.debug("Deleting user with ID {}", userId);
+
+        Mono<Long> delete = expectedVersion != null
+                ? userRepository.deleteByUserIdAndVersion(userId, expectedVersion)
+                : userRepository.deleteByUserId(userId);
+
+        return delete
+                .onErrorMap(e -> {
+                    logger.error("Failed to delete user with ID {}", userId, e);
+                    return new DataAccessFailureException(e.getMessage());
+                })
+                .flatMap(deleted -> {
+                    if (deleted == 0) {
+                        return notFoundOrVersionMismatch("User with ID {} not found", userId, expectedVersion);
+                    }
+
+                    logger.debug("Successfully deleted user with ID {}", userId);
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * Retrieves the users with the specified contact number, regardless of how it is spaced or punctuated.
+     *
+     * @param contactNumber The contact number to look up
+     * @return A Flux emitting the users with that contact number, which may be empty
+     */
+    public Flux<User> findUsersByContactNumber(String contactNumber) {
+        logger.debug("Retrieving users with contact number {}", contactNumber);
+
+        if (!ContactNumberValidator.isValid(contactNumber)) {
+            return Flux.error(new InvalidResourceArgumentException("Invalid phone number format."));
+        }
+
+        return userRepository.findByNormalizedContactNumber(ContactNumberValidator.normalize(contactNumber));
+    }
+
+    /**
+     * Lists users in ascending ID order using keyset pagination.
+     *
+     * @param cursor The opaque continuation token returned with the previous page, or null for the first page
+     * @param limit The maximum number of users to return, between 1 and {@link UserService#MAX_PAGE_SIZE}
+     * @return A Mono emitting the page of users and the continuation token for the next page, if any
+     */
+    public Mono<UserPage> listUsers(String cursor, int limit) {
+        logger.debug("Listing users after cursor {} with limit {}", cursor, limit);
+
+        long afterUserId;
+
+        try {
+            UserPages.checkPageSize(limit);
+            afterUserId = UserPages.decodeCursor(cursor);
+        } catch (InvalidResourceArgumentException e) {
+            return Mono.error(e);
+        }
+
+        // Fetch one extra row to find out whether another page follows without issuing a count query
+        return userRepository.findByUserIdGreaterThan(afterUserId, limit + 1)
+                .collectList()
+                .map(users -> UserPages.toPage(users, limit));
+    }
+
+    /**
+     * Streams all users after the continuation token in ascending ID order, without a page size. Users are read
+     * from the database only as fast as the subscriber requests them, so a slow client holds back the query
+     * instead of filling memory.
+     *
+     * @param cursor The opaque continuation token to start after, or null to start from the first user
+     * @return A Flux emitting the users
+     */
+    public Flux<User> streamUsers(String cursor) {
+        logger.debug("Streaming users after cursor {}", cursor);
+
+        long afterUserId;
+
+        try {
+            afterUserId = UserPages.decodeCursor(cursor);
+        } catch (InvalidResourceArgumentException e) {
+            return Flux.error(e);
+        }
+
+        return userRepository.streamByUserIdGreaterThan(afterUserId);
+    }
+
+    /**
+     * Searches for users whose first name or last name starts with the specified text, ignoring case.
+     * Results are ordered by ascending ID and paginated with the same continuation tokens as {@link #listUsers}.
+     *
+     * @param query The text the first name or last name must start with
+     * @param cursor The opaque continuation token returned with the previous page, or null for the first page
+     * @param limit The maximum number of users to return, between 1 and {@link UserService#MAX_PAGE_SIZE}
+     * @return A Mono emitting the page of matching users and the continuation token for the next page, if any
+     */
+    public Mono<UserPage> searchUsers(String query, String cursor, int limit) {
+        logger.debug("Searching users matching '{}' after cursor {} with limit {}", query, cursor, limit);
+
+        String prefix;
+        long afterUserId;
+
+        try {
+            prefix = UserPages.toSearchPrefix(query);
+            UserPages.checkPageSize(limit);
+            afterUserId = UserPages.decodeCursor(cursor);
+        } catch (InvalidResourceArgumentException e) {
+            return Mono.error(e);
+        }
+
+        // Both range scans run concurrently; merge the two ID-ordered results into one page
+        return Mono.zip(
+                userRepository.findByFirstNameLowerStartingWith(prefix, afterUserId, limit + 1).collectList(),
+                userRepository.findByLastNameLowerStartingWith(prefix, afterUserId, limit + 1).collectList())
+                .map(matches -> UserPages.mergeById(matches.getT1(), matches.getT2(), limit));
+    }
+
+    /**
+     * Logs a missing user and signals a ResourceNotFoundException.
+     *
+     * @param message The log message, with a placeholder for the user ID
+     * @param userId The ID of the user
+     * @return A Mono signalling the exception
+     */
+    private static <T> Mono<T> notFound(String message, long userId) {
+        logger.debug(message, userId);
+        return Mono.error(new ResourceNotFoundException("User with ID " + userId + " not found."));
+    }
+
+    /**
+     * Signals a version mismatch or a missing user after a conditional write affected no rows. The extra lookup is
+     * only made on this failure path, so successful writes still take a single statement.
+     *
+     * @param message The log message for a missing user, with a placeholder for the ID
+     * @param userId The ID of the user that was written
+     * @param expectedVersion The version the user was expected to be at, or null if the write was unconditional
+     * @return A Mono signalling a ResourceVersionMismatchException or a ResourceNotFoundException
+     */
+    private <T> Mono<T> notFoundOrVersionMismatch(String message, long userId, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return notFound(message, userId);
+        }
+
+        return userRepository.existsById(userId).flatMap(exists -> {
+            if (!exists) {
+                return notFound(message, userId);
+            }
+
+            logger.warn("User with ID {} is not at version {}.", userId, expectedVersion);
+            return Mono.error(new ResourceVersionMismatchException("User with ID " + userId + " has been modified."));
+        });
+    }
+}
@@ -0,0 +1,515 @@
+package com.kamo.user_crud.services;
+
+import com.kamo.user_crud.caches.UserCache;
+import com.kamo.user_crud.caches.UserIdFilter;
+import com.kamo.user_crud.caches.UserNameIndex;
+import com.kamo.user_crud.dtos.BatchItemResult;
+import com.kamo.user_crud.dtos.BatchItemResult.Status;
+import com.kamo.user_crud.dtos.BatchResult;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.repositories.UserRepository;
+import com.kamo.user_crud.validators.ContactNumberValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The UserBatchService class provides business logic for creating, updating and deleting many User entities at once.
+ * Each batch is validated as a whole, checked against the database with set-based queries and written in a single
+ * transaction so that Hibernate can group the statements into JDBC batches. Rejected items are reported individually
+ * instead of failing the whole batch, including those that would break the unique constraint on first name and last
+ * name. The written users are recorded with UserChangeLog in the same transaction.
+ */
+@Service
+@Profile("!reactive")
+public class UserBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(UserBatchService.class);
+
+    /**
+     * The largest number of items accepted in a single batch.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * The number of times a batch update is written before a name taken concurrently fails the batch.
+     */
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    /**
+     * The first name a user is given while another user in the same batch update takes over its name. The user ID
+     * is appended, so no two users share it, and it is replaced before the transaction commits.
+     */
+    private static final String RELEASED_NAME_PREFIX = "\u0001released-";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserIdFilter userIdFilter;
+
+    @Autowired
+    private UserNameIndex userNameIndex;
+
+    @Autowired
+    private UserChangeLog userChangeLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Adds many new users. Once the UserNameIndex is loaded, only the names it holds are checked against the
+     * database, so a batch of new names is written without a lookup. A name missing from the index may still have
+     * been taken, on another node or by a patch of one part of a name; the unique constraint then rejects the write,
+     * and it is retried in a new transaction after checking every name in it against the database.
+     *
+     * @param users The User objects to be added
+     * @return The per-item outcome of the batch
+     */
+    public BatchResult addUsers(List<User> users) throws InvalidResourceArgumentException, DataAccessFailureException {
+        checkBatchSize(users);
+        logger.info("Adding batch of {} users", users.size());
+
+        BatchItemResult[] results = new BatchItemResult[users.size()];
+        // Insertion-ordered, so that IDs are assigned in the order of the batch
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+
+            if (user == null || !isValidContactNumber(user.getContactNumber())) {
+                results[i] = new BatchItemResult(i, Status.INVALID, null, "Invalid phone number format for user.");
+            } else if (candidates.putIfAbsent(nameKey(user.getFirstName(), user.getLastName()), i) != null) {
+                results[i] = new BatchItemResult(i, Status.DUPLICATE, null,
+                        "User with the same first name and last name appears more than once in the batch.");
+            }
+        }
+
+        // Until the index is loaded, a name missing from it may still be taken, so every name is checked
+        boolean indexLoaded = userNameIndex.isLoaded();
+        List<Integer> suspects = new ArrayList<>();
+
+        for (int i : candidates.values()) {
+            if (!indexLoaded || userNameIndex.contains(users.get(i).getFirstName(), users.get(i).getLastName())) {
+                suspects.add(i);
+            }
+        }
+
+        if (!suspects.isEmpty()) {
+            List<Integer> free = rejectTakenNames(users, suspects, candidates, results);
+
+            if (indexLoaded) {
+                free.forEach(i -> userNameIndex.removeStale(users.get(i).getFirstName(), users.get(i).getLastName()));
+            }
+        }
+
+        List<Integer> indexes;
+        List<User> savedUsers;
+
+        while (true) {
+            indexes = new ArrayList<>(candidates.values());
+            List<User> newUsers = new ArrayList<>(indexes.size());
+
+            for (int i : indexes) {
+                User user = users.get(i);
+                // Also clears what a rolled back attempt assigned
+                user.setUserId(null);
+                user.setVersion(null);
+                newUsers.add(user);
+            }
+
+            try {
+                savedUsers = transactionTemplate.execute(status -> {
+                    List<User> saved = userRepository.saveAllAndFlush(newUsers);
+                    userChangeLog.createdAll(saved);
+                    // Before the commit, so that a committed user is never reported as absent by the filter
+                    saved.forEach(savedUser -> userIdFilter.add(savedUser.getUserId()));
+                    return saved;
+                });
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // Every attempt rejects at least one more name, or gives up
+                int attempted = indexes.size();
+
+                if (rejectTakenNames(users, indexes, candidates, results).size() == attempted) {
+                    logger.error("Failed to add batch of {} users", attempted, e);
+                    throw new DataAccessFailureException(e.getMessage());
+                }
+
+                logger.warn("Retrying batch of {} users without {} names that are already taken", attempted,
+                        attempted - candidates.size());
+            } catch (Exception e) {
+                logger.error("Failed to add batch of {} users", newUsers.size(), e);
+                throw new DataAccessFailureException(e.getMessage());
+            }
+        }
+
+        for (int j = 0; j < indexes.size(); j++) {
+            int i = indexes.get(j);
+            User savedUser = savedUsers.get(j);
+
+            userNameIndex.add(savedUser.getFirstName(), savedUser.getLastName());
+            userCache.invalidate(savedUser.getUserId(), savedUser.getVersion());
+            results[i] = new BatchItemResult(i, Status.CREATED, savedUser.getUserId(), null);
+        }
+
+        BatchResult result = BatchResult.of(Arrays.asList(results));
+        logger.info("Added {} of {} users in batch", result.succeeded(), users.size());
+        return result;
+    }
+
+    /**
+     * Updates many existing users. Each User object must carry the ID of the user it updates. The new names are
+     * checked against the database with a single query, and a name held by another user is reported as a duplicate
+     * unless that user is renamed in the same batch, so that users may swap names. As the unique constraint is
+     * checked on every row, users whose name is taken over by another user in the batch are first renamed to a
+     * placeholder, and are therefore written with two UPDATE statements. If a name is taken on another node between
+     * the check and the write, the constraint rejects the write and the batch is checked and written again.
+     *
+     * @param users The User objects with updated data
+     * @return The per-item outcome of the batch
+     */
+    public BatchResult updateUsers(List<User> users)
+            throws InvalidResourceArgumentException, DataAccessFailureException {
+        checkBatchSize(users);
+        logger.info("Updating batch of {} users", users.size());
+
+        BatchItemResult[] results = new BatchItemResult[users.size()];
+        Map<Long, Integer> candidates = new HashMap<>();
+
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+
+            if (user == null || user.getUserId() == null) {
+                results[i] = new BatchItemResult(i, Status.INVALID, null, "User ID is required.");
+            } else if (!isValidContactNumber(user.getContactNumber())) {
+                results[i] = new BatchItemResult(i, Status.INVALID, user.getUserId(),
+                        "Invalid phone number format for user.");
+            } else if (candidates.putIfAbsent(user.getUserId(), i) != null) {
+                results[i] = new BatchItemResult(i, Status.INVALID, user.getUserId(),
+                        "User ID appears more than once in the batch.");
+            }
+        }
+
+        List<String[]> previousNames = new ArrayList<>();
+        List<User> updatedUsers = null;
+
+        for (int attempt = 1; updatedUsers == null; attempt++) {
+            try {
+                previousNames.clear();
+                updatedUsers = transactionTemplate.execute(status ->
+                        applyUpdates(users, candidates, results, previousNames));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    logger.error("Failed to update batch of {} users", users.size(), e);
+                    throw new DataAccessFailureException(e.getMessage());
+                }
+
+                logger.warn("Retrying batch of {} users after a name was taken while it was written", users.size());
+            } catch (Exception e) {
+                logger.error("Failed to update batch of {} users", users.size(), e);
+                throw new DataAccessFailureException(e.getMessage());
+            }
+        }
+
+        // All previous names first, as users in the batch may swap names
+        previousNames.forEach(name -> userNameIndex.remove(name[0], name[1]));
+
+        for (User updatedUser : updatedUsers) {
+            userNameIndex.add(updatedUser.getFirstName(), updatedUser.getLastName());
+            userCache.invalidate(updatedUser.getUserId(), updatedUser.getVersion());
+        }
+
+        BatchResult result = BatchResult.of(Arrays.asList(results));
+        logger.info("Updated {} of {} users in batch", result.succeeded(), users.size());
+        return result;
+    }
+
+    /**
+     * Deletes many users by their IDs.
+     *
+     * @param userIds The IDs of the users to be deleted
+     * @return The per-item outcome of the batch
+     */
+    @Transactional
+    public BatchResult deleteUsers(List<Long> userIds)
+            throws InvalidResourceArgumentException, DataAccessFailureException {
+        checkBatchSize(userIds);
+        logger.info("Deleting batch of {} users", userIds.size());
+
+        BatchItemResult[] results = new BatchItemResult[userIds.size()];
+        Map<Long, Integer> candidates = new HashMap<>();
+
+        for (int i = 0; i < userIds.size(); i++) {
+            Long userId = userIds.get(i);
+
+            if (userId == null) {
+                results[i] = new BatchItemResult(i, Status.INVALID, null, "User ID is required.");
+            } else if (candidates.putIfAbsent(userId, i) != null) {
+                results[i] = new BatchItemResult(i, Status.INVALID, userId,
+                        "User ID appears more than once in the batch.");
+            }
+        }
+
+        try {
+            if (!candidates.isEmpty()) {
+                List<Long> existingUserIds = userRepository.findExistingUserIds(candidates.keySet());
+
+                if (!existingUserIds.isEmpty()) {
+                    userRepository.deleteByUserIdIn(existingUserIds);
+                    userChangeLog.deletedAll(existingUserIds);
+                }
+
+                for (Long userId : existingUserIds) {
+                    userCache.invalidate(userId);
+                    int i = candidates.remove(userId);
+                    results[i] = new BatchItemResult(i, Status.DELETED, userId, null);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to delete batch of {} users", userIds.size(), e);
+            throw new DataAccessFailureException(e.getMessage());
+        }
+
+        candidates.forEach((userId, i) -> results[i] =
+                new BatchItemResult(i, Status.NOT_FOUND, userId, "User with ID " + userId + " not found."));
+
+        BatchResult result = BatchResult.of(Arrays.asList(results));
+        logger.info("Deleted {} of {} users in batch", result.succeeded(), userIds.size());
+        return result;
+    }
+
+    /**
+     * Loads the users to be updated, rejects the updates that would give a user a name that stays taken, and writes
+     * the others. This runs in a transaction, so that the loaded users are managed and their changes are flushed as
+     * batched UPDATEs without a merge per user. The outcome of every candidate is set, so a retried attempt replaces
+     * the outcomes of a rolled back one.
+     *
+     * @param users The User objects with updated data
+     * @param candidates The indexes of the valid updates, by user ID
+     * @param results The per-item outcomes of the batch
+     * @param previousNames Receives the names the updated users had before the update
+     * @return The updated users
+     */
+    private List<User> applyUpdates(List<User> users, Map<Long, Integer> candidates, BatchItemResult[] results,
+                                    List<String[]> previousNames) {
+        List<User> existingUsers = candidates.isEmpty()
+                ? List.of()
+                : userRepository.findByUserIdIn(candidates.keySet());
+        Map<Long, User> updates = new HashMap<>();
+
+        for (User existing : existingUsers) {
+            updates.put(existing.getUserId(), users.get(candidates.get(existing.getUserId())));
+        }
+
+        candidates.forEach((userId, i) -> {
+            if (!updates.containsKey(userId)) {
+                results[i] = new BatchItemResult(i, Status.NOT_FOUND, userId, "User with ID " + userId + " not found.");
+            }
+        });
+
+        Map<String, Long> takenNames = findTakenNames(updates.values());
+        // The user each new name is given to, by name key
+        Map<String, Long> claims = new HashMap<>();
+        Set<Long> accepted = new LinkedHashSet<>();
+        List<User> ordered = new ArrayList<>(existingUsers);
+
+        // Users keeping their name claim it first, so that no other user in the batch takes it from them
+        ordered.sort(Comparator.comparing(existing -> !nameKey(existing.getFirstName(), existing.getLastName())
+                .equals(nameKeyOf(updates.get(existing.getUserId())))));
+
+        for (User existing : ordered) {
+            long userId = existing.getUserId();
+            int i = candidates.get(userId);
+
+            if (claims.putIfAbsent(nameKeyOf(updates.get(userId)), userId) != null) {
+                results[i] = new BatchItemResult(i, Status.DUPLICATE, userId,
+                        "User with the same first name and last name appears more than once in the batch.");
+            } else {
+                accepted.add(userId);
+            }
+        }
+
+        // A taken name is only freed if its holder is renamed in the batch, and every rejected update keeps another
+        // name taken, so the updates are checked until none is rejected
+        for (boolean rejected = true; rejected; ) {
+            rejected = false;
+
+            for (Iterator<Long> iterator = accepted.iterator(); iterator.hasNext(); ) {
+                long userId = iterator.next();
+                Long holder = takenNames.get(nameKeyOf(updates.get(userId)));
+
+                if (holder != null && holder != userId && !accepted.contains(holder)) {
+                    int i = candidates.get(userId);
+
+                    iterator.remove();
+                    rejected = true;
+                    results[i] = new BatchItemResult(i, Status.DUPLICATE, userId,
+                            "User with the same first name and last name already exists.");
+                }
+            }
+        }
+
+        List<User> updatedUsers = new ArrayList<>(accepted.size());
+        boolean released = false;
+
+        for (User existing : existingUsers) {
+            long userId = existing.getUserId();
+
+            if (!accepted.contains(userId)) {
+                continue;
+            }
+
+            updatedUsers.add(existing);
+            previousNames.add(new String[] {existing.getFirstName(), existing.getLastName()});
+            Long claimant = claims.get(nameKey(existing.getFirstName(), existing.getLastName()));
+
+            if (claimant != null && claimant != userId && accepted.contains(claimant)) {
+                existing.setFirstName(RELEASED_NAME_PREFIX + userId);
+                released = true;
+            }
+        }
+
+        if (released) {
+            userRepository.flush();
+        }
+
+        for (User existing : updatedUsers) {
+            int i = candidates.get(existing.getUserId());
+            User user = users.get(i);
+
+            existing.setFirstName(user.getFirstName());
+            existing.setLastName(user.getLastName());
+            existing.setContactNumber(user.getContactNumber());
+            results[i] = new BatchItemResult(i, Status.UPDATED, existing.getUserId(), null);
+        }
+
+        // Flushed first so that the recorded and invalidated versions include this update
+        userRepository.flush();
+        userChangeLog.updatedAll(updatedUsers);
+        return updatedUsers;
+    }
+
+    /**
+     * Checks the names of some of the users to be added against the database with a single query. The users whose
+     * name is taken are reported as duplicates and no longer added, and their names are added to the UserNameIndex.
+     *
+     * @param users The User objects of the batch
+     * @param indexes The indexes of the users whose names are checked
+     * @param candidates The users still to be added, by name key, from which the duplicates are removed
+     * @param results The per-item outcomes of the batch
+     * @return The indexes of the checked users whose name is not taken
+     */
+    private List<Integer> rejectTakenNames(List<User> users, Collection<Integer> indexes,
+                                           Map<String, Integer> candidates, BatchItemResult[] results) {
+        Set<String> takenNames = findTakenNames(indexes.stream().map(users::get).toList()).keySet();
+        List<Integer> free = new ArrayList<>(indexes.size());
+
+        for (int i : indexes) {
+            User user = users.get(i);
+            String key = nameKey(user.getFirstName(), user.getLastName());
+
+            if (takenNames.contains(key)) {
+                candidates.remove(key);
+                userNameIndex.add(user.getFirstName(), user.getLastName());
+                results[i] = new BatchItemResult(i, Status.DUPLICATE, null,
+                        "User with the same first name and last name already exists.");
+            } else {
+                free.add(i);
+            }
+        }
+
+        return free;
+    }
+
+    /**
+     * Looks up which of the names of the specified users are taken, with a single query.
+     *
+     * @param users The users whose names are looked up
+     * @return The IDs of the users holding the taken names, by name key
+     */
+    private Map<String, Long> findTakenNames(Collection<User> users) {
+        Set<String> firstNames = new HashSet<>();
+        Set<String> lastNames = new HashSet<>();
+
+        for (User user : users) {
+            firstNames.add(user.getFirstName());
+            lastNames.add(user.getLastName());
+        }
+
+        Map<String, Long> takenNames = new HashMap<>();
+
+        if (!users.isEmpty()) {
+            for (User existing : userRepository.findByFirstNameInAndLastNameIn(firstNames, lastNames)) {
+                takenNames.put(nameKey(existing.getFirstName(), existing.getLastName()), existing.getUserId());
+            }
+        }
+
+        return takenNames;
+    }
+
+    /**
+     * Rejects batches that are empty or larger than {@link #MAX_BATCH_SIZE}.
+     *
+     * @param items The batch payload
+     */
+    private static void checkBatchSize(List<?> items) throws InvalidResourceArgumentException {
+        if (items == null || items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+            throw new InvalidResourceArgumentException(
+                    "Batch must contain between 1 and " + MAX_BATCH_SIZE + " items.");
+        }
+    }
+
+    /**
+     * Validates a contact number, treating a missing number as invalid.
+     *
+     * @param contactNumber The contact number to be validated
+     * @return True if the contact number is present and valid, false otherwise
+     */
+    private static boolean isValidContactNumber(String contactNumber) {
+        return contactNumber != null && ContactNumberValidator.isValid(contactNumber);
+    }
+
+    /**
+     * Builds the key used to detect users with the same first name and last name as the specified user.
+     *
+     * @param user The user
+     * @return The name key
+     */
+    private static String nameKeyOf(User user) {
+        return nameKey(user.getFirstName(), user.getLastName());
+    }
+
+    /**
+     * Builds the key used to detect users with the same first name and last name.
+     *
+     * @param firstName The first name of the user
+     * @param lastName The last name of the user
+     * @return The name key
+     */
+    private static String nameKey(String firstName, String lastName) {
+        return firstName + '\u0000' + lastName;
+    }
+}
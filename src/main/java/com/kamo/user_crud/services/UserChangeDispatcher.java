@@ -0,0 +1,370 @@
+package com.kamo.user_crud.services;
+
+import com.kamo.user_crud.entities.UserChangeEvent;
+import com.kamo.user_crud.entities.UserChangePosition;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.repositories.UserChangeEventRepository;
+import com.kamo.user_crud.repositories.UserChangePositionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The UserChangeDispatcher class publishes the events recorded by UserChangeLog and streams them to subscribers as
+ * Server-Sent Events.
+ * <br/><br/>
+ *
+ * On every poll, the oldest undispatched events are assigned the next positions in one transaction, so positions are
+ * gapless and follow the order in which the changes became visible. The position reached is kept in the
+ * {@link UserChangePosition} row, which is locked for the transaction, so every instance sharing the database can
+ * dispatch: they take turns, and each continues from the position in the database rather than from its own.
+ * <br/><br/>
+ *
+ * Each subscriber is then sent the events after the position it has reached: subscribers that are up to date receive
+ * the newly published events without another query, while subscribers that are behind, including those of an instance
+ * whose events were published by another, catch up from the database one page per poll. The SSE event ID is the
+ * position, so a client resumes where it left off by reconnecting with it as the Last-Event-ID header or the since
+ * parameter. Idle subscribers are sent a comment every heartbeat interval, which keeps the connection open through
+ * proxies and detects disconnected clients.
+ * <br/><br/>
+ *
+ * Events are written to subscribers on a pool of sender threads, with at most one send in flight per subscriber, so
+ * a slow client never holds up the poller or the other subscribers. A subscriber whose previous send has not finished
+ * is skipped, and catches up from the database once it has.
+ */
+@Service
+@Profile("!reactive")
+public class UserChangeDispatcher implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeDispatcher.class);
+
+    private final UserChangeEventRepository userChangeEventRepository;
+
+    private final UserChangePositionRepository userChangePositionRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor senderPool;
+
+    private final int batchSize;
+
+    private final Duration timeout;
+
+    private final long heartbeatIntervalNanos;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private volatile long lastPosition;
+
+    /**
+     * Constructs a new UserChangeDispatcher with the specified settings.
+     *
+     * @param userChangeEventRepository The repository of the outbox
+     * @param userChangePositionRepository The repository of the position of the change stream
+     * @param transactionTemplate The template used to assign positions in a transaction
+     * @param batchSize The maximum number of events published, or sent to a subscriber that is catching up, per poll
+     * @param timeout How long a subscription stays open before the client has to reconnect
+     * @param heartbeatInterval How long a subscriber may go without being sent anything before it is sent a comment
+     * @param senderThreads The number of threads events are written to subscribers on
+     */
+    @Autowired
+    public UserChangeDispatcher(UserChangeEventRepository userChangeEventRepository,
+                                UserChangePositionRepository userChangePositionRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${user-crud.changes.batch-size:500}") int batchSize,
+                                @Value("${user-crud.changes.timeout:30m}") Duration timeout,
+                                @Value("${user-crud.changes.heartbeat-interval:15s}") Duration heartbeatInterval,
+                                @Value("${user-crud.changes.sender-threads:4}") int senderThreads) {
+        this(userChangeEventRepository, userChangePositionRepository, transactionTemplate, batchSize, timeout,
+                heartbeatInterval, senderPool(senderThreads));
+    }
+
+    /**
+     * Constructs a new UserChangeDispatcher that sends events on the specified executor.
+     *
+     * @param userChangeEventRepository The repository of the outbox
+     * @param userChangePositionRepository The repository of the position of the change stream
+     * @param transactionTemplate The template used to assign positions in a transaction
+     * @param batchSize The maximum number of events published, or sent to a subscriber that is catching up, per poll
+     * @param timeout How long a subscription stays open before the client has to reconnect
+     * @param heartbeatInterval How long a subscriber may go without being sent anything before it is sent a comment
+     * @param senderPool The executor events are written to subscribers on
+     */
+    UserChangeDispatcher(UserChangeEventRepository userChangeEventRepository,
+                         UserChangePositionRepository userChangePositionRepository,
+                         TransactionTemplate transactionTemplate, int batchSize, Duration timeout,
+                         Duration heartbeatInterval, Executor senderPool) {
+        this.userChangeEventRepository = userChangeEventRepository;
+        this.userChangePositionRepository = userChangePositionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.senderPool = senderPool;
+        this.batchSize = batchSize;
+        this.timeout = timeout;
+        this.heartbeatIntervalNanos = heartbeatInterval.toNanos();
+    }
+
+    /**
+     * Resumes from the last position dispatched before the application started, creating the position row from the
+     * outbox if the schema was created without it.
+     */
+    @PostConstruct
+    public void init() {
+        UserChangePosition position;
+
+        try {
+            position = transactionTemplate.execute(status -> userChangePositionRepository
+                    .findById(UserChangePosition.ID)
+                    .orElseGet(() -> {
+                        Long maxPosition = userChangeEventRepository.findMaxPosition();
+                        return userChangePositionRepository.saveAndFlush(new UserChangePosition(
+                                UserChangePosition.ID, maxPosition != null ? maxPosition : 0));
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the row first
+            position = userChangePositionRepository.findById(UserChangePosition.ID).orElseThrow();
+        }
+
+        lastPosition = position.getPosition();
+    }
+
+    /**
+     * Shuts down the threads events are sent on.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (senderPool instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Returns the position of the last published event.
+     *
+     * @return The last position, or 0 if no event has been published
+     */
+    public long getLastPosition() {
+        return lastPosition;
+    }
+
+    /**
+     * Opens a subscription to the change stream.
+     *
+     * @param since The position after which to start streaming, or null to stream only the changes made from now on
+     * @return The emitter the events are sent through
+     * @throws InvalidResourceArgumentException If the position is negative
+     */
+    public SseEmitter subscribe(Long since) throws InvalidResourceArgumentException {
+        if (since != null && since < 0) {
+            throw new InvalidResourceArgumentException("Position must not be negative.");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, since != null ? since : lastPosition, System.nanoTime());
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        logger.debug("Subscribed to user changes after position {}", subscriber.position);
+        return emitter;
+    }
+
+    /**
+     * Publishes the undispatched events and hands every subscriber that is not still being sent to a sender thread,
+     * which sends it the events it has not received yet. It runs on the scheduler thread after each poll interval.
+     */
+    @Scheduled(fixedDelayString = "${user-crud.changes.poll-interval:200}")
+    public synchronized void dispatch() {
+        Publication publication = transactionTemplate.execute(status -> publish());
+        List<UserChangeEvent> published = publication.events();
+        long position = publication.position();
+
+        lastPosition = position;
+
+        if (!published.isEmpty()) {
+            logger.debug("Published {} user changes up to position {}", published.size(), position);
+        }
+
+        long now = System.nanoTime();
+
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.sending.compareAndSet(false, true)) {
+                continue;
+            }
+
+            try {
+                senderPool.execute(() -> sendOrDrop(subscriber, published, position, now));
+            } catch (RejectedExecutionException e) {
+                // The application is shutting down
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Publishes the metrics of the change stream to the specified registry.
+     *
+     * @param registry The MeterRegistry the metrics are registered in
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.changes.subscribers", subscribers, List::size)
+                .description("The number of open subscriptions to the change stream of users")
+                .register(registry);
+        Gauge.builder("user.changes.position", this, UserChangeDispatcher::getLastPosition)
+                .description("The position of the last published user change")
+                .register(registry);
+    }
+
+    /**
+     * Creates the pool of threads events are sent to subscribers on.
+     *
+     * @param senderThreads The number of threads
+     * @return The pool
+     */
+    private static ExecutorService senderPool(int senderThreads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-changes-sender-");
+        threadFactory.setDaemon(true);
+
+        return Executors.newFixedThreadPool(senderThreads, threadFactory);
+    }
+
+    /**
+     * Assigns the next positions to the oldest undispatched events, in the order they were written, continuing from
+     * the position in the database. The position row stays locked until the transaction commits, so no other
+     * instance assigns positions meanwhile.
+     *
+     * @return The published events, ordered by position, and the position of the last dispatched event
+     */
+    private Publication publish() {
+        UserChangePosition lastDispatched = userChangePositionRepository.findLockedById(UserChangePosition.ID)
+                .orElseThrow(() -> new IllegalStateException("The user change position has not been created."));
+        List<UserChangeEvent> events = userChangeEventRepository.findByPositionIsNullOrderByEventIdAsc(
+                Limit.of(batchSize));
+        long position = lastDispatched.getPosition();
+
+        if (events.isEmpty()) {
+            return new Publication(events, position);
+        }
+
+        for (UserChangeEvent event : events) {
+            event.setPosition(++position);
+        }
+
+        lastDispatched.setPosition(position);
+        userChangePositionRepository.save(lastDispatched);
+        return new Publication(userChangeEventRepository.saveAll(events), position);
+    }
+
+    /**
+     * Sends a subscriber the events it has not received yet on a sender thread, and drops it if its client has gone
+     * away.
+     *
+     * @param subscriber The subscriber
+     * @param published The events published by this poll, ordered by position
+     * @param position The position of the last dispatched event
+     * @param now The current time, in nanoseconds
+     */
+    private void sendOrDrop(Subscriber subscriber, List<UserChangeEvent> published, long position, long now) {
+        try {
+            send(subscriber, published, position, now);
+        } catch (IOException | RuntimeException e) {
+            // The client has gone away, the emitter has already completed or the catch-up query failed
+            logger.debug("Dropping user change subscriber at position {}", subscriber.position, e);
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    /**
+     * Sends a subscriber the events after its position, or a heartbeat if it has been idle for too long.
+     *
+     * @param subscriber The subscriber
+     * @param published The events published by this poll, ordered by position
+     * @param position The position of the last dispatched event
+     * @param now The current time, in nanoseconds
+     */
+    private void send(Subscriber subscriber, List<UserChangeEvent> published, long position, long now)
+            throws IOException {
+        if (subscriber.position < position) {
+            List<UserChangeEvent> events = !published.isEmpty()
+                    && subscriber.position >= published.get(0).getPosition() - 1
+                    ? published
+                    : userChangeEventRepository.findByPositionGreaterThanOrderByPositionAsc(
+                            subscriber.position, Limit.of(batchSize));
+
+            for (UserChangeEvent event : events) {
+                if (event.getPosition() > subscriber.position) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(event.getPosition().toString())
+                            .data(event, MediaType.APPLICATION_JSON));
+                    subscriber.position = event.getPosition();
+                    subscriber.lastSentAt = now;
+                }
+            }
+        }
+
+        if (now - subscriber.lastSentAt >= heartbeatIntervalNanos) {
+            subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            subscriber.lastSentAt = now;
+        }
+    }
+
+    /**
+     * The events published by a poll and the position of the last dispatched event, which is further than the last
+     * published event when another instance has published since.
+     *
+     * @param events The published events, ordered by position
+     * @param position The position of the last dispatched event
+     */
+    private record Publication(List<UserChangeEvent> events, long position) {
+    }
+
+    /**
+     * A subscription to the change stream and the position it has reached. Once it is registered, it is only read and
+     * written by the send in flight, which holds the sending flag.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private long position;
+
+        private long lastSentAt;
+
+        private Subscriber(SseEmitter emitter, long position, long lastSentAt) {
+            this.emitter = emitter;
+            this.position = position;
+            this.lastSentAt = lastSentAt;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.kamo.user_crud.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kamo.user_crud.dtos.UserPatch;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.entities.UserChangeEvent;
+import com.kamo.user_crud.entities.UserChangeEvent.Type;
+import com.kamo.user_crud.repositories.UserChangeEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The UserChangeLog class records changes to users in the UserChangeEvent outbox. Every method must be called inside
+ * the transaction that makes the change, so that the event is committed or rolled back together with it; calling it
+ * outside a transaction fails. The recorded events are published by the UserChangeDispatcher.
+ */
+@Service
+@Profile("!reactive")
+public class UserChangeLog {
+
+    @Autowired
+    private UserChangeEventRepository userChangeEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Records that a user was added.
+     *
+     * @param user The added user, with its ID and version
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(User user) {
+        userChangeEventRepository.save(eventOf(Type.CREATED, user));
+    }
+
+    /**
+     * Records that many users were added.
+     *
+     * @param users The added users, with their IDs and versions
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void createdAll(Collection<User> users) {
+        userChangeEventRepository.saveAll(eventsOf(Type.CREATED, users));
+    }
+
+    /**
+     * Records that a user was replaced.
+     *
+     * @param user The updated user, with its ID, and its version if it is known
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updated(User user) {
+        userChangeEventRepository.save(eventOf(Type.UPDATED, user));
+    }
+
+    /**
+     * Records that many users were replaced.
+     *
+     * @param users The updated users, with their IDs and versions
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updatedAll(Collection<User> users) {
+        userChangeEventRepository.saveAll(eventsOf(Type.UPDATED, users));
+    }
+
+    /**
+     * Records that some attributes of a user were changed.
+     *
+     * @param userId The ID of the patched user
+     * @param patch The changed attributes
+     * @param version The version of the user after the patch, or null if it is not known
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void patched(Long userId, UserPatch patch, Long version) {
+        userChangeEventRepository.save(new UserChangeEvent(userId, Type.PATCHED, version, toJson(patch.changes())));
+    }
+
+    /**
+     * Records that a user was deleted.
+     *
+     * @param userId The ID of the deleted user
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Long userId) {
+        userChangeEventRepository.save(new UserChangeEvent(userId, Type.DELETED, null, null));
+    }
+
+    /**
+     * Records that many users were deleted.
+     *
+     * @param userIds The IDs of the deleted users
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deletedAll(Collection<Long> userIds) {
+        List<UserChangeEvent> events = new ArrayList<>(userIds.size());
+
+        for (Long userId : userIds) {
+            events.add(new UserChangeEvent(userId, Type.DELETED, null, null));
+        }
+
+        userChangeEventRepository.saveAll(events);
+    }
+
+    private List<UserChangeEvent> eventsOf(Type type, Collection<User> users) {
+        List<UserChangeEvent> events = new ArrayList<>(users.size());
+
+        for (User user : users) {
+            events.add(eventOf(type, user));
+        }
+
+        return events;
+    }
+
+    private UserChangeEvent eventOf(Type type, User user) {
+        return new UserChangeEvent(user.getUserId(), type, user.getVersion(), toJson(user));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize user change: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.kamo.user_crud.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kamo.user_crud.dtos.UserDataFormat;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * The UserExportService class exports every user as CSV or NDJSON. Users are read over a forward-only cursor and
+ * written to the output one at a time, each being detached from the persistence context once it is written, so an
+ * export uses constant memory however many users there are.
+ * <br/><br/>
+ *
+ * The CSV output starts with a header row and can be imported again by UserImportService.
+ */
+@Service
+@Profile("!reactive")
+public class UserExportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserExportService.class);
+
+    private static final String CSV_HEADER = "userId,firstName,lastName,contactNumber,version\n";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Writes every user to the output in ascending ID order. The output is buffered, and flushed but not closed at
+     * the end.
+     *
+     * @param format The format to write
+     * @param out The output
+     * @return The number of users written
+     * @throws IOException If the output cannot be written, such as when the client has disconnected
+     */
+    @Transactional(readOnly = true)
+    public long exportUsers(UserDataFormat format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long count;
+
+        try (Stream<User> users = userRepository.streamAllByOrderByUserIdAsc()) {
+            count = format == UserDataFormat.CSV
+                    ? writeCsv(users.iterator(), out)
+                    : writeNdjson(users.iterator(), out);
+        }
+
+        logger.debug("Exported {} users as {} in {} ms", count, format, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    /**
+     * Writes users as NDJSON, with the same attributes as the rest of the API.
+     *
+     * @param users The users to write
+     * @param out The output
+     * @return The number of users written
+     */
+    private long writeNdjson(Iterator<User> users, OutputStream out) throws IOException {
+        // Flushing after every user would send each one in its own chunk; the generator buffers them instead
+        ObjectWriter userWriter = objectMapper.writerFor(User.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+        long count = 0;
+
+        while (users.hasNext()) {
+            User user = users.next();
+
+            userWriter.writeValue(generator, user);
+            generator.writeRaw('\n');
+            entityManager.detach(user);
+            count++;
+        }
+
+        generator.close();
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Writes users as CSV, with a header row.
+     *
+     * @param users The users to write
+     * @param out The output
+     * @return The number of users written
+     */
+    private long writeCsv(Iterator<User> users, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+
+        writer.write(CSV_HEADER);
+
+        while (users.hasNext()) {
+            User user = users.next();
+
+            writer.write(String.valueOf(user.getUserId()));
+            writer.write(',');
+            writer.write(csvValue(user.getFirstName()));
+            writer.write(',');
+            writer.write(csvValue(user.getLastName()));
+            writer.write(',');
+            writer.write(csvValue(user.getContactNumber()));
+            writer.write(',');
+            writer.write(user.getVersion() != null ? user.getVersion().toString() : "");
+            writer.write('\n');
+            entityManager.detach(user);
+            count++;
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Formats a CSV value, enclosing it in double quotes if it contains a comma, a double quote, a line break or
+     * leading or trailing whitespace.
+     *
+     * @param value The value, or null
+     * @return The CSV value, which is empty for null
+     */
+    static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        boolean quote = !value.isEmpty() && (Character.isWhitespace(value.charAt(0))
+                || Character.isWhitespace(value.charAt(value.length() - 1)));
+
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
@@ -0,0 +1,484 @@
+package com.kamo.user_crud.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.kamo.user_crud.dtos.BatchItemResult;
+import com.kamo.user_crud.dtos.BatchResult;
+import com.kamo.user_crud.dtos.ImportReport;
+import com.kamo.user_crud.dtos.UserDataFormat;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.validators.ContactNumberValidator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * The UserImportService class imports users in bulk from CSV or NDJSON, streaming the input so that files of any
+ * size are imported with bounded memory.
+ * <br/><br/>
+ *
+ * The input is read in chunks of rows. Each chunk is parsed and validated in parallel while the previous chunk is
+ * written, so at most two chunks are held in memory at a time. Every chunk is written by
+ * {@link UserBatchService#addUsers(List)} in its own transaction, with batched inserts, so users whose name is already
+ * taken are reported as duplicates instead of failing the import.
+ * <br/><br/>
+ *
+ * When a file is imported, the number of rows written so far is recorded in a checkpoint file next to it after every
+ * chunk. If the import is interrupted, importing the same file again resumes after the last recorded chunk; at most
+ * one chunk is repeated, and its users are then reported as duplicates. The checkpoint file is deleted once the import
+ * completes.
+ * <br/><br/>
+ *
+ * CSV input must start with a header row naming the firstName, lastName and contactNumber columns, in any order.
+ * NDJSON input holds one user object per line. Blank lines are ignored.
+ */
+@Service
+@Profile("!reactive")
+public class UserImportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    /**
+     * The suffix of the checkpoint file written next to an imported file.
+     */
+    public static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    /**
+     * The largest number of rejected rows described in an import report.
+     */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final List<String> CSV_COLUMNS = List.of("firstName", "lastName", "contactNumber");
+
+    private final UserBatchService userBatchService;
+
+    private final ObjectReader userReader;
+
+    private final int chunkSize;
+
+    private final ForkJoinPool validationPool;
+
+    /**
+     * Constructs a new UserImportService with the specified settings.
+     *
+     * @param userBatchService The service the users are written through
+     * @param objectMapper The ObjectMapper used to read NDJSON rows
+     * @param chunkSize The number of rows written per transaction, at most {@link UserBatchService#MAX_BATCH_SIZE}
+     * @param parallelism The number of threads rows are validated on, or 0 for one per CPU core
+     */
+    public UserImportService(UserBatchService userBatchService, ObjectMapper objectMapper,
+                             @Value("${user-crud.import.chunk-size:1000}") int chunkSize,
+                             @Value("${user-crud.import.parallelism:0}") int parallelism) {
+        this.userBatchService = userBatchService;
+        this.userReader = objectMapper.readerFor(User.class);
+        this.chunkSize = Math.max(1, Math.min(chunkSize, UserBatchService.MAX_BATCH_SIZE));
+        this.validationPool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Imports the users in a file, resuming from its checkpoint if an earlier import of the file was interrupted.
+     *
+     * @param file The CSV or NDJSON file, whose format is determined by its extension
+     * @return The outcome and throughput of the import
+     */
+    public ImportReport importUsers(Path file) throws InvalidResourceArgumentException, DataAccessFailureException {
+        UserDataFormat format = UserDataFormat.ofFileName(file.getFileName().toString());
+        Path checkpoint = file.resolveSibling(file.getFileName() + CHECKPOINT_SUFFIX);
+
+        try (InputStream in = Files.newInputStream(file)) {
+            long skip = readCheckpoint(checkpoint);
+
+            if (skip > 0) {
+                logger.info("Resuming import of {} after {} rows", file, skip);
+            }
+
+            ImportReport report = importUsers(in, format, skip, checkpoint);
+            Files.deleteIfExists(checkpoint);
+            return report;
+        } catch (IOException e) {
+            logger.error("Failed to import users from {}", file, e);
+            throw new DataAccessFailureException("Failed to read " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imports the users in a stream, such as an uploaded file. No checkpoint is written; to resume an interrupted
+     * import, send the same input again and skip the rows reported as processed.
+     *
+     * @param in The input, which is read to the end but not closed
+     * @param format The format of the input
+     * @param skip The number of rows to skip before importing
+     * @return The outcome and throughput of the import
+     */
+    public ImportReport importUsers(InputStream in, UserDataFormat format, long skip)
+            throws InvalidResourceArgumentException, DataAccessFailureException {
+        if (skip < 0) {
+            throw new InvalidResourceArgumentException("Number of rows to skip must not be negative.");
+        }
+
+        try {
+            return importUsers(in, format, skip, null);
+        } catch (IOException e) {
+            logger.error("Failed to import users", e);
+            throw new DataAccessFailureException("Failed to read import: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Shuts down the threads rows are validated on.
+     */
+    @PreDestroy
+    public void shutdown() {
+        validationPool.shutdown();
+    }
+
+    /**
+     * Imports the users in a stream chunk by chunk, recording every written chunk in the checkpoint, if any.
+     *
+     * @param in The input
+     * @param format The format of the input
+     * @param skip The number of rows to skip before importing
+     * @param checkpoint The checkpoint file, or null to import without checkpoints
+     * @return The outcome and throughput of the import
+     */
+    private ImportReport importUsers(InputStream in, UserDataFormat format, long skip, Path checkpoint)
+            throws IOException {
+        long start = System.nanoTime();
+        LineReader reader = new LineReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        Function<String, User> parser = format == UserDataFormat.CSV ? csvParser(reader.next()) : this::parseJson;
+        Counts counts = new Counts();
+        long skipped = 0;
+
+        while (skipped < skip && reader.next() != null) {
+            skipped++;
+        }
+
+        Future<List<Row>> pending = validate(reader.nextChunk(chunkSize), parser);
+
+        while (pending != null) {
+            List<Row> rows = await(pending);
+
+            // Parse and validate the next chunk while this one is written
+            pending = validate(reader.nextChunk(chunkSize), parser);
+            write(rows, counts);
+
+            if (checkpoint != null) {
+                writeCheckpoint(checkpoint, skipped + counts.processed);
+            }
+
+            logger.debug("Imported {} rows at {} rows/s", counts.processed, rate(counts.processed, start));
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        ImportReport report = new ImportReport(skipped, counts.processed, counts.created, counts.duplicates,
+                counts.invalid, elapsedNanos / 1_000_000, rate(counts.processed, start), List.copyOf(counts.errors));
+        logger.info("Imported {} rows in {} ms ({} rows/s): {} created, {} duplicates, {} invalid",
+                report.processed(), report.elapsedMillis(), report.rowsPerSecond(), report.created(),
+                report.duplicates(), report.invalid());
+        return report;
+    }
+
+    /**
+     * Starts parsing and validating the rows of a chunk in parallel.
+     *
+     * @param lines The lines of the chunk
+     * @param parser The parser of a line, which throws InvalidResourceArgumentException if the line is not valid
+     * @return The parsed rows, in the same order as the lines, or null if the chunk is empty
+     */
+    private Future<List<Row>> validate(List<Line> lines, Function<String, User> parser) {
+        if (lines.isEmpty()) {
+            return null;
+        }
+
+        // A parallel stream started from a task of the pool runs on that pool instead of the common pool
+        return validationPool.submit(() -> lines.parallelStream().map(line -> {
+            try {
+                User user = parser.apply(line.text());
+
+                if (user == null) {
+                    return new Row(line.number(), null, "Row must describe a user.");
+                } else if (!ContactNumberValidator.isValid(user.getContactNumber())) {
+                    return new Row(line.number(), null, "Invalid phone number format for user.");
+                }
+
+                return new Row(line.number(), user, null);
+            } catch (InvalidResourceArgumentException e) {
+                return new Row(line.number(), null, e.getMessage());
+            }
+        }).toList());
+    }
+
+    /**
+     * Writes the valid rows of a chunk in one transaction and counts the outcome of every row.
+     *
+     * @param rows The parsed rows of the chunk
+     * @param counts The counts of the import so far
+     */
+    private void write(List<Row> rows, Counts counts) throws DataAccessFailureException {
+        List<User> users = new ArrayList<>(rows.size());
+        List<Row> written = new ArrayList<>(rows.size());
+
+        for (Row row : rows) {
+            if (row.user() != null) {
+                users.add(row.user());
+                written.add(row);
+            } else {
+                counts.invalid++;
+                counts.addError(row.number(), row.error());
+            }
+        }
+
+        if (!users.isEmpty()) {
+            BatchResult result = userBatchService.addUsers(users);
+
+            for (BatchItemResult item : result.results()) {
+                switch (item.status()) {
+                    case CREATED -> counts.created++;
+                    case DUPLICATE -> counts.duplicates++;
+                    default -> counts.invalid++;
+                }
+
+                if (!item.succeeded()) {
+                    counts.addError(written.get(item.index()).number(), item.error());
+                }
+            }
+        }
+
+        counts.processed += rows.size();
+    }
+
+    /**
+     * Creates the parser of the rows of a CSV input from its header row.
+     *
+     * @param header The header row, or null if the input is empty
+     * @return The parser of a row
+     * @throws InvalidResourceArgumentException If the header does not name the required columns
+     */
+    private static Function<String, User> csvParser(Line header) throws InvalidResourceArgumentException {
+        if (header == null) {
+            return line -> null;
+        }
+
+        List<String> columns = parseCsv(header.text().replace("\uFEFF", ""));
+        int[] indexes = new int[CSV_COLUMNS.size()];
+
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = indexOfIgnoreCase(columns, CSV_COLUMNS.get(i));
+
+            if (indexes[i] < 0) {
+                throw new InvalidResourceArgumentException(
+                        "CSV header must name the columns " + String.join(", ", CSV_COLUMNS) + ".");
+            }
+        }
+
+        return line -> {
+            List<String> values = parseCsv(line);
+
+            if (values.size() != columns.size()) {
+                throw new InvalidResourceArgumentException(
+                        "Expected " + columns.size() + " columns but found " + values.size() + ".");
+            }
+
+            return new User(values.get(indexes[0]), values.get(indexes[1]), values.get(indexes[2]));
+        };
+    }
+
+    /**
+     * Splits a CSV row into its values. Unquoted values are trimmed. Values may be enclosed in double quotes, in which
+     * case they are kept as they are and may contain commas and escaped double quotes; a quoted value cannot span
+     * lines.
+     *
+     * @param line The CSV row
+     * @return The values of the row
+     * @throws InvalidResourceArgumentException If a quoted value is not closed
+     */
+    static List<String> parseCsv(String line) throws InvalidResourceArgumentException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == ',') {
+                values.add(wasQuoted ? value.toString() : value.toString().trim());
+                value.setLength(0);
+                wasQuoted = false;
+            } else if (c == '"' && !wasQuoted && value.toString().isBlank()) {
+                value.setLength(0);
+                quoted = true;
+                wasQuoted = true;
+            } else if (!wasQuoted || !Character.isWhitespace(c)) {
+                value.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new InvalidResourceArgumentException("Quoted value is not closed.");
+        }
+
+        values.add(wasQuoted ? value.toString() : value.toString().trim());
+        return values;
+    }
+
+    /**
+     * Parses an NDJSON row.
+     *
+     * @param line The NDJSON row
+     * @return The user described by the row
+     * @throws InvalidResourceArgumentException If the row is not a JSON object describing a user
+     */
+    private User parseJson(String line) throws InvalidResourceArgumentException {
+        try {
+            return userReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new InvalidResourceArgumentException("Malformed JSON.");
+        }
+    }
+
+    private static int indexOfIgnoreCase(List<String> values, String value) {
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i).equalsIgnoreCase(value)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static long readCheckpoint(Path checkpoint) throws IOException {
+        return Files.exists(checkpoint) ? Long.parseLong(Files.readString(checkpoint).trim()) : 0;
+    }
+
+    /**
+     * Records the number of rows written so far. The checkpoint is replaced atomically, so an interrupted write never
+     * leaves a partial checkpoint behind.
+     *
+     * @param checkpoint The checkpoint file
+     * @param rows The number of rows written so far
+     */
+    private static void writeCheckpoint(Path checkpoint, long rows) throws IOException {
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.writeString(temporary, Long.toString(rows));
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessFailureException("Import was interrupted.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to validate rows.", e.getCause());
+        }
+    }
+
+    private static long rate(long rows, long start) {
+        return rows * 1_000_000_000L / Math.max(1, System.nanoTime() - start);
+    }
+
+    /**
+     * A non-blank line of the input and its line number.
+     */
+    private record Line(long number, String text) {
+    }
+
+    /**
+     * A parsed row, with either the user it describes or the reason it was rejected.
+     */
+    private record Row(long number, User user, String error) {
+    }
+
+    /**
+     * Reads the non-blank lines of the input, keeping track of line numbers.
+     */
+    private static final class LineReader {
+
+        private final BufferedReader reader;
+
+        private long lineNumber;
+
+        private LineReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private Line next() throws IOException {
+            String text;
+
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (!text.isBlank()) {
+                    return new Line(lineNumber, text);
+                }
+            }
+
+            return null;
+        }
+
+        private List<Line> nextChunk(int size) throws IOException {
+            List<Line> lines = new ArrayList<>(size);
+            Line line;
+
+            while (lines.size() < size && (line = next()) != null) {
+                lines.add(line);
+            }
+
+            return lines;
+        }
+    }
+
+    /**
+     * The running counts of an import.
+     */
+    private static final class Counts {
+
+        private long processed;
+
+        private long created;
+
+        private long duplicates;
+
+        private long invalid;
+
+        private final List<String> errors = new ArrayList<>();
+
+        private void addError(long lineNumber, String error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + lineNumber + ": " + error);
+            }
+        }
+    }
+}
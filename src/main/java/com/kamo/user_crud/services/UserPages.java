@@ -0,0 +1,139 @@
+package com.kamo.user_crud.services;
+
+import com.kamo.user_crud.dtos.UserPage;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * The UserPages class holds the keyset pagination rules shared by the blocking and the reactive user services,
+ * so that both return the same pages and accept each other's continuation tokens.
+ */
+final class UserPages {
+
+    /**
+     * The largest page size a client may request when listing users.
+     */
+    static final int MAX_PAGE_SIZE = 100;
+
+    private UserPages() {
+    }
+
+    /**
+     * Rejects page sizes outside 1 to {@link #MAX_PAGE_SIZE}.
+     *
+     * @param limit The requested page size
+     */
+    static void checkPageSize(int limit) throws InvalidResourceArgumentException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidResourceArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+    /**
+     * Rejects empty search queries and reduces a query to the lower-case prefix the name columns are matched against.
+     *
+     * @param query The search query
+     * @return The lower-case prefix
+     */
+    static String toSearchPrefix(String query) throws InvalidResourceArgumentException {
+        if (query == null || query.isBlank()) {
+            throw new InvalidResourceArgumentException("Search query must not be empty.");
+        }
+
+        return User.toLowerCase(query.strip());
+    }
+
+    /**
+     * Builds a page from up to one more user than the page size, the extra user signalling that another page follows.
+     *
+     * @param users The users fetched for the page, ordered by ascending ID
+     * @param limit The page size
+     * @return The page of users and the continuation token for the next page, if any
+     */
+    static UserPage toPage(List<User> users, int limit) {
+        if (users.size() > limit) {
+            List<User> page = users.subList(0, limit);
+            return new UserPage(page, encodeCursor(page.get(limit - 1).getUserId()));
+        }
+
+        return new UserPage(users, null);
+    }
+
+    /**
+     * Merges the first name and last name matches of a search, both ordered by ascending ID, into one page.
+     * A user matching on both names appears once.
+     *
+     * @param firstNameMatches The users whose first name matches, ordered by ascending ID
+     * @param lastNameMatches The users whose last name matches, ordered by ascending ID
+     * @param limit The page size
+     * @return The page of matching users and the continuation token for the next page, if any
+     */
+    static UserPage mergeById(List<User> firstNameMatches, List<User> lastNameMatches, int limit) {
+        List<User> users = new ArrayList<>(limit + 1);
+        int i = 0;
+        int j = 0;
+
+        while (users.size() <= limit && (i < firstNameMatches.size() || j < lastNameMatches.size())) {
+            if (j >= lastNameMatches.size()) {
+                users.add(firstNameMatches.get(i++));
+            } else if (i >= firstNameMatches.size()) {
+                users.add(lastNameMatches.get(j++));
+            } else {
+                long firstNameMatchId = firstNameMatches.get(i).getUserId();
+                long lastNameMatchId = lastNameMatches.get(j).getUserId();
+
+                if (firstNameMatchId < lastNameMatchId) {
+                    users.add(firstNameMatches.get(i++));
+                } else if (lastNameMatchId < firstNameMatchId) {
+                    users.add(lastNameMatches.get(j++));
+                } else {
+                    // The user matches on both names
+                    users.add(firstNameMatches.get(i++));
+                    j++;
+                }
+            }
+        }
+
+        return toPage(users, limit);
+    }
+
+    /**
+     * Encodes the last user ID of a page as an opaque continuation token.
+     *
+     * @param lastUserId The ID of the last user on the page
+     * @return The continuation token
+     */
+    static String encodeCursor(Long lastUserId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastUserId.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a continuation token back into the user ID the next page starts after.
+     *
+     * @param cursor The continuation token, or null for the first page
+     * @return The user ID to start after, or 0 for the first page
+     */
+    static long decodeCursor(String cursor) throws InvalidResourceArgumentException {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+
+        try {
+            long userId = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+
+            if (userId < 0) {
+                throw new NumberFormatException("Negative user ID");
+            }
+
+            return userId;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidResourceArgumentException("Invalid continuation token.");
+        }
+    }
+}
@@ -1,88 +1,280 @@
 package com.kamo.user_crud.services;
 
+import com.kamo.user_crud.caches.UserCache;
+import com.kamo.user_crud.caches.UserIdFilter;
+import com.kamo.user_crud.caches.UserNameIndex;
+import com.kamo.user_crud.dtos.UserPage;
+import com.kamo.user_crud.dtos.UserPatch;
 import com.kamo.user_crud.entities.User;
 import com.kamo.user_crud.exceptions.DataAccessFailureException;
 import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
 import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
 import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.exceptions.ResourceVersionMismatchException;
+import com.kamo.user_crud.metrics.UserOperationMetrics;
 import com.kamo.user_crud.repositories.UserRepository;
 import com.kamo.user_crud.validators.ContactNumberValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * The UserService class provides business logic for managing User entities.
- * It interacts with the UserRepository to perform CRUD operations.
+ * It interacts with the UserRepository to perform CRUD operations, and records the duration and outcome of each
+ * operation with UserOperationMetrics. Every write is recorded with UserChangeLog in the same transaction, which
+ * feeds the change stream of users.
  */
 @Service
+@Profile("!reactive")
 public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    /**
+     * The largest page size a client may request when listing users.
+     */
+    public static final int MAX_PAGE_SIZE = UserPages.MAX_PAGE_SIZE;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserIdFilter userIdFilter;
+
+    @Autowired
+    private UserNameIndex userNameIndex;
+
+    @Autowired
+    private UserOperationMetrics userOperationMetrics;
+
+    @Autowired
+    private UserChangeLog userChangeLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
-     * Adds a new user.
+     * Adds a new user. Duplicate names are detected by the unique constraint on first name and last name,
+     * so the user is written in a single round trip. Names the UserNameIndex holds are confirmed with a lookup
+     * instead, so that a duplicate is rejected without attempting the insert.
      *
      * @param user The User object to be added
      * @return The added User object if successful, or null if an error occurs
      */
     public User addUser(User user)
             throws InvalidResourceArgumentException, DataAccessFailureException, ResourceAlreadyExistsException {
-        logger.info("Adding user: {}", user);
-
-        // Validate phone number
-        if (!ContactNumberValidator.isValid(user.getContactNumber())) {
-            logger.error("Invalid phone number format for user: {}", user);
-            throw new InvalidResourceArgumentException("Invalid phone number format for user.");
-        } else if (userRepository.existsByFirstNameAndLastName(user.getFirstName(), user.getLastName())) {
-            throw new ResourceAlreadyExistsException("User with the same first name and last name already exists.");
-        }
+        return userOperationMetrics.record("add", () -> {
+            logger.debug("Adding user: {}", user);
 
-        try {
-            User newUser = userRepository.save(user);
-            logger.info("Successfully added user: {}", newUser);
-            return newUser;
-        } catch (Exception e) {
-            logger.error("Failed to add user: {}", user, e);
-            throw new DataAccessFailureException(e.getMessage());
-        }
+            // Validate phone number
+            if (!ContactNumberValidator.isValid(user.getContactNumber())) {
+                logger.error("Invalid phone number format for user: {}", user);
+                throw new InvalidResourceArgumentException("Invalid phone number format for user.");
+            }
+
+            if (userNameIndex.contains(user.getFirstName(), user.getLastName())) {
+                if (userRepository.existsByFirstNameAndLastName(user.getFirstName(), user.getLastName())) {
+                    logger.warn("User with the same first name and last name already exists: {}", user);
+                    throw new ResourceAlreadyExistsException(
+                            "User with the same first name and last name already exists.");
+                }
+
+                userNameIndex.removeStale(user.getFirstName(), user.getLastName());
+            }
+
+            try {
+                User newUser = transactionTemplate.execute(status -> {
+                    User savedUser = userRepository.saveAndFlush(user);
+                    userChangeLog.created(savedUser);
+                    userIdFilter.add(savedUser.getUserId());
+                    userNameIndex.add(savedUser.getFirstName(), savedUser.getLastName());
+                    return savedUser;
+                });
+                userCache.invalidate(newUser.getUserId(), newUser.getVersion());
+                logger.debug("Successfully added user: {}", newUser);
+                return newUser;
+            } catch (DataIntegrityViolationException e) {
+                // Taken on another node, or before the index was loaded
+                userNameIndex.add(user.getFirstName(), user.getLastName());
+                logger.warn("User with the same first name and last name already exists: {}", user);
+                throw new ResourceAlreadyExistsException(
+                        "User with the same first name and last name already exists.");
+            } catch (Exception e) {
+                logger.error("Failed to add user: {}", user, e);
+                throw new DataAccessFailureException(e.getMessage());
+            }
+        });
     }
 
     /**
-     * Updates an existing user.
+     * Updates an existing user with a single conditional UPDATE statement. A missing user is detected from the
+     * affected row count and a duplicate name from the unique constraint on first name and last name.
      *
      * @param userId The ID of the user to be updated
      * @param user The User object with updated data
      * @return The updated User object if successful, or null if the user is not found or an error occurs
      */
-    public User updateUser(String userId, User user)
-            throws ResourceNotFoundException, InvalidResourceArgumentException, DataAccessFailureException {
-        logger.info("Updating user with ID {}: {}", userId, user);
-
-        // Validate phone number
-        if (!ContactNumberValidator.isValid(user.getContactNumber())) {
-            logger.error("Invalid phone number format for user: {}", user);
-            throw new InvalidResourceArgumentException("Invalid phone number format for user.");
-        }
+    public User updateUser(long userId, User user) throws ResourceNotFoundException,
+            InvalidResourceArgumentException, ResourceAlreadyExistsException, DataAccessFailureException {
+        return updateUser(userId, user, null);
+    }
+
+    /**
+     * Updates an existing user with a single conditional UPDATE statement, optionally only if it is still at the
+     * expected version. A missing user or a version mismatch is detected from the affected row count, and a duplicate
+     * name from the unique constraint on first name and last name. Without an expected version, the new version is
+     * read back in the same transaction, while the UPDATE still holds the row lock, so the returned user always
+     * carries the version it was written at.
+     *
+     * @param userId The ID of the user to be updated
+     * @param user The User object with updated data
+     * @param expectedVersion The version the user must be at, or null to update it at any version
+     * @return The updated User object if successful, or null if the user is not found or an error occurs
+     */
+    public User updateUser(long userId, User user, Long expectedVersion) throws ResourceNotFoundException,
+            ResourceVersionMismatchException, InvalidResourceArgumentException, ResourceAlreadyExistsException,
+            DataAccessFailureException {
+        return userOperationMetrics.record("update", () -> {
+            logger.debug("Updating user with ID {}: {}", userId, user);
+
+            // Validate phone number
+            if (!ContactNumberValidator.isValid(user.getContactNumber())) {
+                logger.error("Invalid phone number format for user: {}", user);
+                throw new InvalidResourceArgumentException("Invalid phone number format for user.");
+            }
+
+            // The bulk UPDATE bypasses the entity callbacks, so derive the normalized columns here
+            user.normalize();
+            user.setUserId(userId);
+            user.setVersion(expectedVersion != null ? expectedVersion + 1 : null);
+            int updated;
 
-        if (userRepository.existsById(userId)) {
             try {
-                User updatedUser = userRepository.save(user);
-                logger.info("Successfully updated user with ID {}: {}", userId, updatedUser);
-                return updatedUser;
+                updated = transactionTemplate.execute(status -> {
+                    int rows = expectedVersion != null
+                            ? userRepository.updateByUserIdAndVersion(userId, expectedVersion, user)
+                            : userRepository.updateByUserId(userId, user);
+
+                    if (rows > 0) {
+                        if (expectedVersion == null) {
+                            user.setVersion(userRepository.findVersionByUserId(userId));
+                        }
+
+                        userChangeLog.updated(user);
+                    }
+
+                    return rows;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Taken on another node, or before the index was loaded
+                userNameIndex.add(user.getFirstName(), user.getLastName());
+                logger.warn("User with the same first name and last name already exists: {}", user);
+                throw new ResourceAlreadyExistsException(
+                        "User with the same first name and last name already exists.");
             } catch (Exception e) {
                 logger.error("Failed to update user with ID {}: {}", userId, user, e);
                 throw new DataAccessFailureException(e.getMessage());
             }
-        } else {
-            logger.error("User with ID {} not found for update.", userId);
-            throw new ResourceNotFoundException("User with ID " + userId + " not found.");
-        }
+
+            if (updated == 0) {
+                checkVersionMismatch(userId, expectedVersion);
+                logger.debug("User with ID {} not found for update.", userId);
+                throw new ResourceNotFoundException("User with ID " + userId + " not found.");
+            }
+
+            // The previous name is not known without loading the user; it is removed once a create finds it stale
+            userNameIndex.add(user.getFirstName(), user.getLastName());
+            userCache.invalidate(userId, user.getVersion());
+            logger.debug("Successfully updated user with ID {}: {}", userId, user);
+            return user;
+        });
+    }
+
+    /**
+     * Applies a JSON Merge Patch to an existing user with a single UPDATE statement that sets only the changed
+     * columns, without loading the user first, optionally only if it is still at the expected version. Only the
+     * changed attributes are validated. A patch that changes the name reads the user back in the same transaction,
+     * so that the UserNameIndex learns the full name it now has.
+     *
+     * @param userId The ID of the user to be patched
+     * @param mergePatch The patch document, mapping the changed attributes to their new values
+     * @param expectedVersion The version the user must be at, or null to patch it at any version
+     * @return True if the user is patched successfully
+     */
+    public boolean patchUser(long userId, Map<String, ?> mergePatch, Long expectedVersion)
+            throws ResourceNotFoundException, ResourceVersionMismatchException, InvalidResourceArgumentException,
+            ResourceAlreadyExistsException, DataAccessFailureException {
+        return userOperationMetrics.record("patch", () -> {
+            logger.debug("Patching user with ID {}: {}", userId, mergePatch);
+
+            UserPatch patch = UserPatch.of(mergePatch);
+
+            // Validate phone number, if it changes
+            if (patch.contains("contactNumber") && !ContactNumberValidator.isValid(patch.get("contactNumber"))) {
+                logger.error("Invalid phone number format for user patch: {}", mergePatch);
+                throw new InvalidResourceArgumentException("Invalid phone number format for user.");
+            }
+
+            boolean changesName = patch.contains("firstName") || patch.contains("lastName");
+            // The name the user has after the patch, read back only if the patch changes it
+            String[] patchedName = new String[2];
+            int updated;
+
+            try {
+                updated = transactionTemplate.execute(status -> {
+                    int rows = expectedVersion != null
+                            ? userRepository.patchByUserIdAndVersion(userId, expectedVersion, patch)
+                            : userRepository.patchByUserId(userId, patch);
+
+                    if (rows > 0) {
+                        userChangeLog.patched(userId, patch, expectedVersion != null ? expectedVersion + 1 : null);
+
+                        // A patch may change only one part of the name, so the other part is read from the user
+                        if (changesName) {
+                            userRepository.findById(userId).ifPresent(patched -> {
+                                patchedName[0] = patched.getFirstName();
+                                patchedName[1] = patched.getLastName();
+                            });
+                        }
+                    }
+
+                    return rows;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Taken on another node, or before the index was loaded
+                indexRejectedName(userId, patch);
+                logger.warn("User with the same first name and last name already exists: {}", mergePatch);
+                throw new ResourceAlreadyExistsException(
+                        "User with the same first name and last name already exists.");
+            } catch (Exception e) {
+                logger.error("Failed to patch user with ID {}: {}", userId, mergePatch, e);
+                throw new DataAccessFailureException(e.getMessage());
+            }
+
+            if (updated == 0) {
+                checkVersionMismatch(userId, expectedVersion);
+                logger.debug("User with ID {} not found for patch.", userId);
+                throw new ResourceNotFoundException("User with ID " + userId + " not found.");
+            }
+
+            // The previous name is not known without loading the user; it is removed once a create finds it stale
+            userNameIndex.add(patchedName[0], patchedName[1]);
+
+            userCache.invalidate(userId, expectedVersion != null ? expectedVersion + 1 : null);
+            logger.debug("Successfully patched user with ID {}: {}", userId, mergePatch);
+            return true;
+        });
     }
 
     /**
@@ -91,41 +283,203 @@ public class UserService {
      * @param userId The ID of the user to be retrieved
      * @return The User object if found, or null if the user is not found
      */
-    public User getUser(String userId) throws ResourceNotFoundException {
-        logger.info("Retrieving user with ID {}", userId);
+    public User getUser(long userId) throws ResourceNotFoundException {
+        return userOperationMetrics.record("get", () -> {
+            logger.debug("Retrieving user with ID {}", userId);
 
-        Optional<User> user = userRepository.findById(userId);
+            UserIdFilter.Membership membership = userIdFilter.lookup(userId);
 
-        if (user.isPresent()) {
-            logger.info("Successfully retrieved user with ID {}: {}", userId, user.get());
-            return user.get();
-        } else {
-            logger.warn("User with ID {} not found.", userId);
-            throw new ResourceNotFoundException("User with ID " + userId + " not found.");
-        }
+            if (membership == UserIdFilter.Membership.ABSENT) {
+                logger.debug("User with ID {} not found by the ID filter.", userId);
+                throw new ResourceNotFoundException("User with ID " + userId + " not found.");
+            }
+
+            Optional<User> cachedUser = userCache.get(userId);
+
+            if (cachedUser.isPresent()) {
+                logger.debug("Successfully retrieved user with ID {} from cache", userId);
+                return cachedUser.get();
+            }
+
+            long stamp = userCache.stamp();
+            Optional<User> user = userRepository.findById(userId);
+
+            if (user.isPresent()) {
+                userCache.put(user.get(), stamp);
+                logger.debug("Successfully retrieved user with ID {}: {}", userId, user.get());
+                return user.get();
+            } else {
+                if (membership == UserIdFilter.Membership.POSSIBLE) {
+                    userIdFilter.recordFalsePositive();
+                }
+
+                logger.debug("User with ID {} not found.", userId);
+                throw new ResourceNotFoundException("User with ID " + userId + " not found.");
+            }
+        });
+    }
+
+    /**
+     * Deletes a user by their ID with a single DELETE statement. A missing user is detected from the affected row
+     * count.
+     *
+     * @param userId The ID of the user to be deleted
+     * @return True if the user is deleted successfully, false otherwise
+     */
+    public boolean deleteUser(long userId) throws ResourceNotFoundException, DataAccessFailureException {
+        return deleteUser(userId, null);
     }
 
     /**
-     * Deletes a user by their ID.
+     * Deletes a user by their ID with a single DELETE statement, optionally only if it is still at the expected
+     * version. A missing user or a version mismatch is detected from the affected row count.
      *
      * @param userId The ID of the user to be deleted
+     * @param expectedVersion The version the user must be at, or null to delete it at any version
      * @return True if the user is deleted successfully, false otherwise
      */
-    public boolean deleteUser(String userId) throws ResourceNotFoundException, DataAccessFailureException {
-        logger.info("Deleting user with ID {}", userId);
+    public boolean deleteUser(long userId, Long expectedVersion) throws ResourceNotFoundException,
+            ResourceVersionMismatchException, DataAccessFailureException {
+        return userOperationMetrics.record("delete", () -> {
+            logger.debug("Deleting user with ID {}", userId);
+
+            int deleted;
 
-        if (userRepository.existsById(userId)) {
             try {
-                userRepository.deleteById(userId);
-                logger.info("Successfully deleted user with ID {}", userId);
-                return true;
+                deleted = transactionTemplate.execute(status -> {
+                    int rows = expectedVersion != null
+                            ? userRepository.deleteByUserIdAndVersion(userId, expectedVersion)
+                            : userRepository.deleteByUserId(userId);
+
+                    if (rows > 0) {
+                        userChangeLog.deleted(userId);
+                    }
+
+                    return rows;
+                });
             } catch (Exception e) {
                 logger.error("Failed to delete user with ID {}", userId, e);
                 throw new DataAccessFailureException(e.getMessage());
             }
-        } else {
-            logger.warn("User with ID {} not found", userId);
-            throw new ResourceNotFoundException("User with ID " + userId + " not found.");
+
+            if (deleted == 0) {
+                checkVersionMismatch(userId, expectedVersion);
+                logger.debug("User with ID {} not found", userId);
+                throw new ResourceNotFoundException("User with ID " + userId + " not found.");
+            }
+
+            userCache.invalidate(userId);
+            logger.debug("Successfully deleted user with ID {}", userId);
+            return true;
+        });
+    }
+
+    /**
+     * Retrieves the users with the specified contact number, regardless of how it is spaced or punctuated.
+     *
+     * @param contactNumber The contact number to look up
+     * @return The users with that contact number, which may be empty
+     */
+    public List<User> findUsersByContactNumber(String contactNumber) throws InvalidResourceArgumentException {
+        return userOperationMetrics.record("find_by_contact_number", () -> {
+            logger.debug("Retrieving users with contact number {}", contactNumber);
+
+            if (!ContactNumberValidator.isValid(contactNumber)) {
+                throw new InvalidResourceArgumentException("Invalid phone number format.");
+            }
+
+            return userRepository.findByNormalizedContactNumber(ContactNumberValidator.normalize(contactNumber));
+        });
+    }
+
+    /**
+     * Lists users in ascending ID order using keyset pagination.
+     *
+     * @param cursor The opaque continuation token returned with the previous page, or null for the first page
+     * @param limit The maximum number of users to return, between 1 and {@link #MAX_PAGE_SIZE}
+     * @return The page of users and the continuation token for the next page, if any
+     */
+    public UserPage listUsers(String cursor, int limit) throws InvalidResourceArgumentException {
+        return userOperationMetrics.record("list", () -> {
+            logger.debug("Listing users after cursor {} with limit {}", cursor, limit);
+
+            UserPages.checkPageSize(limit);
+            long afterUserId = UserPages.decodeCursor(cursor);
+
+            // Fetch one extra row to find out whether another page follows without issuing a count query
+            List<User> users = userRepository.findByUserIdGreaterThanOrderByUserIdAsc(afterUserId, Limit.of(limit + 1));
+
+            return UserPages.toPage(users, limit);
+        });
+    }
+
+    /**
+     * Searches for users whose first name or last name starts with the specified text, ignoring case.
+     * Results are ordered by ascending ID and paginated with the same continuation tokens as {@link #listUsers}.
+     *
+     * @param query The text the first name or last name must start with
+     * @param cursor The opaque continuation token returned with the previous page, or null for the first page
+     * @param limit The maximum number of users to return, between 1 and {@link #MAX_PAGE_SIZE}
+     * @return The page of matching users and the continuation token for the next page, if any
+     */
+    public UserPage searchUsers(String query, String cursor, int limit) throws InvalidResourceArgumentException {
+        return userOperationMetrics.record("search", () -> {
+            logger.debug("Searching users matching '{}' after cursor {} with limit {}", query, cursor, limit);
+
+            String prefix = UserPages.toSearchPrefix(query);
+            UserPages.checkPageSize(limit);
+            long afterUserId = UserPages.decodeCursor(cursor);
+            Limit fetchLimit = Limit.of(limit + 1);
+
+            // Each query is a range scan on its own name index; merge the two ID-ordered results into one page
+            List<User> firstNameMatches = userRepository
+                    .findByFirstNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc(
+                            prefix, afterUserId, fetchLimit);
+            List<User> lastNameMatches = userRepository
+                    .findByLastNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc(
+                            prefix, afterUserId, fetchLimit);
+
+            return UserPages.mergeById(firstNameMatches, lastNameMatches, limit);
+        });
+    }
+
+    /**
+     * Adds the name a patch was rejected for to the UserNameIndex. A patch may change only one part of the name, in
+     * which case the other part is read from the user, whose name the rolled back patch left unchanged.
+     *
+     * @param userId The ID of the patched user
+     * @param patch The rejected patch
+     */
+    private void indexRejectedName(long userId, UserPatch patch) {
+        String firstName = patch.contains("firstName") ? patch.get("firstName") : null;
+        String lastName = patch.contains("lastName") ? patch.get("lastName") : null;
+
+        if (firstName == null || lastName == null) {
+            Optional<User> user = userRepository.findById(userId);
+
+            if (user.isEmpty()) {
+                return;
+            }
+
+            firstName = firstName != null ? firstName : user.get().getFirstName();
+            lastName = lastName != null ? lastName : user.get().getLastName();
+        }
+
+        userNameIndex.add(firstName, lastName);
+    }
+
+    /**
+     * Tells a version mismatch apart from a missing user after a conditional write affected no rows. The extra
+     * lookup is only made on this failure path, so successful writes still take a single statement.
+     *
+     * @param id The ID of the user that was written
+     * @param expectedVersion The version the user was expected to be at, or null if the write was unconditional
+     * @throws ResourceVersionMismatchException If the user exists at another version
+     */
+    private void checkVersionMismatch(long id, Long expectedVersion) throws ResourceVersionMismatchException {
+        if (expectedVersion != null && userRepository.existsById(id)) {
+            logger.warn("User with ID {} is not at version {}.", id, expectedVersion);
+            throw new ResourceVersionMismatchException("User with ID " + id + " has been modified.");
         }
     }
 }
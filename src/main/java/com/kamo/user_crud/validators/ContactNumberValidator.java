@@ -1,19 +1,20 @@
 package com.kamo.user_crud.validators;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
- * The ContactNumberValidator class provides a method to validate contact numbers
- * based on a specific regex pattern.
+ * The ContactNumberValidator class provides methods to validate contact numbers and reduce them to a canonical form.
+ * <br/><br/>
+ *
+ * A valid contact number consists of an optional leading plus sign followed by 7 to 15 digits. Spaces, parentheses
+ * and hyphens may appear anywhere and are ignored. The number is checked in a single pass over its characters,
+ * without compiling a regex or allocating intermediate strings.
  */
 public class ContactNumberValidator {
 
-    // Regular expression pattern for validating contact numbers
-    private static final String CONTACT_NUMBER_PATTERN = "^\\+?\s?(?:[0-9]\s?){6,14}[0-9]$";
+    // Minimum number of digits in a contact number
+    private static final int MIN_DIGITS = 7;
 
-    // Compiled pattern from the regex
-    private static final Pattern pattern = Pattern.compile(CONTACT_NUMBER_PATTERN);
+    // Maximum number of digits in a contact number
+    private static final int MAX_DIGITS = 15;
 
     /**
      * Validates the given contact number format.
@@ -22,11 +23,66 @@ public class ContactNumberValidator {
      * @return True if the contact number is valid, false otherwise
      */
     public static boolean isValid(String contactNumber) {
-        // Remove all whitespaces from the contact number
-        contactNumber = contactNumber.replaceAll("[\s\\(\\)-]", "");
-        // Match the contact number against the pattern
-        Matcher matcher = pattern.matcher(contactNumber);
-        // Return whether the contact number matches the pattern
-        return matcher.matches();
+        if (contactNumber == null) {
+            return false;
+        }
+
+        int digits = 0;
+        // Whether a digit or the plus sign has been seen yet; the plus sign is only allowed before the first digit
+        boolean started = false;
+
+        for (int i = 0, length = contactNumber.length(); i < length; i++) {
+            char c = contactNumber.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    return false;
+                }
+                started = true;
+            } else if (c == '+' && !started) {
+                started = true;
+            } else if (!isSeparator(c)) {
+                return false;
+            }
+        }
+
+        return digits >= MIN_DIGITS;
+    }
+
+    /**
+     * Reduces a contact number to its digits, so that numbers written with different spacing, separators or
+     * a leading plus sign compare equal. For example, "+27 123 456 789" becomes "27123456789".
+     *
+     * @param contactNumber The contact number to be normalized, which should already be valid
+     * @return The digits of the contact number, or null if the contact number is null
+     */
+    public static String normalize(String contactNumber) {
+        if (contactNumber == null) {
+            return null;
+        }
+
+        int length = contactNumber.length();
+        char[] digits = new char[length];
+        int count = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = contactNumber.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                digits[count++] = c;
+            }
+        }
+
+        return new String(digits, 0, count);
+    }
+
+    /**
+     * Checks whether a character is one of the separators ignored in contact numbers.
+     *
+     * @param c The character to be checked
+     * @return True if the character is a space, parenthesis or hyphen, false otherwise
+     */
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '(' || c == ')' || c == '-';
     }
 }
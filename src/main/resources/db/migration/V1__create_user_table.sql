@@ -0,0 +1,18 @@
+-- Users, matching the table Hibernate generates from the User entity
+CREATE SEQUENCE user_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE "user" (
+    user_id BIGINT NOT NULL PRIMARY KEY,
+    version BIGINT,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    contact_number VARCHAR(255),
+    normalized_contact_number VARCHAR(255),
+    first_name_lower VARCHAR(255),
+    last_name_lower VARCHAR(255),
+    CONSTRAINT uk_user_first_name_last_name UNIQUE (first_name, last_name)
+);
+
+CREATE INDEX idx_user_normalized_contact_number ON "user" (normalized_contact_number);
+CREATE INDEX idx_user_first_name_lower ON "user" (first_name_lower, user_id);
+CREATE INDEX idx_user_last_name_lower ON "user" (last_name_lower, user_id);
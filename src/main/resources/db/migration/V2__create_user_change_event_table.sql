@@ -0,0 +1,13 @@
+-- Outbox of user changes, matching the table Hibernate generates from the UserChangeEvent entity
+CREATE SEQUENCE user_change_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE user_change_event (
+    event_id BIGINT NOT NULL PRIMARY KEY,
+    position BIGINT,
+    user_id BIGINT,
+    type ENUM ('CREATED', 'DELETED', 'PATCHED', 'UPDATED'),
+    version BIGINT,
+    occurred_at TIMESTAMP(6) WITH TIME ZONE,
+    payload VARCHAR(4000),
+    CONSTRAINT idx_user_change_event_position UNIQUE (position)
+);
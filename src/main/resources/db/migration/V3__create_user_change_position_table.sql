@@ -0,0 +1,7 @@
+-- Position of the last dispatched user change, locked by the dispatchers while they assign positions
+CREATE TABLE user_change_position (
+    id BIGINT NOT NULL PRIMARY KEY,
+    position BIGINT
+);
+
+INSERT INTO user_change_position (id, position) SELECT 1, COALESCE(MAX(position), 0) FROM user_change_event;
@@ -0,0 +1,5 @@
+-- Dummy entries of the reactive profile, matching those written by DatabaseInitialiser
+INSERT INTO "user" (first_name, last_name, contact_number, normalized_contact_number, first_name_lower, last_name_lower,
+                    version)
+VALUES ('John', 'Doe', '+27 123 456 789', '27123456789', 'john', 'doe', 0),
+       ('Jane', 'Doe', '+98 765 432 100', '98765432100', 'jane', 'doe', 0);
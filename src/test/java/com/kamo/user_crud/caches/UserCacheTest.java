@@ -0,0 +1,244 @@
+package com.kamo.user_crud.caches;
+
+import com.kamo.user_crud.entities.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the UserCache class.
+ */
+class UserCacheTest {
+
+    /**
+     * Tests that a cached user is returned and that hits and misses are counted.
+     */
+    @Test
+    void testPutAndGet() {
+        UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(1));
+        User user = user(1L);
+
+        assertTrue(userCache.get(1L).isEmpty());
+
+        userCache.put(user, userCache.stamp());
+
+        assertSame(user, userCache.get(1L).orElseThrow());
+        assertEquals(1, userCache.stats().hitCount());
+        assertEquals(1, userCache.stats().missCount());
+    }
+
+    /**
+     * Tests that the cache statistics are published as metrics.
+     */
+    @Test
+    void testBindTo() {
+        UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        userCache.bindTo(registry);
+        userCache.get(1L);
+
+        assertEquals(1, registry.get("cache.gets").tag("cache", "users").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    /**
+     * Tests that an invalidated user is no longer returned.
+     */
+    @Test
+    void testInvalidate() {
+        UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(1));
+
+        userCache.put(user(1L), userCache.stamp());
+        userCache.invalidate(1L);
+
+        assertTrue(userCache.get(1L).isEmpty());
+    }
+
+    /**
+     * Tests that a user loaded before a concurrent invalidation is not cached.
+     */
+    @Test
+    void testPutAfterInvalidation_IsDiscarded() {
+        UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(1));
+
+        long stamp = userCache.stamp();
+        userCache.invalidate(1L);
+        userCache.put(user(1L), stamp);
+
+        assertTrue(userCache.get(1L).isEmpty());
+    }
+
+    /**
+     * Tests that a disabled cache never stores users.
+     */
+    @Test
+    void testDisabled() {
+        UserCache userCache = new UserCache(false, 100, Duration.ofMinutes(1));
+
+        userCache.put(user(1L), userCache.stamp());
+
+        assertFalse(userCache.isEnabled());
+        assertTrue(userCache.get(1L).isEmpty());
+        assertEquals(0, userCache.stats().requestCount());
+    }
+
+    /**
+     * Tests that a put never replaces a newer copy of a user with an older one.
+     */
+    @Test
+    void testPut_KeepsNewerVersion() {
+        UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(1));
+        User newer = user(1L, 3L);
+
+        userCache.put(newer, userCache.stamp());
+        userCache.put(user(1L, 2L), userCache.stamp());
+
+        assertSame(newer, userCache.get(1L).orElseThrow());
+    }
+
+    /**
+     * Tests that a user missing from the cache of a node is served from the shared tier, and copied to that cache.
+     */
+    @Test
+    void testGet_FallsBackToSharedTier() {
+        SharedUserCache sharedCache = new InMemorySharedUserCache(100, Duration.ofMinutes(1));
+        UserInvalidationBus bus = new LoopbackUserInvalidationBus();
+        UserCache node1 = new UserCache(true, 100, Duration.ofMinutes(1), sharedCache, bus);
+        UserCache node2 = new UserCache(true, 100, Duration.ofMinutes(1), sharedCache, bus);
+        User user = user(1L, 1L);
+
+        node1.put(user, node1.stamp());
+
+        assertSame(user, node2.get(1L).orElseThrow());
+        assertEquals(1, node2.stats().hitCount() + node2.stats().missCount());
+        assertSame(user, node2.get(1L).orElseThrow());
+        assertEquals(1, node2.stats().hitCount());
+    }
+
+    /**
+     * Tests that a write on one node evicts the user from the cache of every node and from the shared tier.
+     */
+    @Test
+    void testInvalidate_EvictsOnEveryNode() {
+        SharedUserCache sharedCache = new InMemorySharedUserCache(100, Duration.ofMinutes(1));
+        UserInvalidationBus bus = new LoopbackUserInvalidationBus();
+        UserCache node1 = new UserCache(true, 100, Duration.ofMinutes(1), sharedCache, bus);
+        UserCache node2 = new UserCache(true, 100, Duration.ofMinutes(1), sharedCache, bus);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        node2.bindTo(registry);
+        node1.put(user(1L, 1L), node1.stamp());
+        node2.get(1L);
+        node1.invalidate(1L, 2L);
+
+        assertTrue(sharedCache.get(1L).isEmpty());
+        assertTrue(node2.get(1L).isEmpty());
+        assertTrue(node1.get(1L).isEmpty());
+        assertEquals(1, registry.get("user.cache.remote.invalidations").functionCounter().count());
+    }
+
+    /**
+     * Tests that a write inside a transaction is only broadcast once the transaction commits, and that a rolled back
+     * write evicts the user from this node only.
+     */
+    @Test
+    void testInvalidateInTransaction_BroadcastsOnlyOnCommit() {
+        SharedUserCache sharedCache = new InMemorySharedUserCache(100, Duration.ofMinutes(1));
+        UserInvalidationBus bus = new LoopbackUserInvalidationBus();
+        UserCache node1 = new UserCache(true, 100, Duration.ofMinutes(1), sharedCache, bus);
+        UserCache node2 = new UserCache(true, 100, Duration.ofMinutes(1), sharedCache, bus);
+
+        node1.put(user(1L, 1L), node1.stamp());
+        node2.get(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            node1.invalidate(1L, 2L);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(node1.get(1L).isPresent(), "The copy should be read back from the shared tier");
+        assertTrue(node2.get(1L).isPresent());
+        assertTrue(sharedCache.get(1L).isPresent());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            node1.invalidate(1L, 2L);
+
+            assertTrue(node2.get(1L).isPresent(), "Nothing should be broadcast before the commit");
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(node1.get(1L).isEmpty());
+        assertTrue(node2.get(1L).isEmpty());
+        assertTrue(sharedCache.get(1L).isEmpty());
+    }
+
+    /**
+     * Tests that an invalidation arriving after a newer copy of the user has been cached does not evict that copy,
+     * on the node that receives it or from the shared tier.
+     */
+    @Test
+    void testLateInvalidation_KeepsNewerCopy() {
+        SharedUserCache sharedCache = new InMemorySharedUserCache(100, Duration.ofMinutes(1));
+        UserInvalidationBus bus = new LoopbackUserInvalidationBus();
+        UserCache node = new UserCache(true, 100, Duration.ofMinutes(1), sharedCache, bus);
+        User newer = user(1L, 3L);
+
+        node.put(newer, node.stamp());
+        bus.publish(new UserInvalidation(1L, 2L, "other-node"));
+
+        assertSame(newer, node.get(1L).orElseThrow());
+        assertSame(newer, sharedCache.get(1L).orElseThrow());
+
+        bus.publish(new UserInvalidation(1L, 4L, "other-node"));
+
+        assertTrue(node.get(1L).isEmpty());
+        assertTrue(sharedCache.get(1L).isEmpty());
+    }
+
+    /**
+     * Tests that a user loaded before an invalidation from another node is not cached.
+     */
+    @Test
+    void testPutAfterRemoteInvalidation_IsDiscarded() {
+        SharedUserCache sharedCache = new InMemorySharedUserCache(100, Duration.ofMinutes(1));
+        UserInvalidationBus bus = new LoopbackUserInvalidationBus();
+        UserCache node = new UserCache(true, 100, Duration.ofMinutes(1), sharedCache, bus);
+
+        long stamp = node.stamp();
+        bus.publish(new UserInvalidation(1L, 2L, "other-node"));
+        node.put(user(1L, 1L), stamp);
+
+        assertTrue(node.get(1L).isEmpty());
+        assertTrue(sharedCache.get(1L).isEmpty());
+    }
+
+    private static User user(Long userId) {
+        return user(userId, null);
+    }
+
+    private static User user(Long userId, Long version) {
+        User user = new User("John", "Doe", "1234567890");
+        user.setUserId(userId);
+        user.setVersion(version);
+        return user;
+    }
+}
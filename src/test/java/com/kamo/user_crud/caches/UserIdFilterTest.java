@@ -0,0 +1,174 @@
+package com.kamo.user_crud.caches;
+
+import com.kamo.user_crud.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the UserIdFilter class.
+ */
+class UserIdFilterTest {
+
+    /**
+     * Tests that every ID is a possible member until the filter is loaded.
+     */
+    @Test
+    void testMightContainBeforeLoad() {
+        UserIdFilter userIdFilter = new UserIdFilter(mock(UserRepository.class), true, 1000, 0.01);
+
+        assertTrue(userIdFilter.mightContain(1L));
+        assertTrue(userIdFilter.mightContain(42L));
+    }
+
+    /**
+     * Tests that the filter is loaded page by page from the repository, and then reports the loaded and added IDs as
+     * possible members and most other IDs as definitely absent.
+     */
+    @Test
+    void testLoadAndMightContain() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findUserIdsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(1L, 2L, 3L));
+        when(userRepository.findUserIdsAfter(eq(3L), any(Limit.class))).thenReturn(List.of());
+        UserIdFilter userIdFilter = new UserIdFilter(userRepository, true, 1000, 0.01);
+
+        userIdFilter.load();
+        userIdFilter.add(4L);
+        userIdFilter.add(20000L);
+
+        for (long userId = 1; userId <= 4; userId++) {
+            assertTrue(userIdFilter.mightContain(userId), "Loaded and added IDs should be possible members");
+        }
+
+        long falsePositives = 0;
+
+        for (long userId = 1000; userId < 11000; userId++) {
+            if (userIdFilter.mightContain(userId)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 100, "Nearly every unknown ID should be reported as absent");
+        verify(userRepository, times(2)).findUserIdsAfter(anyLong(), any(Limit.class));
+    }
+
+    /**
+     * Tests that IDs within one sequence block per node above the highest one the filter holds are left to the
+     * database, as they may have been created on another node before the filter learnt of them, and that IDs beyond
+     * that are reported as absent.
+     */
+    @Test
+    void testLookupAboveHighestId() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findUserIdsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(10L));
+        when(userRepository.findUserIdsAfter(eq(10L), any(Limit.class))).thenReturn(List.of());
+        UserIdFilter userIdFilter = new UserIdFilter(userRepository, true, 1000, 0.01, 2);
+
+        userIdFilter.load();
+
+        assertEquals(UserIdFilter.Membership.POSSIBLE, userIdFilter.lookup(10L));
+        assertEquals(UserIdFilter.Membership.ABSENT, userIdFilter.lookup(5L));
+        assertEquals(UserIdFilter.Membership.UNKNOWN, userIdFilter.lookup(11L));
+        assertEquals(UserIdFilter.Membership.UNKNOWN, userIdFilter.lookup(110L));
+        assertEquals(UserIdFilter.Membership.ABSENT, userIdFilter.lookup(111L));
+        assertEquals(UserIdFilter.Membership.ABSENT, userIdFilter.lookup(Long.MAX_VALUE));
+    }
+
+    /**
+     * Tests that the estimated false positive rate stays below the configured rate at the expected number of users.
+     */
+    @Test
+    void testEstimatedFalsePositiveRate() {
+        UserIdFilter userIdFilter = new UserIdFilter(mock(UserRepository.class), true, 1000, 0.01);
+
+        assertEquals(0, userIdFilter.getEstimatedFalsePositiveRate());
+
+        for (long userId = 1; userId <= 1000; userId++) {
+            userIdFilter.add(userId);
+        }
+
+        assertTrue(userIdFilter.getEstimatedFalsePositiveRate() > 0);
+        assertTrue(userIdFilter.getEstimatedFalsePositiveRate() <= 0.012);
+    }
+
+    /**
+     * Tests that the lookups, the false positives, the estimated rate and the memory are published as metrics.
+     */
+    @Test
+    void testBindTo() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findUserIdsAfter(anyLong(), any(Limit.class))).thenReturn(List.of());
+        UserIdFilter userIdFilter = new UserIdFilter(userRepository, true, 1000, 0.01);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        userIdFilter.bindTo(registry);
+        userIdFilter.load();
+        userIdFilter.add(1L);
+        userIdFilter.add(3L);
+        userIdFilter.mightContain(1L);
+        userIdFilter.mightContain(2L);
+        userIdFilter.mightContain(4L);
+        userIdFilter.recordFalsePositive();
+
+        assertEquals(1, registry.get("user.id.filter.lookups").tag("result", "present").functionCounter().count());
+        assertEquals(1, registry.get("user.id.filter.lookups").tag("result", "absent").functionCounter().count());
+        assertEquals(1, registry.get("user.id.filter.lookups").tag("result", "unseen").functionCounter().count());
+        assertEquals(1, registry.get("user.id.filter.false.positives").functionCounter().count());
+        assertEquals(userIdFilter.getMemoryBytes(), registry.get("user.id.filter.memory").gauge().value());
+        assertTrue(registry.get("user.id.filter.false.positive.rate").gauge().value() > 0);
+    }
+
+    /**
+     * Tests that users created on another node are added when their invalidation arrives on the bus.
+     */
+    @Test
+    void testAddFromInvalidationBus() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findUserIdsAfter(anyLong(), any(Limit.class))).thenReturn(List.of());
+        LoopbackUserInvalidationBus invalidationBus = new LoopbackUserInvalidationBus();
+        UserIdFilter userIdFilter = new UserIdFilter(userRepository, invalidationBus, true, 1000, 0.01, 1);
+
+        userIdFilter.load();
+        invalidationBus.publish(new UserInvalidation(7L, 0L, "other-node"));
+
+        assertTrue(userIdFilter.mightContain(7L));
+    }
+
+    /**
+     * Tests that a disabled filter reports every ID as a possible member and neither loads nor publishes anything.
+     */
+    @Test
+    void testDisabled() {
+        UserRepository userRepository = mock(UserRepository.class);
+        UserIdFilter userIdFilter = new UserIdFilter(userRepository, false, 1000, 0.01);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        userIdFilter.bindTo(registry);
+        userIdFilter.load();
+
+        assertFalse(userIdFilter.isEnabled());
+        assertTrue(userIdFilter.mightContain(1L));
+        assertEquals(0, userIdFilter.getMemoryBytes());
+        assertTrue(registry.getMeters().isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests that invalid sizing settings are rejected.
+     */
+    @Test
+    void testInvalidSettings() {
+        UserRepository userRepository = mock(UserRepository.class);
+
+        assertThrows(IllegalArgumentException.class, () -> new UserIdFilter(userRepository, true, 0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new UserIdFilter(userRepository, true, 1000, 1));
+        assertThrows(IllegalArgumentException.class, () -> new UserIdFilter(userRepository, true, 1000, 0.01, 0));
+    }
+}
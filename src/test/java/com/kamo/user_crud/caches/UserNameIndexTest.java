@@ -0,0 +1,145 @@
+package com.kamo.user_crud.caches;
+
+import com.kamo.user_crud.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the UserNameIndex class.
+ */
+class UserNameIndexTest {
+
+    /**
+     * Tests that added names are contained and removed names are not, and that names are compared exactly.
+     */
+    @Test
+    void testAddContainsAndRemove() {
+        UserNameIndex userNameIndex = newIndex(true);
+
+        userNameIndex.add("John", "Doe");
+
+        assertTrue(userNameIndex.contains("John", "Doe"));
+        assertFalse(userNameIndex.contains("john", "doe"), "Names should be compared as the unique constraint does");
+        assertFalse(userNameIndex.contains("JohnD", "oe"), "Moving characters between the parts should change the key");
+        assertEquals(1, userNameIndex.size());
+
+        userNameIndex.remove("John", "Doe");
+
+        assertFalse(userNameIndex.contains("John", "Doe"));
+        assertEquals(0, userNameIndex.size());
+    }
+
+    /**
+     * Tests that names with a missing part are neither added nor contained.
+     */
+    @Test
+    void testNullNames() {
+        UserNameIndex userNameIndex = newIndex(true);
+
+        userNameIndex.add(null, "Doe");
+
+        assertFalse(userNameIndex.contains(null, "Doe"));
+        assertEquals(0, userNameIndex.size());
+    }
+
+    /**
+     * Tests that the index grows past its initial capacity and that removing names from the middle of probe
+     * sequences keeps every other name reachable.
+     */
+    @Test
+    void testGrowAndRemove() {
+        UserNameIndex userNameIndex = newIndex(true);
+        long initialMemory = userNameIndex.getMemoryBytes();
+
+        for (int i = 0; i < 10000; i++) {
+            userNameIndex.add("First" + i, "Last" + i);
+        }
+
+        for (int i = 0; i < 10000; i += 2) {
+            userNameIndex.remove("First" + i, "Last" + i);
+        }
+
+        assertEquals(5000, userNameIndex.size());
+        assertTrue(userNameIndex.getMemoryBytes() > initialMemory);
+
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i % 2 == 1, userNameIndex.contains("First" + i, "Last" + i), "Name " + i);
+        }
+    }
+
+    /**
+     * Tests that the index is filled from the repository and only reports itself loaded afterwards.
+     */
+    @Test
+    void testLoad() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.streamAllNames()).thenReturn(Stream.of(
+                new Object[] {"John", "Doe"}, new Object[] {"Jane", "Doe"}));
+        UserNameIndex userNameIndex =
+                new UserNameIndex(userRepository, TransactionOperations.withoutTransaction(), true);
+
+        assertFalse(userNameIndex.isLoaded());
+
+        userNameIndex.load();
+
+        assertTrue(userNameIndex.isLoaded());
+        assertTrue(userNameIndex.contains("John", "Doe"));
+        assertTrue(userNameIndex.contains("Jane", "Doe"));
+        assertEquals(2, userNameIndex.size());
+    }
+
+    /**
+     * Tests that the size, the memory and the stale names removed are published as metrics.
+     */
+    @Test
+    void testBindTo() {
+        UserNameIndex userNameIndex = newIndex(true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        userNameIndex.bindTo(registry);
+        userNameIndex.add("John", "Doe");
+        userNameIndex.add("Jane", "Doe");
+        userNameIndex.removeStale("Jane", "Doe");
+
+        assertEquals(1, registry.get("user.name.index.size").gauge().value());
+        assertEquals(userNameIndex.getMemoryBytes(), registry.get("user.name.index.memory").gauge().value());
+        assertEquals(1, registry.get("user.name.index.stale").functionCounter().count());
+    }
+
+    /**
+     * Tests that a disabled index holds nothing and neither loads nor publishes anything.
+     */
+    @Test
+    void testDisabled() {
+        UserRepository userRepository = mock(UserRepository.class);
+        UserNameIndex userNameIndex =
+                new UserNameIndex(userRepository, TransactionOperations.withoutTransaction(), false);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        userNameIndex.bindTo(registry);
+        userNameIndex.load();
+        userNameIndex.add("John", "Doe");
+
+        assertFalse(userNameIndex.isLoaded());
+        assertFalse(userNameIndex.contains("John", "Doe"));
+        assertEquals(0, userNameIndex.getMemoryBytes());
+        assertTrue(registry.getMeters().isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Creates an index that is not loaded from a database.
+     *
+     * @param enabled Whether the index is enabled
+     * @return The index
+     */
+    private static UserNameIndex newIndex(boolean enabled) {
+        return new UserNameIndex(mock(UserRepository.class), TransactionOperations.withoutTransaction(), enabled);
+    }
+}
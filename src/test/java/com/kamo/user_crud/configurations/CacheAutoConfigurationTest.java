@@ -0,0 +1,74 @@
+package com.kamo.user_crud.configurations;
+
+import com.kamo.user_crud.caches.InMemorySharedUserCache;
+import com.kamo.user_crud.caches.LoopbackUserInvalidationBus;
+import com.kamo.user_crud.caches.SharedUserCache;
+import com.kamo.user_crud.caches.UserInvalidationBus;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for the CacheAutoConfiguration class.
+ */
+class CacheAutoConfigurationTest {
+
+    // Converts the durations in the properties, as a Spring Boot application does
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(CacheAutoConfiguration.class));
+
+    /**
+     * Tests that the in-JVM bus is provided, and the shared tier only when it is enabled.
+     */
+    @Test
+    void testDefaults() {
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(LoopbackUserInvalidationBus.class);
+            assertThat(context).doesNotHaveBean(SharedUserCache.class);
+        });
+        contextRunner.withPropertyValues("user-crud.cache.shared.enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(InMemorySharedUserCache.class));
+    }
+
+    /**
+     * Tests that the defaults back off when the application declares its own bus and shared tier.
+     */
+    @Test
+    void testUserBeansReplaceDefaults() {
+        contextRunner.withUserConfiguration(CustomTiers.class)
+                .withPropertyValues("user-crud.cache.shared.enabled=true")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(UserInvalidationBus.class);
+                    assertThat(context).doesNotHaveBean(LoopbackUserInvalidationBus.class);
+                    assertThat(context).hasSingleBean(SharedUserCache.class);
+                    assertThat(context.getBean(SharedUserCache.class))
+                            .isSameAs(context.getBean(CustomTiers.class).sharedUserCache);
+                });
+    }
+
+    @Configuration
+    static class CustomTiers {
+
+        final SharedUserCache sharedUserCache = new InMemorySharedUserCache(10, Duration.ofMinutes(1));
+
+        @Bean
+        UserInvalidationBus brokerInvalidationBus() {
+            return mock(UserInvalidationBus.class);
+        }
+
+        @Bean
+        SharedUserCache networkedSharedUserCache() {
+            return sharedUserCache;
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.dtos.UserPage;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
+import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.exceptions.ResourceVersionMismatchException;
+import com.kamo.user_crud.services.ReactiveUserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The ReactiveUserControllerTest class provides unit tests for the ReactiveUserController class.
+ * It runs the scenarios of UserControllerTest against the reactive stack, which must produce the same responses,
+ * and covers the streaming listing endpoint.
+ */
+@WebFluxTest(ReactiveUserController.class)
+@ActiveProfiles("reactive")
+class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveUserService userService;
+
+    /**
+     * Test case for successful addition of a user.
+     * Verifies that the endpoint returns the correct response and status code.
+     */
+    @Test
+    void testAddUser_Success() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userService.addUser(any(User.class))).thenReturn(Mono.just(user));
+
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("John")
+                .jsonPath("$.lastName").isEqualTo("Doe")
+                .jsonPath("$.contactNumber").isEqualTo("1234567890");
+    }
+
+    /**
+     * Test case for adding a user that already exists.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testAddUser_AlreadyExists() {
+        when(userService.addUser(any(User.class)))
+                .thenReturn(Mono.error(new ResourceAlreadyExistsException("User already exists")));
+
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("User already exists");
+    }
+
+    /**
+     * Test case for adding a user with a request body that is not valid JSON.
+     * Verifies that the request is rejected with a bad request status before the service is called.
+     */
+    @Test
+    void testAddUser_UnreadableBody() {
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\": \"John\"")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400);
+        verifyNoInteractions(userService);
+    }
+
+    /**
+     * Test case for successful update of a user.
+     * Verifies that the endpoint returns the correct response and status code.
+     */
+    @Test
+    void testUpdateUser_Success() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userService.updateUser(anyLong(), any(User.class), isNull())).thenReturn(Mono.just(user));
+
+        webTestClient.put().uri("/api/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Successfully updated user with ID 1")
+                .jsonPath("$.data.firstName").isEqualTo("John")
+                .jsonPath("$.data.lastName").isEqualTo("Doe")
+                .jsonPath("$.data.contactNumber").isEqualTo("1234567890");
+    }
+
+    /**
+     * Test case for updating a user that does not exist.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testUpdateUser_NotFound() {
+        when(userService.updateUser(anyLong(), any(User.class), isNull()))
+                .thenReturn(Mono.error(new ResourceNotFoundException("User not found")));
+
+        webTestClient.put().uri("/api/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("User not found");
+    }
+
+    /**
+     * Test case for updating a user to a name that is already taken.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testUpdateUser_AlreadyExists() {
+        when(userService.updateUser(anyLong(), any(User.class), isNull()))
+                .thenReturn(Mono.error(new ResourceAlreadyExistsException("User already exists")));
+
+        webTestClient.put().uri("/api/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\": \"Jane\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("User already exists");
+    }
+
+    /**
+     * Test case for successful retrieval of a user.
+     * Verifies that the endpoint returns the correct response and status code.
+     */
+    @Test
+    void testGetUser_Success() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userService.getUser(1L)).thenReturn(Mono.just(user));
+
+        webTestClient.get().uri("/api/users/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("John")
+                .jsonPath("$.lastName").isEqualTo("Doe")
+                .jsonPath("$.contactNumber").isEqualTo("1234567890");
+    }
+
+    /**
+     * Test case for retrieving a user that does not exist.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testGetUser_NotFound() {
+        when(userService.getUser(1L)).thenReturn(Mono.error(new ResourceNotFoundException("User not found")));
+
+        webTestClient.get().uri("/api/users/1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.type").isEqualTo("urn:user-crud:problem:user-not-found")
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.detail").isEqualTo("User not found");
+    }
+
+    /**
+     * Test case for retrieving a user with an ID that is not a number.
+     * Verifies that the request is rejected with a bad request status before the service is called.
+     */
+    @Test
+    void testGetUser_MalformedId() {
+        webTestClient.get().uri("/api/users/abc")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Invalid value 'abc' for parameter 'userId'.");
+        verifyNoInteractions(userService);
+    }
+
+    /**
+     * Test case for successful deletion of a user.
+     * Verifies that the endpoint returns the correct response and status code.
+     */
+    @Test
+    void testDeleteUser_Success() {
+        when(userService.deleteUser(1L, null)).thenReturn(Mono.just(true));
+
+        webTestClient.delete().uri("/api/users/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Successfully deleted user with ID '1'");
+    }
+
+    /**
+     * Test case for deleting a user that does not exist.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testDeleteUser_NotFound() {
+        when(userService.deleteUser(1L, null)).thenReturn(Mono.error(new ResourceNotFoundException("User not found")));
+
+        webTestClient.delete().uri("/api/users/1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("User not found");
+    }
+
+    /**
+     * Test case for revalidating a user that has not changed.
+     * Verifies that the endpoint returns a not modified status without a body.
+     */
+    @Test
+    void testGetUser_NotModified() {
+        User user = new User("John", "Doe", "1234567890");
+        user.setVersion(3L);
+
+        when(userService.getUser(1L)).thenReturn(Mono.just(user));
+
+        webTestClient.get().uri("/api/users/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectBody().isEmpty();
+    }
+
+    /**
+     * Test case for a conditional update of a user that has been modified in the meantime.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testUpdateUser_VersionMismatch() {
+        when(userService.updateUser(eq(1L), any(User.class), eq(3L)))
+                .thenReturn(Mono.error(new ResourceVersionMismatchException("User with ID 1 has been modified.")));
+
+        webTestClient.put().uri("/api/users/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("User with ID 1 has been modified.");
+    }
+
+    /**
+     * Test case for a partial update of a user.
+     * Verifies that the endpoint returns the correct response and status code.
+     */
+    @Test
+    void testPatchUser_Success() {
+        when(userService.patchUser(1L, Map.of("contactNumber", "+27 123 456 789"), null)).thenReturn(Mono.just(true));
+
+        webTestClient.patch().uri("/api/users/1")
+                .contentType(MediaType.valueOf(UserController.MERGE_PATCH_JSON_VALUE))
+                .bodyValue("{\"contactNumber\": \"+27 123 456 789\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Successfully updated user with ID 1");
+    }
+
+    /**
+     * Test case for successful listing of users.
+     * Verifies that the endpoint returns the page of users and the continuation token.
+     */
+    @Test
+    void testListUsers_Success() {
+        User user = new User("John", "Doe", "1234567890");
+        user.setUserId(1L);
+
+        when(userService.listUsers(null, 20)).thenReturn(Mono.just(new UserPage(List.of(user), "MQ")));
+
+        webTestClient.get().uri("/api/users")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data[0].userId").isEqualTo(1)
+                .jsonPath("$.data[0].firstName").isEqualTo("John")
+                .jsonPath("$.nextCursor").isEqualTo("MQ");
+    }
+
+    /**
+     * Test case for listing users with an invalid continuation token.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testListUsers_InvalidCursor() {
+        when(userService.listUsers(eq("bad"), any(Integer.class)))
+                .thenReturn(Mono.error(new InvalidResourceArgumentException("Invalid continuation token.")));
+
+        webTestClient.get().uri("/api/users?cursor=bad")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Invalid continuation token.");
+    }
+
+    /**
+     * Test case for streaming all users as newline-delimited JSON.
+     * Verifies that every user is written as its own JSON document.
+     */
+    @Test
+    void testStreamUsers_Success() {
+        User john = new User("John", "Doe", "1234567890");
+        john.setUserId(1L);
+        User jane = new User("Jane", "Doe", "0987654321");
+        jane.setUserId(2L);
+
+        when(userService.streamUsers(null)).thenReturn(Flux.just(john, jane));
+
+        List<User> users = webTestClient.get().uri("/api/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(User.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(2, users.size());
+        assertEquals("John", users.get(0).getFirstName());
+        assertEquals("Jane", users.get(1).getFirstName());
+    }
+
+    /**
+     * Test case for streaming users with an invalid continuation token.
+     * Verifies that the error is reported with a bad request status before anything is streamed.
+     */
+    @Test
+    void testStreamUsers_InvalidCursor() {
+        when(userService.streamUsers("bad"))
+                .thenReturn(Flux.error(new InvalidResourceArgumentException("Invalid continuation token.")));
+
+        webTestClient.get().uri("/api/users?cursor=bad")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Invalid continuation token.");
+    }
+
+    /**
+     * Test case for looking up users by contact number.
+     * Verifies that the endpoint returns the matching users.
+     */
+    @Test
+    void testFindUsersByContactNumber_Success() {
+        User user = new User("John", "Doe", "+27 123 456 789");
+
+        when(userService.findUsersByContactNumber("+27 123 456 789")).thenReturn(Flux.just(user));
+
+        webTestClient.get().uri(uriBuilder -> uriBuilder.path("/api/users")
+                        .queryParam("contactNumber", "{contactNumber}")
+                        .build("+27 123 456 789"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].firstName").isEqualTo("John")
+                .jsonPath("$[0].contactNumber").isEqualTo("+27 123 456 789");
+    }
+
+    /**
+     * Test case for looking up users by an invalid contact number.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testFindUsersByContactNumber_Invalid() {
+        when(userService.findUsersByContactNumber("invalid"))
+                .thenReturn(Flux.error(new InvalidResourceArgumentException("Invalid phone number format.")));
+
+        webTestClient.get().uri("/api/users?contactNumber=invalid")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Invalid phone number format.");
+    }
+
+    /**
+     * Test case for searching users by name prefix.
+     * Verifies that the endpoint returns the page of matching users.
+     */
+    @Test
+    void testSearchUsers_Success() {
+        User user = new User("John", "Doe", "1234567890");
+        user.setUserId(1L);
+
+        when(userService.searchUsers("jo", null, 20)).thenReturn(Mono.just(new UserPage(List.of(user), null)));
+
+        webTestClient.get().uri("/api/users/search?q=jo")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data[0].firstName").isEqualTo("John")
+                .jsonPath("$.data[0].firstNameLower").doesNotExist()
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    /**
+     * Test case for searching users with an empty query.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testSearchUsers_EmptyQuery() {
+        when(userService.searchUsers(eq(""), any(), any(Integer.class)))
+                .thenReturn(Mono.error(new InvalidResourceArgumentException("Search query must not be empty.")));
+
+        webTestClient.get().uri("/api/users/search?q=")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Search query must not be empty.");
+    }
+}
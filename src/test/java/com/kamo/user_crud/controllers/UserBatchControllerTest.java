@@ -0,0 +1,107 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.dtos.BatchItemResult;
+import com.kamo.user_crud.dtos.BatchItemResult.Status;
+import com.kamo.user_crud.dtos.BatchResult;
+import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.services.UserBatchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The UserBatchControllerTest class provides unit tests for the UserBatchController class.
+ * It verifies the behavior of the bulk RESTful API endpoints for managing User entities.
+ */
+@WebMvcTest(UserBatchController.class)
+class UserBatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserBatchService userBatchService;
+
+    /**
+     * Test case for a bulk create where some items are rejected.
+     * Verifies that the endpoint returns the per-item outcomes with an OK status.
+     */
+    @Test
+    void testAddUsers_PartialSuccess() throws Exception {
+        when(userBatchService.addUsers(anyList())).thenReturn(BatchResult.of(List.of(
+                new BatchItemResult(0, Status.CREATED, 1L, null),
+                new BatchItemResult(1, Status.INVALID, null, "Invalid phone number format for user."))));
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"},"
+                                + "{\"firstName\": \"Jane\", \"lastName\": \"Doe\", \"contactNumber\": \"invalid\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].userId").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.results[1].error").value("Invalid phone number format for user."));
+    }
+
+    /**
+     * Test case for a bulk create with an invalid payload.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testAddUsers_InvalidBatch() throws Exception {
+        when(userBatchService.addUsers(anyList()))
+                .thenThrow(new InvalidResourceArgumentException("Batch must contain between 1 and 1000 items."));
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Batch must contain between 1 and 1000 items."));
+    }
+
+    /**
+     * Test case for a successful bulk update.
+     * Verifies that the endpoint returns the correct response and status code.
+     */
+    @Test
+    void testUpdateUsers_Success() throws Exception {
+        when(userBatchService.updateUsers(anyList()))
+                .thenReturn(BatchResult.of(List.of(new BatchItemResult(0, Status.UPDATED, 1L, null))));
+
+        mockMvc.perform(put("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"userId\": 1, \"firstName\": \"John\", \"lastName\": \"Doe\", "
+                                + "\"contactNumber\": \"1234567890\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("UPDATED"));
+    }
+
+    /**
+     * Test case for a bulk delete where the database write fails.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testDeleteUsers_DataAccessFailure() throws Exception {
+        when(userBatchService.deleteUsers(anyList())).thenThrow(new DataAccessFailureException("Database is down"));
+
+        mockMvc.perform(delete("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.detail").value("The users could not be read or written."));
+    }
+}
@@ -0,0 +1,78 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.services.UserChangeDispatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The UserChangeControllerTest class provides unit tests for the UserChangeController class.
+ * It verifies how subscriptions to the change stream of users are opened.
+ */
+@WebMvcTest(UserChangeController.class)
+class UserChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserChangeDispatcher userChangeDispatcher;
+
+    /**
+     * Test case for streaming the changes made from now on.
+     * Verifies that the response is an event stream that stays open.
+     */
+    @Test
+    void testStreamChanges_Live() throws Exception {
+        when(userChangeDispatcher.subscribe(isNull())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/users/changes"))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test case for resuming the stream after a position, given as a parameter or as the Last-Event-ID header.
+     */
+    @Test
+    void testStreamChanges_Resume() throws Exception {
+        when(userChangeDispatcher.subscribe(42L)).thenReturn(new SseEmitter());
+        when(userChangeDispatcher.subscribe(7L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/users/changes").param("since", "42"))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(get("/api/users/changes").header("Last-Event-ID", "7"))
+                .andExpect(request().asyncStarted());
+
+        verify(userChangeDispatcher).subscribe(42L);
+        verify(userChangeDispatcher).subscribe(7L);
+    }
+
+    /**
+     * Test case for a position that is not valid.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testStreamChanges_InvalidPosition() throws Exception {
+        mockMvc.perform(get("/api/users/changes").param("since", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Position must be a number."));
+
+        when(userChangeDispatcher.subscribe(-1L))
+                .thenThrow(new InvalidResourceArgumentException("Position must not be negative."));
+
+        mockMvc.perform(get("/api/users/changes").param("since", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Position must not be negative."));
+    }
+}
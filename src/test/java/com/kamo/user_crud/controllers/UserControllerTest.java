@@ -1,18 +1,29 @@
 package com.kamo.user_crud.controllers;
 
+import com.kamo.user_crud.dtos.UserPage;
 import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
 import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
 import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.exceptions.ResourceVersionMismatchException;
 import com.kamo.user_crud.services.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -61,8 +72,7 @@ class UserControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}"))
                 .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.message").value("Failed to create user"))
-                .andExpect(jsonPath("$.error").value("User already exists"));
+                .andExpect(jsonPath("$.detail").value("User already exists"));
     }
 
     /**
@@ -73,7 +83,7 @@ class UserControllerTest {
     void testUpdateUser_Success() throws Exception {
         User user = new User("John", "Doe", "1234567890");
 
-        when(userService.updateUser(any(String.class), any(User.class))).thenReturn(user);
+        when(userService.updateUser(anyLong(), any(User.class), isNull())).thenReturn(user);
 
         mockMvc.perform(put("/api/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -91,14 +101,30 @@ class UserControllerTest {
      */
     @Test
     void testUpdateUser_NotFound() throws Exception {
-        when(userService.updateUser(any(String.class), any(User.class))).thenThrow(new ResourceNotFoundException("User not found"));
+        when(userService.updateUser(anyLong(), any(User.class), isNull()))
+                .thenThrow(new ResourceNotFoundException("User not found"));
 
         mockMvc.perform(put("/api/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}"))
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.message").value("Failed to update user with ID '1'"))
-                .andExpect(jsonPath("$.error").value("User not found"));
+                .andExpect(jsonPath("$.detail").value("User not found"));
+    }
+
+    /**
+     * Test case for updating a user to a name that is already taken.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testUpdateUser_AlreadyExists() throws Exception {
+        when(userService.updateUser(anyLong(), any(User.class), isNull()))
+                .thenThrow(new ResourceAlreadyExistsException("User already exists"));
+
+        mockMvc.perform(put("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\": \"Jane\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("User already exists"));
     }
 
     /**
@@ -109,7 +135,7 @@ class UserControllerTest {
     void testGetUser_Success() throws Exception {
         User user = new User("John", "Doe", "1234567890");
 
-        when(userService.getUser("1")).thenReturn(user);
+        when(userService.getUser(1L)).thenReturn(user);
 
         mockMvc.perform(get("/api/users/1")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -125,12 +151,39 @@ class UserControllerTest {
      */
     @Test
     void testGetUser_NotFound() throws Exception {
-        when(userService.getUser("1")).thenThrow(new ResourceNotFoundException("User not found"));
+        when(userService.getUser(1L)).thenThrow(new ResourceNotFoundException("User not found"));
 
         mockMvc.perform(get("/api/users/1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.error").value("User not found"));
+                .andExpect(jsonPath("$.detail").value("User not found"));
+    }
+
+    /**
+     * Test case for retrieving a user with an ID that is not a number.
+     * Verifies that the request is rejected with a bad request status before the service is called.
+     */
+    @Test
+    void testGetUser_MalformedId() throws Exception {
+        mockMvc.perform(get("/api/users/abc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Invalid value 'abc' for parameter 'userId'."));
+        verifyNoInteractions(userService);
+    }
+
+    /**
+     * Test case for deleting a user with an ID that is too large to be a user ID.
+     * Verifies that the request is rejected with a bad request status before the service is called.
+     */
+    @Test
+    void testDeleteUser_MalformedId() throws Exception {
+        mockMvc.perform(delete("/api/users/99999999999999999999")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail")
+                        .value("Invalid value '99999999999999999999' for parameter 'userId'."));
+        verifyNoInteractions(userService);
     }
 
     /**
@@ -151,12 +204,248 @@ class UserControllerTest {
      */
     @Test
     void testDeleteUser_NotFound() throws Exception {
-        doThrow(new ResourceNotFoundException("User not found")).when(userService).deleteUser("1");
+        doThrow(new ResourceNotFoundException("User not found")).when(userService).deleteUser(1L, null);
 
         mockMvc.perform(delete("/api/users/1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.message").value("Failed to delete user with ID '1'"))
-                .andExpect(jsonPath("$.error").value("User not found"));
+                .andExpect(jsonPath("$.detail").value("User not found"));
+    }
+
+    /**
+     * Test case for retrieving a user, which is served with its version as the ETag.
+     * Verifies that the endpoint returns the ETag header.
+     */
+    @Test
+    void testGetUser_ETag() throws Exception {
+        when(userService.getUser(1L)).thenReturn(user(3L));
+
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    /**
+     * Test case for revalidating a user that has not changed.
+     * Verifies that the endpoint returns a not modified status without a body.
+     */
+    @Test
+    void testGetUser_NotModified() throws Exception {
+        when(userService.getUser(1L)).thenReturn(user(3L));
+
+        mockMvc.perform(get("/api/users/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * Test case for a conditional update of a user at the expected version.
+     * Verifies that the expected version is passed on and the new ETag is returned.
+     */
+    @Test
+    void testUpdateUser_IfMatch() throws Exception {
+        when(userService.updateUser(eq(1L), any(User.class), eq(3L))).thenReturn(user(4L));
+
+        mockMvc.perform(put("/api/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    /**
+     * Test case for a conditional update whose If-Match header names several versions.
+     * Verifies that the request is rejected with status 400 instead of failing the precondition.
+     */
+    @Test
+    void testUpdateUser_IfMatchSeveralVersions() throws Exception {
+        mockMvc.perform(put("/api/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\", \"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("If-Match may name only one version of the user."));
+        verifyNoInteractions(userService);
+    }
+
+    /**
+     * Test case for a conditional update of a user that has been modified in the meantime.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testUpdateUser_VersionMismatch() throws Exception {
+        when(userService.updateUser(eq(1L), any(User.class), eq(3L)))
+                .thenThrow(new ResourceVersionMismatchException("User with ID 1 has been modified."));
+
+        mockMvc.perform(put("/api/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\": \"John\", \"lastName\": \"Doe\", \"contactNumber\": \"1234567890\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.detail").value("User with ID 1 has been modified."));
+    }
+
+    /**
+     * Test case for a conditional deletion of a user that has been modified in the meantime.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testDeleteUser_VersionMismatch() throws Exception {
+        doThrow(new ResourceVersionMismatchException("User with ID 1 has been modified."))
+                .when(userService).deleteUser(1L, 3L);
+
+        mockMvc.perform(delete("/api/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.detail").value("User with ID 1 has been modified."));
+    }
+
+    /**
+     * Test case for a conditional partial update of a user.
+     * Verifies that the patch and expected version are passed on and the new ETag is returned.
+     */
+    @Test
+    void testPatchUser_Success() throws Exception {
+        when(userService.patchUser(1L, Map.of("contactNumber", "+27 123 456 789"), 3L)).thenReturn(true);
+
+        mockMvc.perform(patch("/api/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(UserController.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"contactNumber\": \"+27 123 456 789\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.message").value("Successfully updated user with ID 1"));
+    }
+
+    /**
+     * Test case for a partial update with an invalid patch.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testPatchUser_Invalid() throws Exception {
+        when(userService.patchUser(1L, Map.of("version", 9), null))
+                .thenThrow(new InvalidResourceArgumentException("Attribute 'version' cannot be patched."));
+
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(UserController.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"version\": 9}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Attribute 'version' cannot be patched."));
+    }
+
+    /**
+     * Test case for successful listing of users.
+     * Verifies that the endpoint returns the page of users and the continuation token.
+     */
+    @Test
+    void testListUsers_Success() throws Exception {
+        User user = new User("John", "Doe", "1234567890");
+        user.setUserId(1L);
+
+        when(userService.listUsers(null, 20)).thenReturn(new UserPage(List.of(user), "MQ"));
+
+        mockMvc.perform(get("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].userId").value(1))
+                .andExpect(jsonPath("$.data[0].firstName").value("John"))
+                .andExpect(jsonPath("$.nextCursor").value("MQ"));
+    }
+
+    /**
+     * Test case for listing users with an invalid continuation token.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testListUsers_InvalidCursor() throws Exception {
+        when(userService.listUsers(eq("bad"), any(Integer.class)))
+                .thenThrow(new InvalidResourceArgumentException("Invalid continuation token."));
+
+        mockMvc.perform(get("/api/users")
+                        .param("cursor", "bad")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Invalid continuation token."));
+    }
+
+    /**
+     * Test case for looking up users by contact number.
+     * Verifies that the endpoint returns the matching users.
+     */
+    @Test
+    void testFindUsersByContactNumber_Success() throws Exception {
+        User user = new User("John", "Doe", "+27 123 456 789");
+
+        when(userService.findUsersByContactNumber("+27 123 456 789")).thenReturn(List.of(user));
+
+        mockMvc.perform(get("/api/users")
+                        .param("contactNumber", "+27 123 456 789")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("John"))
+                .andExpect(jsonPath("$[0].contactNumber").value("+27 123 456 789"));
+    }
+
+    /**
+     * Test case for looking up users by an invalid contact number.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testFindUsersByContactNumber_Invalid() throws Exception {
+        when(userService.findUsersByContactNumber("invalid"))
+                .thenThrow(new InvalidResourceArgumentException("Invalid phone number format."));
+
+        mockMvc.perform(get("/api/users")
+                        .param("contactNumber", "invalid")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Invalid phone number format."));
+    }
+
+    /**
+     * Test case for searching users by name prefix.
+     * Verifies that the endpoint returns the page of matching users.
+     */
+    @Test
+    void testSearchUsers_Success() throws Exception {
+        User user = new User("John", "Doe", "1234567890");
+        user.setUserId(1L);
+
+        when(userService.searchUsers("jo", null, 20)).thenReturn(new UserPage(List.of(user), null));
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("q", "jo")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].firstName").value("John"))
+                .andExpect(jsonPath("$.data[0].firstNameLower").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    /**
+     * Test case for searching users with an empty query.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testSearchUsers_EmptyQuery() throws Exception {
+        when(userService.searchUsers(eq(""), any(), any(Integer.class)))
+                .thenThrow(new InvalidResourceArgumentException("Search query must not be empty."));
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("q", "")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Search query must not be empty."));
+    }
+
+    private static User user(Long version) {
+        User user = new User("John", "Doe", "1234567890");
+        user.setUserId(1L);
+        user.setVersion(version);
+        return user;
     }
 }
@@ -0,0 +1,54 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the UserETags class.
+ */
+class UserETagsTest {
+
+    /**
+     * Tests that a missing header and "*" match any version.
+     */
+    @Test
+    void testParseIfMatch_AnyVersion() {
+        assertNull(UserETags.parseIfMatch(null));
+        assertNull(UserETags.parseIfMatch("*"));
+        assertNull(UserETags.parseIfMatch(" * "));
+    }
+
+    /**
+     * Tests that a single strong tag, alone or in a list with tags that cannot match, names its version.
+     */
+    @Test
+    void testParseIfMatch_SingleVersion() {
+        assertEquals(3L, UserETags.parseIfMatch("\"3\""));
+        assertEquals(3L, UserETags.parseIfMatch("W/\"2\", \"3\""));
+        assertEquals(3L, UserETags.parseIfMatch("\"3\", \"3\""));
+        assertEquals(3L, UserETags.parseIfMatch("\"a,b\",\"3\""));
+        assertEquals(3L, UserETags.parseIfMatch("xyz, \"3\""));
+    }
+
+    /**
+     * Tests that a header without any strong tag naming a version cannot match.
+     */
+    @Test
+    void testParseIfMatch_Unmatchable() {
+        assertEquals(UserETags.UNMATCHABLE_VERSION, UserETags.parseIfMatch("W/\"3\""));
+        assertEquals(UserETags.UNMATCHABLE_VERSION, UserETags.parseIfMatch("\"abc\""));
+        assertEquals(UserETags.UNMATCHABLE_VERSION, UserETags.parseIfMatch("\"3"));
+        assertEquals(UserETags.UNMATCHABLE_VERSION, UserETags.parseIfMatch("\"-1\""));
+        assertEquals(UserETags.UNMATCHABLE_VERSION, UserETags.parseIfMatch(""));
+    }
+
+    /**
+     * Tests that a list naming several versions is rejected, as a conditional write checks a single version.
+     */
+    @Test
+    void testParseIfMatch_SeveralVersions() {
+        assertThrows(InvalidResourceArgumentException.class, () -> UserETags.parseIfMatch("\"3\", \"4\""));
+    }
+}
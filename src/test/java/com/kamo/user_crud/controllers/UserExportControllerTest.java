@@ -0,0 +1,76 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.dtos.UserDataFormat;
+import com.kamo.user_crud.services.UserExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The UserExportControllerTest class provides unit tests for the UserExportController class.
+ * It verifies the behavior of the bulk export endpoint.
+ */
+@WebMvcTest(UserExportController.class)
+class UserExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserExportService userExportService;
+
+    /**
+     * Test case for exporting users as CSV.
+     * Verifies that the exported users are written to the response as an attachment.
+     */
+    @Test
+    void testExportUsers_Csv() throws Exception {
+        when(userExportService.exportUsers(eq(UserDataFormat.CSV), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("userId,firstName,lastName,contactNumber,version\n".getBytes(StandardCharsets.UTF_8));
+            return 0L;
+        });
+
+        mockMvc.perform(get("/api/users/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andExpect(content().string("userId,firstName,lastName,contactNumber,version\n"));
+    }
+
+    /**
+     * Test case for exporting users in the default format.
+     */
+    @Test
+    void testExportUsers_DefaultNdjson() throws Exception {
+        mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"));
+
+        verify(userExportService).exportUsers(eq(UserDataFormat.NDJSON), any(OutputStream.class));
+    }
+
+    /**
+     * Test case for an unsupported format.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testExportUsers_InvalidFormat() throws Exception {
+        mockMvc.perform(get("/api/users/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Format must be csv or ndjson."));
+
+        verifyNoInteractions(userExportService);
+    }
+}
@@ -0,0 +1,71 @@
+package com.kamo.user_crud.controllers;
+
+import com.kamo.user_crud.dtos.ImportReport;
+import com.kamo.user_crud.dtos.UserDataFormat;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.services.UserImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The UserImportControllerTest class provides unit tests for the UserImportController class.
+ * It verifies the behavior of the bulk import endpoint.
+ */
+@WebMvcTest(UserImportController.class)
+class UserImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserImportService userImportService;
+
+    /**
+     * Test case for importing a CSV document.
+     * Verifies that the endpoint returns the import report with an OK status.
+     */
+    @Test
+    void testImportCsv_Success() throws Exception {
+        when(userImportService.importUsers(any(InputStream.class), eq(UserDataFormat.CSV), eq(0L)))
+                .thenReturn(new ImportReport(0, 2, 1, 0, 1, 10, 200, List.of("Line 3: Malformed row.")));
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content("firstName,lastName,contactNumber\nJohn,Doe,+27 123 456 789\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(2))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rowsPerSecond").value(200))
+                .andExpect(jsonPath("$.errors[0]").value("Line 3: Malformed row."));
+    }
+
+    /**
+     * Test case for resuming an NDJSON import that is rejected.
+     * Verifies that the endpoint returns the correct error response and status code.
+     */
+    @Test
+    void testImportNdjson_Invalid() throws Exception {
+        when(userImportService.importUsers(any(InputStream.class), eq(UserDataFormat.NDJSON), eq(-1L)))
+                .thenThrow(new InvalidResourceArgumentException("Number of rows to skip must not be negative."));
+
+        mockMvc.perform(post("/api/users/import")
+                        .param("skip", "-1")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Number of rows to skip must not be negative."));
+    }
+}
@@ -0,0 +1,33 @@
+package com.kamo.user_crud.dtos;
+
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the UserDataFormat enum.
+ */
+class UserDataFormatTest {
+
+    /**
+     * Tests that a format is determined from its name, ignoring case.
+     */
+    @Test
+    void testOf() {
+        assertEquals(UserDataFormat.CSV, UserDataFormat.of("csv"));
+        assertEquals(UserDataFormat.NDJSON, UserDataFormat.of("NDJSON"));
+        assertThrows(InvalidResourceArgumentException.class, () -> UserDataFormat.of("xml"));
+    }
+
+    /**
+     * Tests that the format of a file is determined by its extension.
+     */
+    @Test
+    void testOfFileName() {
+        assertEquals(UserDataFormat.CSV, UserDataFormat.ofFileName("users.CSV"));
+        assertEquals(UserDataFormat.NDJSON, UserDataFormat.ofFileName("users.ndjson"));
+        assertEquals(UserDataFormat.NDJSON, UserDataFormat.ofFileName("users.jsonl"));
+        assertThrows(InvalidResourceArgumentException.class, () -> UserDataFormat.ofFileName("users.xml"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.kamo.user_crud.dtos;
+
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the UserPatch record.
+ */
+class UserPatchTest {
+
+    /**
+     * Tests that absent attributes are left out of the patch and null values remove the attribute.
+     */
+    @Test
+    void testOf() {
+        Map<String, Object> mergePatch = new HashMap<>();
+        mergePatch.put("contactNumber", "+27 123 456 789");
+        mergePatch.put("lastName", null);
+
+        UserPatch patch = UserPatch.of(mergePatch);
+
+        assertEquals("+27 123 456 789", patch.get("contactNumber"));
+        assertTrue(patch.contains("lastName"));
+        assertNull(patch.get("lastName"));
+        assertFalse(patch.contains("firstName"));
+    }
+
+    /**
+     * Tests that an empty patch is rejected.
+     */
+    @Test
+    void testOf_Empty() {
+        assertThrows(InvalidResourceArgumentException.class, () -> UserPatch.of(Map.of()));
+    }
+
+    /**
+     * Tests that attributes that cannot be patched are rejected.
+     */
+    @Test
+    void testOf_ReadOnlyAttribute() {
+        InvalidResourceArgumentException e = assertThrows(InvalidResourceArgumentException.class,
+                () -> UserPatch.of(Map.of("version", "3")));
+
+        assertEquals("Attribute 'version' cannot be patched.", e.getMessage());
+    }
+
+    /**
+     * Tests that values that are not strings are rejected.
+     */
+    @Test
+    void testOf_NonStringValue() {
+        assertThrows(InvalidResourceArgumentException.class, () -> UserPatch.of(Map.of("firstName", 42)));
+    }
+}
@@ -64,5 +64,20 @@ class UserTest {
 
         assertEquals(1L, user.getUserId(), "User ID should be 1");
     }
-}
 
+    /**
+     * Tests the derivation of the normalized columns.
+     * Verifies that the contact number is reduced to its digits and the names are lower-cased.
+     */
+    @Test
+    void testNormalize() {
+        User user = new User("John", "McDoe", "+27 123 456 789");
+
+        user.normalize();
+
+        assertEquals("27123456789", user.getNormalizedContactNumber(),
+                "Normalized contact number should be digits only");
+        assertEquals("john", user.getFirstNameLower(), "Lower-case first name should be john");
+        assertEquals("mcdoe", user.getLastNameLower(), "Lower-case last name should be mcdoe");
+    }
+}
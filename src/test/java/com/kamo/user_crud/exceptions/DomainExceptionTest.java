@@ -0,0 +1,38 @@
+package com.kamo.user_crud.exceptions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DomainException class.
+ */
+class DomainExceptionTest {
+
+    @AfterEach
+    void tearDown() {
+        DomainException.setStackTracesEnabled(false);
+    }
+
+    @Test
+    void testStackTracesDisabledByDefault() {
+        InvalidResourceArgumentException exception = new InvalidResourceArgumentException("Invalid argument");
+        exception.addSuppressed(new IllegalStateException("Suppressed"));
+
+        assertFalse(DomainException.isStackTracesEnabled(), "Stack traces should be disabled by default");
+        assertEquals(0, exception.getStackTrace().length, "Exception should not capture a stack trace");
+        assertEquals(0, exception.getSuppressed().length, "Exception should not record suppressed exceptions");
+    }
+
+    @Test
+    void testStackTracesEnabled() {
+        DomainException.setStackTracesEnabled(true);
+
+        ResourceAlreadyExistsException exception = new ResourceAlreadyExistsException("Already exists");
+        exception.addSuppressed(new IllegalStateException("Suppressed"));
+
+        assertTrue(exception.getStackTrace().length > 0, "Exception should capture a stack trace");
+        assertEquals(1, exception.getSuppressed().length, "Exception should record suppressed exceptions");
+    }
+}
@@ -17,4 +17,11 @@ class ResourceNotFoundExceptionTest {
         assertNotNull(exception, "Exception should not be null");
         assertEquals(errorMessage, exception.getMessage(), "Exception message should match the provided message");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testExceptionHasNoStackTrace() {
+        ResourceNotFoundException exception = new ResourceNotFoundException("Resource not found");
+
+        assertEquals(0, exception.getStackTrace().length, "Expected exceptions should not capture a stack trace");
+    }
+}
@@ -0,0 +1,20 @@
+package com.kamo.user_crud.exceptions;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ResourceVersionMismatchException class.
+ */
+class ResourceVersionMismatchExceptionTest {
+
+    @Test
+    void testExceptionMessage() {
+        String errorMessage = "Resource has been modified";
+        ResourceVersionMismatchException exception = new ResourceVersionMismatchException(errorMessage);
+
+        assertNotNull(exception, "Exception should not be null");
+        assertEquals(errorMessage, exception.getMessage(), "Exception message should match the provided message");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.kamo.user_crud.filters;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AccessLogFilter class.
+ */
+class AccessLogFilterTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(AccessLogFilter.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    /**
+     * Captures the log events of the filter before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    /**
+     * Stops capturing the log events of the filter after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    /**
+     * Tests that every request is logged with a sample rate of 1, without its query string.
+     */
+    @Test
+    void testDoFilter_LogsEveryRequest() throws Exception {
+        AccessLogFilter filter = new AccessLogFilter(1);
+
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        assertEquals(3, appender.list.size());
+        assertTrue(appender.list.get(0).getFormattedMessage().startsWith("GET /api/users/1 200 "));
+    }
+
+    /**
+     * Tests that nothing is logged when the access log is turned off.
+     */
+    @Test
+    void testDoFilter_Disabled() throws Exception {
+        AccessLogFilter filter = new AccessLogFilter(0);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    /**
+     * Tests that about one request in N is logged with a sample rate of N.
+     */
+    @Test
+    void testDoFilter_SamplesRequests() throws Exception {
+        AccessLogFilter filter = new AccessLogFilter(10);
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        assertTrue(appender.list.size() > 700 && appender.list.size() < 1300);
+    }
+
+    /**
+     * Tests that server errors are logged even when the request is not sampled.
+     */
+    @Test
+    void testDoFilter_AlwaysLogsServerErrors() throws Exception {
+        AccessLogFilter filter = new AccessLogFilter(Integer.MAX_VALUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+
+        filter.doFilter(request(), response, new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        assertTrue(appender.list.get(0).getFormattedMessage().startsWith("GET /api/users/1 500 "));
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.setQueryString("verbose=true");
+        return request;
+    }
+}
@@ -0,0 +1,81 @@
+package com.kamo.user_crud.filters;
+
+import com.kamo.user_crud.limiters.AdaptiveConcurrencyLimiter;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LoadSheddingFilter class.
+ */
+class LoadSheddingFilterTest {
+
+    /**
+     * Tests that a request beyond the concurrency limit is rejected with 503 and a Retry-After header while the
+     * admitted request is still being served.
+     */
+    @Test
+    void testDoFilter_RejectsBeyondLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1);
+        LoadSheddingFilter filter = new LoadSheddingFilter(limiter);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        // The nested request arrives while the outer one holds the only permit
+        FilterChain chain = (request, response) -> filter.doFilter(request("/api/users/2"), rejected,
+                new MockFilterChain());
+        filter.doFilter(request("/api/users/1"), new MockHttpServletResponse(), chain);
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals("application/problem+json", rejected.getContentType());
+        assertEquals("{\"type\":\"urn:user-crud:problem:overloaded\",\"title\":\"Service overloaded\","
+                + "\"status\":503,\"detail\":\"Service is overloaded.\"}", rejected.getContentAsString());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Tests that the permit is released when the request fails with an exception.
+     */
+    @Test
+    void testDoFilter_ReleasesOnException() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1);
+        LoadSheddingFilter filter = new LoadSheddingFilter(limiter);
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request("/api/users/1"),
+                new MockHttpServletResponse(), (request, response) -> {
+                    throw new IllegalStateException();
+                }));
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Tests that the long-running endpoints and requests outside /api/users are not limited.
+     */
+    @Test
+    void testDoFilter_NotLimited() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1);
+        LoadSheddingFilter filter = new LoadSheddingFilter(limiter);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+
+        FilterChain chain = (request, response) -> filter.doFilter(request("/api/users/changes"), nested,
+                new MockFilterChain());
+        filter.doFilter(request("/api/users/1"), new MockHttpServletResponse(), chain);
+        filter.doFilter(request("/actuator/health"), new MockHttpServletResponse(), chain);
+
+        assertEquals(200, nested.getStatus());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int limit) {
+        return new AdaptiveConcurrencyLimiter(limit, 1, limit, TimeUnit.SECONDS.toNanos(1), 0.9);
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+}
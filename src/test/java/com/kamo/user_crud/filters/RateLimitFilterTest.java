@@ -0,0 +1,103 @@
+package com.kamo.user_crud.filters;
+
+import com.kamo.user_crud.limiters.ClientRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RateLimitFilter class.
+ */
+class RateLimitFilterTest {
+
+    /**
+     * Tests that a client is rejected with 429 and a Retry-After header once it has used up its burst.
+     */
+    @Test
+    void testDoFilter_RejectsClientOverLimit() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new ClientRateLimiter(0.5, 2, 100), "");
+
+        assertEquals(200, serve(filter, request("10.0.0.1")).getStatus());
+        assertEquals(200, serve(filter, request("10.0.0.1")).getStatus());
+        MockHttpServletResponse response = serve(filter, request("10.0.0.1"));
+
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertEquals("application/problem+json", response.getContentType());
+        assertEquals("{\"type\":\"urn:user-crud:problem:rate-limited\",\"title\":\"Too many requests\","
+                + "\"status\":429,\"detail\":\"Rate limit exceeded.\"}", response.getContentAsString());
+        assertEquals(200, serve(filter, request("10.0.0.2")).getStatus());
+    }
+
+    /**
+     * Tests that clients are told apart by the configured header when it is present, and by their remote address
+     * otherwise.
+     */
+    @Test
+    void testDoFilter_ClientHeader() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new ClientRateLimiter(0.5, 1, 100), "X-Api-Key");
+
+        assertEquals(200, serve(filter, request("10.0.0.1", "a")).getStatus());
+        assertEquals(200, serve(filter, request("10.0.0.1", "b")).getStatus());
+        assertEquals(429, serve(filter, request("10.0.0.2", "a")).getStatus());
+        assertEquals(200, serve(filter, request("10.0.0.1")).getStatus());
+    }
+
+    /**
+     * Tests that a client header holding a list, such as X-Forwarded-For, identifies the client by its last entry,
+     * so that the entries a client sends itself cannot give it a fresh bucket.
+     */
+    @Test
+    void testDoFilter_ForwardedForHeader() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new ClientRateLimiter(0.5, 1, 100), "X-Forwarded-For");
+
+        assertEquals(200, serve(filter, forwarded("203.0.113.7")).getStatus());
+        assertEquals(429, serve(filter, forwarded("198.51.100.1, 203.0.113.7")).getStatus());
+        assertEquals(200, serve(filter, forwarded("203.0.113.7, 203.0.113.8")).getStatus());
+    }
+
+    /**
+     * Tests that requests outside /api/users and requests with rate limiting turned off are not limited.
+     */
+    @Test
+    void testDoFilter_NotLimited() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new ClientRateLimiter(1, 1, 100), "");
+        RateLimitFilter disabled = new RateLimitFilter(null, "");
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = request("10.0.0.1");
+            request.setRequestURI("/actuator/health");
+
+            assertEquals(200, serve(filter, request).getStatus());
+            assertEquals(200, serve(disabled, request("10.0.0.1")).getStatus());
+        }
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String apiKey) {
+        MockHttpServletRequest request = request(remoteAddress);
+        request.addHeader("X-Api-Key", apiKey);
+        return request;
+    }
+
+    private static MockHttpServletRequest forwarded(String forwardedFor) {
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+
+    private static MockHttpServletResponse serve(RateLimitFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
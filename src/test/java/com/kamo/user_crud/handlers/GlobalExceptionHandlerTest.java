@@ -3,6 +3,7 @@ package com.kamo.user_crud.handlers;
 import com.kamo.user_crud.controllers.UserController;
 import com.kamo.user_crud.entities.User;
 import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.ResourceNotFoundException;
 import com.kamo.user_crud.services.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +14,10 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
@@ -50,9 +53,78 @@ public class GlobalExceptionHandlerTest {
                 .andDo(print())
                 // Expect a 500 Internal Server Error status
                 .andExpect(status().isInternalServerError())
-                // Expect a specific error message in the response
-                .andExpect(jsonPath("$.message").value("Failed to create user"))
-                // Expect the detailed error message in the response
-                .andExpect(jsonPath("$.error").value("Internal server error"));
+                // Expect problem details in the response
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("urn:user-crud:problem:data-access-failure"))
+                .andExpect(jsonPath("$.title").value("Data access failure"))
+                .andExpect(jsonPath("$.status").value(500))
+                // Expect a fixed detail rather than the message of the exception
+                .andExpect(jsonPath("$.detail").value("The users could not be read or written."));
+    }
+
+    /**
+     * Tests that a missing user is reported as problem details with a not found status.
+     *
+     * @throws Exception if any error occurs during the request
+     */
+    @Test
+    public void testHandleNotFound() throws Exception {
+        when(userService.getUser(1L)).thenThrow(new ResourceNotFoundException("User with ID '1' not found."));
+
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("urn:user-crud:problem:user-not-found"))
+                .andExpect(jsonPath("$.title").value("User not found"))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("User with ID '1' not found."));
+    }
+
+    /**
+     * Tests that an unexpected exception is reported as an internal server error without its message.
+     *
+     * @throws Exception if any error occurs during the request
+     */
+    @Test
+    public void testHandleUnexpectedException() throws Exception {
+        when(userService.getUser(1L)).thenThrow(new IllegalStateException("Connection pool closed"));
+
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.type").value("urn:user-crud:problem:internal-error"))
+                .andExpect(jsonPath("$.detail").value("An unexpected error occurred."));
+    }
+
+    /**
+     * Tests that an exception carrying its own HTTP status, such as an unsupported media type, keeps that status.
+     *
+     * @throws Exception if any error occurs during the request
+     */
+    @Test
+    public void testHandleErrorResponseException() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("John Doe"))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("about:blank"))
+                .andExpect(jsonPath("$.status").value(415));
+    }
+
+    /**
+     * Tests that a request body that is not valid JSON is reported with a bad request status, rather than as an
+     * internal server error.
+     *
+     * @throws Exception if any error occurs during the request
+     */
+    @Test
+    public void testHandleUnreadableBody() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\": \"John\""))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("about:blank"))
+                .andExpect(jsonPath("$.status").value(400));
     }
 }
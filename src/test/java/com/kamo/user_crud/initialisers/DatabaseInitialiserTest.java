@@ -1,19 +1,21 @@
 package com.kamo.user_crud.initialisers;
 
-import com.kamo.user_crud.entities.User;
-import com.kamo.user_crud.repositories.UserRepository;
+import com.kamo.user_crud.dtos.UserDataFormat;
+import com.kamo.user_crud.services.UserImportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.boot.test.context.SpringBootTest;
 
-import java.util.List;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.verify;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 /**
  * Test class for DatabaseInitializer.
@@ -22,10 +24,7 @@ import static org.mockito.Mockito.verify;
 public class DatabaseInitialiserTest {
 
     @Mock
-    private UserRepository userRepository;
-
-    @InjectMocks
-    private DatabaseInitialiser databaseInitialiser;
+    private UserImportService userImportService;
 
     /**
      * Initializes mocks before each test.
@@ -36,31 +35,53 @@ public class DatabaseInitialiserTest {
     }
 
     /**
-     * Tests the run method to ensure it saves the expected dummy users to the database.
+     * Tests the run method to ensure it imports the expected dummy users when no import file is configured.
      *
      * @throws Exception if any error occurs during the test
      */
     @Test
     public void testRun() throws Exception {
+        AtomicReference<String> seed = new AtomicReference<>();
+        when(userImportService.importUsers(any(InputStream.class), eq(UserDataFormat.CSV), eq(0L)))
+                .thenAnswer(invocation -> {
+                    InputStream in = invocation.getArgument(0);
+                    seed.set(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                    return null;
+                });
+
         // Execute the run method
-        databaseInitialiser.run();
+        new DatabaseInitialiser(userImportService, "", true).run();
 
-        // Capture the argument passed to the saveAll method
-        ArgumentCaptor<List<User>> userCaptor = ArgumentCaptor.forClass(List.class);
-        verify(userRepository).saveAll(userCaptor.capture());
+        // Verify the imported users
+        assertThat(seed.get().lines()).containsExactly(
+                "firstName,lastName,contactNumber",
+                "John,Doe,+27 123 456 789",
+                "Jane,Doe,+98 765 432 100");
+        verify(userImportService, never()).importUsers(any(Path.class));
+    }
 
-        // Verify the saved users
-        List<User> savedUsers = userCaptor.getValue();
-        assertThat(savedUsers).hasSize(2);
+    /**
+     * Tests the run method to ensure it imports the configured file instead of the dummy users.
+     *
+     * @throws Exception if any error occurs during the test
+     */
+    @Test
+    public void testRun_ImportFile() throws Exception {
+        new DatabaseInitialiser(userImportService, "/data/users.ndjson", false).run();
 
-        User user1 = savedUsers.get(0);
-        assertThat(user1.getFirstName()).isEqualTo("John");
-        assertThat(user1.getLastName()).isEqualTo("Doe");
-        assertThat(user1.getContactNumber()).isEqualTo("+27 123 456 789");
+        verify(userImportService).importUsers(Path.of("/data/users.ndjson"));
+        verify(userImportService, never()).importUsers(any(InputStream.class), any(), anyLong());
+    }
+
+    /**
+     * Tests the run method to ensure it imports nothing when no import file is configured and seeding is turned off.
+     *
+     * @throws Exception if any error occurs during the test
+     */
+    @Test
+    public void testRun_SeedDisabled() throws Exception {
+        new DatabaseInitialiser(userImportService, "", false).run();
 
-        User user2 = savedUsers.get(1);
-        assertThat(user2.getFirstName()).isEqualTo("Jane");
-        assertThat(user2.getLastName()).isEqualTo("Doe");
-        assertThat(user2.getContactNumber()).isEqualTo("+98 765 432 100");
+        verifyNoInteractions(userImportService);
     }
 }
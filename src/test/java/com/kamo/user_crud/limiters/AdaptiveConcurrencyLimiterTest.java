@@ -0,0 +1,120 @@
+package com.kamo.user_crud.limiters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AdaptiveConcurrencyLimiter class.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * Tests that requests beyond the limit are rejected until a request is released.
+     */
+    @Test
+    void testTryAcquire_RejectsBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(FAST, false);
+
+        assertTrue(limiter.tryAcquire());
+    }
+
+    /**
+     * Tests that fast requests raise the limit by about one for every limit requests, but only while at least half of
+     * it is in use.
+     */
+    @Test
+    void testRelease_FastRequestsIncreaseLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 10);
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limiter.tryAcquire());
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+        }
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    /**
+     * Tests that the limit does not grow while less than half of it is in use.
+     */
+    @Test
+    void testRelease_IdleDoesNotIncreaseLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 100);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, false);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    /**
+     * Tests that a slow or failed request lowers the limit, at most once per latency threshold.
+     */
+    @Test
+    void testRelease_SlowRequestsDecreaseLimitOncePerThreshold() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 1, 100);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.release(2 * THRESHOLD, false);
+        }
+
+        assertEquals(18, limiter.getLimit());
+
+        now.addAndGet(THRESHOLD);
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+
+        assertEquals(16, limiter.getLimit());
+    }
+
+    /**
+     * Tests that the limit stays between the minimum and the maximum.
+     */
+    @Test
+    void testRelease_LimitIsBounded() {
+        AdaptiveConcurrencyLimiter limiter = limiter(3, 2, 3);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+        }
+
+        assertEquals(3, limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            now.addAndGet(THRESHOLD);
+            limiter.tryAcquire();
+            limiter.release(FAST, true);
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, THRESHOLD, 0.9, now::get);
+    }
+}
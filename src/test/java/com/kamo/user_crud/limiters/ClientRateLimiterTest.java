@@ -0,0 +1,109 @@
+package com.kamo.user_crud.limiters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ClientRateLimiter class.
+ */
+class ClientRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+
+    /**
+     * Tests that a client may make up to the burst size of requests at once, and is then told how long to wait.
+     */
+    @Test
+    void testTryAcquire_Burst() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(SECOND / 10, limiter.tryAcquire("a"));
+    }
+
+    /**
+     * Tests that tokens are refilled at the configured rate.
+     */
+    @Test
+    void testTryAcquire_Refill() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 1, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        now.addAndGet(SECOND / 20);
+        assertEquals(SECOND / 20, limiter.tryAcquire("a"));
+        now.addAndGet(SECOND / 20);
+        assertEquals(0, limiter.tryAcquire("a"));
+    }
+
+    /**
+     * Tests that an idle client accumulates no more than the burst size of tokens.
+     */
+    @Test
+    void testTryAcquire_IdleClientIsCappedAtBurst() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 2, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        now.addAndGet(60 * SECOND);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    /**
+     * Tests that every client has a bucket of its own.
+     */
+    @Test
+    void testTryAcquire_ClientsAreIndependent() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+        assertEquals(2, limiter.getClientCount());
+    }
+
+    /**
+     * Tests that concurrent requests of one client are admitted exactly up to the burst size.
+     */
+    @Test
+    void testTryAcquire_Concurrent() throws InterruptedException {
+        ClientRateLimiter limiter = new ClientRateLimiter(0.001, 1000, 100, now::get);
+        AtomicLong admitted = new AtomicLong();
+        Thread[] threads = new Thread[4];
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    if (limiter.tryAcquire("a") == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, admitted.get());
+    }
+
+    /**
+     * Tests that a rate or burst that would admit nothing is rejected.
+     */
+    @Test
+    void testConstructor_InvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientRateLimiter(0, 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> new ClientRateLimiter(1, 0, 100));
+    }
+}
@@ -0,0 +1,84 @@
+package com.kamo.user_crud.metrics;
+
+import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
+import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.exceptions.ResourceVersionMismatchException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the UserOperationMetrics class.
+ */
+class UserOperationMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final UserOperationMetrics metrics = new UserOperationMetrics(registry);
+
+    /**
+     * Tests that a successful operation returns its result and is recorded with the success outcome.
+     */
+    @Test
+    void testRecord_Success() {
+        String result = metrics.record("get", () -> "user");
+
+        assertEquals("user", result);
+        assertEquals(1, timer("get", UserOperationMetrics.SUCCESS).count());
+    }
+
+    /**
+     * Tests that a failed operation rethrows its exception and is recorded with the matching outcome.
+     */
+    @Test
+    void testRecord_Failures() {
+        assertThrows(ResourceNotFoundException.class, () -> metrics.record("get", () -> {
+            throw new ResourceNotFoundException("User not found");
+        }));
+        assertThrows(InvalidResourceArgumentException.class, () -> metrics.record("add", () -> {
+            throw new InvalidResourceArgumentException("Invalid phone number format for user.");
+        }));
+        assertThrows(ResourceAlreadyExistsException.class, () -> metrics.record("add", () -> {
+            throw new ResourceAlreadyExistsException("User already exists");
+        }));
+        assertThrows(ResourceVersionMismatchException.class, () -> metrics.record("update", () -> {
+            throw new ResourceVersionMismatchException("User with ID 1 has been modified.");
+        }));
+        assertThrows(DataAccessFailureException.class, () -> metrics.record("delete", () -> {
+            throw new DataAccessFailureException("Connection refused");
+        }));
+        assertThrows(IllegalStateException.class, () -> metrics.record("delete", () -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(1, timer("get", UserOperationMetrics.NOT_FOUND).count());
+        assertEquals(1, timer("add", UserOperationMetrics.INVALID).count());
+        assertEquals(1, timer("add", UserOperationMetrics.DUPLICATE).count());
+        assertEquals(1, timer("update", UserOperationMetrics.VERSION_MISMATCH).count());
+        assertEquals(1, timer("delete", UserOperationMetrics.DATA_ERROR).count());
+        assertEquals(1, timer("delete", UserOperationMetrics.ERROR).count());
+    }
+
+    /**
+     * Tests that repeated operations with the same outcome share one timer.
+     */
+    @Test
+    void testRecord_ReusesTimer() {
+        metrics.record("get", () -> "user");
+        metrics.record("get", () -> "user");
+
+        assertEquals(1, registry.find(UserOperationMetrics.METRIC_NAME).timers().size());
+        assertEquals(2, timer("get", UserOperationMetrics.SUCCESS).count());
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return registry.get(UserOperationMetrics.METRIC_NAME)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
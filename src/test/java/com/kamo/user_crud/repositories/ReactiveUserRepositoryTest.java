@@ -0,0 +1,250 @@
+package com.kamo.user_crud.repositories;
+
+import com.kamo.user_crud.dtos.UserPatch;
+import com.kamo.user_crud.entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the ReactiveUserRepository.
+ * This class runs the repository against the reactive schema on an in-memory H2 database over R2DBC.
+ */
+@ActiveProfiles("reactive")
+@DataR2dbcTest
+@Import(ReactiveUserRepository.class)
+class ReactiveUserRepositoryTest {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private R2dbcEntityTemplate template;
+
+    /**
+     * Sets up the test environment by removing the dummy entries before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        template.delete(User.class).all().block();
+    }
+
+    /**
+     * Tests that inserting a user generates its ID and that it can be found again by that ID.
+     */
+    @Test
+    void testInsertAndFindById() {
+        // Arrange
+        User user = insert("John", "Doe", "+27 123 456 789");
+
+        // Act
+        User found = userRepository.findById(user.getUserId()).block();
+
+        // Assert
+        assertNotNull(user.getUserId());
+        assertNotNull(found);
+        assertEquals("John", found.getFirstName());
+        assertEquals("27123456789", found.getNormalizedContactNumber());
+    }
+
+    /**
+     * Tests that a second user with the same first name and last name is rejected by the unique constraint.
+     */
+    @Test
+    void testInsert_DuplicateName() {
+        // Arrange
+        insert("John", "Doe", "1234567890");
+        User duplicate = new User("John", "Doe", "0987654321");
+        duplicate.normalize();
+
+        // Act & Assert
+        StepVerifier.create(userRepository.insert(duplicate))
+                .verifyError(DataIntegrityViolationException.class);
+    }
+
+    /**
+     * Tests that users are found by their normalized contact number.
+     */
+    @Test
+    void testFindByNormalizedContactNumber() {
+        // Arrange
+        insert("John", "Doe", "+27 123 456 789");
+        insert("Jane", "Doe", "0987654321");
+
+        // Act
+        List<User> users = userRepository.findByNormalizedContactNumber("27123456789").collectList().block();
+
+        // Assert
+        assertEquals(1, users.size());
+        assertEquals("John", users.get(0).getFirstName());
+    }
+
+    /**
+     * Tests that listing after an ID returns the following users in ID order, up to the limit.
+     */
+    @Test
+    void testFindByUserIdGreaterThan() {
+        // Arrange
+        User first = insert("A", "A", "1234567");
+        User second = insert("B", "B", "1234567");
+        insert("C", "C", "1234567");
+
+        // Act
+        List<User> users = userRepository.findByUserIdGreaterThan(first.getUserId(), 1).collectList().block();
+
+        // Assert
+        assertEquals(List.of(second.getUserId()), users.stream().map(User::getUserId).toList());
+    }
+
+    /**
+     * Tests that streaming emits the users only as they are requested.
+     */
+    @Test
+    void testStreamByUserIdGreaterThan() {
+        // Arrange
+        insert("A", "A", "1234567");
+        insert("B", "B", "1234567");
+        insert("C", "C", "1234567");
+
+        // Act & Assert
+        StepVerifier.create(userRepository.streamByUserIdGreaterThan(0L), 1)
+                .assertNext(user -> assertEquals("A", user.getFirstName()))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests that name prefix searches ignore case and treat LIKE wildcards literally.
+     */
+    @Test
+    void testFindByNameLowerStartingWith() {
+        // Arrange
+        insert("John", "Doe", "1234567");
+        insert("Amy", "Jones", "1234567");
+        insert("J_ck", "Smith", "1234567");
+
+        // Act
+        List<User> firstNameMatches = userRepository.findByFirstNameLowerStartingWith("jo", 0L, 10)
+                .collectList().block();
+        List<User> lastNameMatches = userRepository.findByLastNameLowerStartingWith("jo", 0L, 10)
+                .collectList().block();
+        List<User> wildcardMatches = userRepository.findByFirstNameLowerStartingWith("j_", 0L, 10)
+                .collectList().block();
+
+        // Assert
+        assertEquals(List.of("John"), firstNameMatches.stream().map(User::getFirstName).toList());
+        assertEquals(List.of("Amy"), lastNameMatches.stream().map(User::getFirstName).toList());
+        assertEquals(List.of("J_ck"), wildcardMatches.stream().map(User::getFirstName).toList());
+    }
+
+    /**
+     * Tests that updating by ID changes the user and reports the number of updated rows.
+     */
+    @Test
+    void testUpdateByUserId() {
+        // Arrange
+        User user = insert("John", "Doe", "1234567890");
+        User update = new User("Johnny", "Doe", "+1 555 123 4567");
+        update.normalize();
+
+        // Act
+        Long updated = userRepository.updateByUserId(user.getUserId(), update).block();
+        Long missing = userRepository.updateByUserId(user.getUserId() + 1000, update).block();
+
+        // Assert
+        User found = userRepository.findById(user.getUserId()).block();
+        assertEquals(1L, updated);
+        assertEquals(0L, missing);
+        assertEquals("johnny", found.getFirstNameLower());
+        assertEquals("15551234567", found.getNormalizedContactNumber());
+    }
+
+    /**
+     * Tests that deleting by ID removes the user and reports the number of deleted rows.
+     */
+    @Test
+    void testDeleteByUserId() {
+        // Arrange
+        User user = insert("John", "Doe", "1234567890");
+
+        // Act
+        Long deleted = userRepository.deleteByUserId(user.getUserId()).block();
+        Long missing = userRepository.deleteByUserId(user.getUserId()).block();
+
+        // Assert
+        assertEquals(1L, deleted);
+        assertEquals(0L, missing);
+        assertNull(userRepository.findById(user.getUserId()).block());
+    }
+
+    /**
+     * Tests that a new user starts at version 0, that every update increments the version, and that conditional
+     * writes expecting another version change nothing.
+     */
+    @Test
+    void testVersionedWrites() {
+        // Arrange
+        User user = insert("John", "Doe", "1234567890");
+        User update = new User("Johnny", "Doe", "1234567890");
+        update.normalize();
+
+        // Act
+        Long updated = userRepository.updateByUserIdAndVersion(user.getUserId(), 0L, update).block();
+        Long stale = userRepository.updateByUserIdAndVersion(user.getUserId(), 0L, update).block();
+        Long unconditional = userRepository.updateByUserId(user.getUserId(), update).block();
+        Long staleDelete = userRepository.deleteByUserIdAndVersion(user.getUserId(), 1L).block();
+
+        // Assert
+        assertEquals(0L, user.getVersion());
+        assertEquals(1L, updated);
+        assertEquals(0L, stale);
+        assertEquals(1L, unconditional);
+        assertEquals(0L, staleDelete);
+        assertEquals(2L, userRepository.findById(user.getUserId()).block().getVersion());
+        assertTrue(userRepository.existsById(user.getUserId()).block());
+        assertEquals(1L, userRepository.deleteByUserIdAndVersion(user.getUserId(), 2L).block());
+        assertFalse(userRepository.existsById(user.getUserId()).block());
+    }
+
+    /**
+     * Tests that a patch changes only the patched column and its derived column, and increments the version.
+     */
+    @Test
+    void testPatchByUserId() {
+        // Arrange
+        User user = insert("John", "Doe", "1234567890");
+
+        // Act
+        Long patched = userRepository.patchByUserId(user.getUserId(),
+                UserPatch.of(Map.of("contactNumber", "+27 123 456 789"))).block();
+        Long stale = userRepository.patchByUserIdAndVersion(user.getUserId(), 0L,
+                UserPatch.of(Map.of("firstName", "Johnny"))).block();
+
+        // Assert
+        User found = userRepository.findById(user.getUserId()).block();
+        assertEquals(1L, patched);
+        assertEquals(0L, stale);
+        assertEquals("John", found.getFirstName());
+        assertEquals("+27 123 456 789", found.getContactNumber());
+        assertEquals("27123456789", found.getNormalizedContactNumber());
+        assertEquals(1L, found.getVersion());
+    }
+
+    private User insert(String firstName, String lastName, String contactNumber) {
+        User user = new User(firstName, lastName, contactNumber);
+        user.normalize();
+        return userRepository.insert(user).block();
+    }
+}
@@ -0,0 +1,91 @@
+package com.kamo.user_crud.repositories;
+
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.entities.UserChangeEvent;
+import com.kamo.user_crud.entities.UserChangeEvent.Type;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the schema migrations in db/migration.
+ * This class applies the migrations to an empty database and starts Hibernate with schema validation against them,
+ * as the prod profile does, so the context only loads if the migrated schema matches the entities.
+ */
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeEventRepository userChangeEventRepository;
+
+    /**
+     * Tests that every migration has been applied, in version order.
+     */
+    @Test
+    void testMigrationsApplied() {
+        // Act
+        MigrationInfo[] applied = flyway.info().applied();
+
+        // Assert
+        assertEquals(List.of("1", "2", "3"),
+                Arrays.stream(applied).map(info -> info.getVersion().getVersion()).toList());
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    /**
+     * Tests that users and change events can be written to and read back from the migrated tables.
+     */
+    @Test
+    void testSaveAndFind() {
+        // Arrange
+        User user = userRepository.saveAndFlush(new User("John", "Doe", "+27 123 456 789"));
+        UserChangeEvent event = new UserChangeEvent(user.getUserId(), Type.CREATED, user.getVersion(), "{}");
+
+        // Act
+        userChangeEventRepository.saveAndFlush(event);
+
+        // Assert
+        List<User> found = userRepository.findByUserIdIn(List.of(user.getUserId()));
+        assertEquals("27123456789", found.get(0).getNormalizedContactNumber());
+        assertEquals(1, userChangeEventRepository.findByPositionIsNullOrderByEventIdAsc(
+                Limit.of(10)).size());
+    }
+
+    /**
+     * Tests that the migrated table enforces the unique constraint on the first name and last name.
+     */
+    @Test
+    void testUniqueNameConstraint() {
+        // Arrange
+        userRepository.saveAndFlush(new User("John", "Doe", "+27 123 456 789"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(new User("John", "Doe", "+98 765 432 100")));
+    }
+}
@@ -0,0 +1,101 @@
+package com.kamo.user_crud.repositories;
+
+import com.kamo.user_crud.entities.UserChangeEvent;
+import com.kamo.user_crud.entities.UserChangeEvent.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the UserChangeEventRepository.
+ * This class contains unit tests for the queries the change stream is served from.
+ */
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+class UserChangeEventRepositoryTest {
+
+    @Autowired
+    private UserChangeEventRepository userChangeEventRepository;
+
+    /**
+     * Sets up the test environment by clearing the repository before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        userChangeEventRepository.deleteAll();
+    }
+
+    /**
+     * Tests that the undispatched events are returned in the order they were written, up to the limit.
+     */
+    @Test
+    void testFindByPositionIsNullOrderByEventIdAsc() {
+        // Arrange
+        UserChangeEvent dispatched = event(1L, Type.CREATED);
+        dispatched.setPosition(1L);
+        userChangeEventRepository.save(dispatched);
+        UserChangeEvent first = userChangeEventRepository.save(event(2L, Type.CREATED));
+        UserChangeEvent second = userChangeEventRepository.save(event(2L, Type.PATCHED));
+        userChangeEventRepository.save(event(2L, Type.DELETED));
+
+        // Act
+        List<UserChangeEvent> events = userChangeEventRepository.findByPositionIsNullOrderByEventIdAsc(Limit.of(2));
+
+        // Assert
+        assertEquals(List.of(first.getEventId(), second.getEventId()),
+                events.stream().map(UserChangeEvent::getEventId).toList());
+    }
+
+    /**
+     * Tests that the dispatched events after a position are returned in position order, and that the greatest
+     * position is found.
+     */
+    @Test
+    void testFindByPositionGreaterThanOrderByPositionAsc() {
+        // Arrange
+        for (long position = 3; position >= 1; position--) {
+            UserChangeEvent event = event(position, Type.UPDATED);
+            event.setPosition(position);
+            userChangeEventRepository.save(event);
+        }
+        userChangeEventRepository.save(event(4L, Type.CREATED));
+
+        // Act
+        List<UserChangeEvent> events = userChangeEventRepository.findByPositionGreaterThanOrderByPositionAsc(
+                1L, Limit.of(10));
+        Long maxPosition = userChangeEventRepository.findMaxPosition();
+
+        // Assert
+        assertEquals(List.of(2L, 3L), events.stream().map(UserChangeEvent::getPosition).toList());
+        assertEquals(3L, maxPosition);
+    }
+
+    /**
+     * Tests that there is no greatest position before any event has been dispatched.
+     */
+    @Test
+    void testFindMaxPosition_NoneDispatched() {
+        // Arrange
+        userChangeEventRepository.save(event(1L, Type.CREATED));
+
+        // Act
+        Long maxPosition = userChangeEventRepository.findMaxPosition();
+
+        // Assert
+        assertNull(maxPosition);
+    }
+
+    private static UserChangeEvent event(Long userId, Type type) {
+        return new UserChangeEvent(userId, type, 0L, "{\"userId\":" + userId + "}");
+    }
+}
@@ -1,5 +1,6 @@
 package com.kamo.user_crud.repositories;
 
+import com.kamo.user_crud.dtos.UserPatch;
 import com.kamo.user_crud.entities.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,10 +8,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -94,7 +100,7 @@ class UserRepositoryTest {
         User savedUser = userRepository.save(user);
 
         // Act
-        Optional<User> foundUser = userRepository.findById(savedUser.getUserId().toString());
+        Optional<User> foundUser = userRepository.findById(savedUser.getUserId());
 
         // Assert
         assertTrue(foundUser.isPresent());
@@ -109,7 +115,7 @@ class UserRepositoryTest {
     @Test
     void testFindById_UserDoesNotExist() {
         // Act
-        Optional<User> foundUser = userRepository.findById("999999999");
+        Optional<User> foundUser = userRepository.findById(999999999L);
 
         // Assert
         assertFalse(foundUser.isPresent());
@@ -126,11 +132,279 @@ class UserRepositoryTest {
         User savedUser = userRepository.save(user);
 
         // Act
-        userRepository.deleteById(savedUser.getUserId().toString());
-        Optional<User> foundUser = userRepository.findById(savedUser.getUserId().toString());
+        userRepository.deleteById(savedUser.getUserId());
+        Optional<User> foundUser = userRepository.findById(savedUser.getUserId());
 
         // Assert
         assertFalse(foundUser.isPresent());
     }
-}
 
+    /**
+     * Tests the keyset pagination query.
+     * This test verifies that findByUserIdGreaterThanOrderByUserIdAsc returns the users after the given ID in order.
+     */
+    @Test
+    void testFindByUserIdGreaterThanOrderByUserIdAsc() {
+        // Arrange
+        User first = userRepository.save(new User("Dave", "Jones", "1234567890"));
+        User second = userRepository.save(new User("Eve", "Adams", "0987654321"));
+        User third = userRepository.save(new User("Frank", "Miller", "1122334455"));
+
+        // Act
+        List<User> page = userRepository.findByUserIdGreaterThanOrderByUserIdAsc(first.getUserId(), Limit.of(1));
+        List<User> rest = userRepository.findByUserIdGreaterThanOrderByUserIdAsc(second.getUserId(), Limit.of(10));
+
+        // Assert
+        assertEquals(1, page.size());
+        assertEquals(second.getUserId(), page.get(0).getUserId());
+        assertEquals(List.of(third.getUserId()), rest.stream().map(User::getUserId).toList());
+    }
+
+    /**
+     * Tests the set-based lookup by first names and last names.
+     * This test verifies that findByFirstNameInAndLastNameIn returns every user matching both name sets.
+     */
+    @Test
+    void testFindByFirstNameInAndLastNameIn() {
+        // Arrange
+        userRepository.save(new User("John", "Doe", "1234567890"));
+        userRepository.save(new User("Jane", "Smith", "0987654321"));
+        userRepository.save(new User("Bob", "Doe", "1122334455"));
+
+        // Act
+        List<User> users =
+                userRepository.findByFirstNameInAndLastNameIn(List.of("John", "Jane"), List.of("Doe", "Smith"));
+
+        // Assert
+        assertEquals(2, users.size());
+    }
+
+    /**
+     * Tests the existence check and bulk deletion by IDs.
+     * This test verifies that only the existing IDs are reported and deleted.
+     */
+    @Test
+    void testFindExistingUserIdsAndDeleteByUserIdIn() {
+        // Arrange
+        User first = userRepository.save(new User("Grace", "Hopper", "1234567890"));
+        User second = userRepository.save(new User("Alan", "Turing", "0987654321"));
+
+        // Act
+        List<Long> existing = userRepository.findExistingUserIds(List.of(first.getUserId(), second.getUserId(), -1L));
+        int deleted = userRepository.deleteByUserIdIn(List.of(first.getUserId()));
+
+        // Assert
+        assertEquals(2, existing.size());
+        assertEquals(1, deleted);
+        assertEquals(List.of(second.getUserId()),
+                userRepository.findByUserIdIn(existing).stream().map(User::getUserId).toList());
+    }
+
+    /**
+     * Tests the unique constraint on first name and last name.
+     * This test verifies that saving a second user with the same names is rejected by the database.
+     */
+    @Test
+    void testSaveUser_DuplicateName() {
+        // Arrange
+        userRepository.saveAndFlush(new User("John", "Doe", "1234567890"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(new User("John", "Doe", "0987654321")));
+    }
+
+    /**
+     * Tests the single-statement update by ID.
+     * This test verifies that updateByUserId reports the affected row count and writes the new values.
+     */
+    @Test
+    void testUpdateByUserId() {
+        // Arrange
+        User savedUser = userRepository.save(new User("Henry", "Ford", "1234567890"));
+
+        User update = new User("Henry", "Fonda", "0987654321");
+        update.normalize();
+
+        // Act
+        int updated = userRepository.updateByUserId(savedUser.getUserId(), update);
+        int missing = userRepository.updateByUserId(-1L, update);
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(0, missing);
+        assertEquals(1L, userRepository.findVersionByUserId(savedUser.getUserId()));
+        assertNull(userRepository.findVersionByUserId(-1L));
+        assertTrue(userRepository.existsByFirstNameAndLastName("Henry", "Fonda"));
+        assertEquals(List.of(savedUser.getUserId()), userRepository
+                .findByLastNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc("fonda", 0L, Limit.of(10))
+                .stream().map(User::getUserId).toList());
+    }
+
+    /**
+     * Tests the conditional update by ID and version.
+     * This test verifies that a new user starts at version 0, that every update increments the version, and that an
+     * update expecting another version changes nothing.
+     */
+    @Test
+    void testUpdateByUserIdAndVersion() {
+        // Arrange
+        User savedUser = userRepository.save(new User("Grace", "Hopper", "1234567890"));
+
+        User update = new User("Grace", "Murray", "0987654321");
+        update.normalize();
+
+        // Act
+        int updated = userRepository.updateByUserIdAndVersion(savedUser.getUserId(), 0L, update);
+        int stale = userRepository.updateByUserIdAndVersion(savedUser.getUserId(), 0L, update);
+        int unconditional = userRepository.updateByUserId(savedUser.getUserId(), update);
+        int current = userRepository.updateByUserIdAndVersion(savedUser.getUserId(), 2L, update);
+
+        // Assert
+        assertEquals(0L, savedUser.getVersion());
+        assertEquals(1, updated);
+        assertEquals(0, stale);
+        assertEquals(1, unconditional);
+        assertEquals(1, current);
+    }
+
+    /**
+     * Tests the conditional delete by ID and version.
+     * This test verifies that a delete expecting another version leaves the user in place.
+     */
+    @Test
+    void testDeleteByUserIdAndVersion() {
+        // Arrange
+        User savedUser = userRepository.save(new User("Alan", "Turing", "1234567890"));
+
+        // Act
+        int stale = userRepository.deleteByUserIdAndVersion(savedUser.getUserId(), 1L);
+        int deleted = userRepository.deleteByUserIdAndVersion(savedUser.getUserId(), 0L);
+
+        // Assert
+        assertEquals(0, stale);
+        assertEquals(1, deleted);
+    }
+
+    /**
+     * Tests the partial update by ID.
+     * This test verifies that only the patched column and its derived column change, and that the version is
+     * incremented.
+     */
+    @Test
+    void testPatchByUserId() {
+        // Arrange
+        User savedUser = userRepository.save(new User("Ada", "Lovelace", "1234567890"));
+
+        // Act
+        int patched = userRepository.patchByUserId(savedUser.getUserId(),
+                UserPatch.of(Map.of("contactNumber", "+27 123 456 789")));
+        int missing = userRepository.patchByUserId(-1L, UserPatch.of(Map.of("contactNumber", "+27 123 456 789")));
+        int stale = userRepository.patchByUserIdAndVersion(savedUser.getUserId(), 0L,
+                UserPatch.of(Map.of("firstName", "Augusta")));
+
+        // Assert
+        assertEquals(1, patched);
+        assertEquals(0, missing);
+        assertEquals(0, stale);
+        assertTrue(userRepository.existsByFirstNameAndLastName("Ada", "Lovelace"));
+        assertEquals(List.of(savedUser.getUserId()), userRepository.findByNormalizedContactNumber("27123456789")
+                .stream().map(User::getUserId).toList());
+    }
+
+    /**
+     * Tests the single-statement delete by ID.
+     * This test verifies that deleteByUserId reports the affected row count.
+     */
+    @Test
+    void testDeleteByUserId() {
+        // Arrange
+        User savedUser = userRepository.save(new User("Ivy", "Lee", "1234567890"));
+
+        // Act
+        int deleted = userRepository.deleteByUserId(savedUser.getUserId());
+        int missing = userRepository.deleteByUserId(savedUser.getUserId());
+
+        // Assert
+        assertEquals(1, deleted);
+        assertEquals(0, missing);
+    }
+
+    /**
+     * Tests the lookup by normalized contact number.
+     * This test verifies that the normalized contact number is derived on save and used for equality lookups.
+     */
+    @Test
+    void testFindByNormalizedContactNumber() {
+        // Arrange
+        User savedUser = userRepository.saveAndFlush(new User("Jack", "Black", "+27 (123) 456-789"));
+        userRepository.saveAndFlush(new User("Jill", "White", "0987654321"));
+
+        // Act
+        List<User> users = userRepository.findByNormalizedContactNumber("27123456789");
+
+        // Assert
+        assertEquals("27123456789", savedUser.getNormalizedContactNumber());
+        assertEquals(List.of(savedUser.getUserId()), users.stream().map(User::getUserId).toList());
+    }
+
+    /**
+     * Tests the case-insensitive prefix search on first names.
+     * This test verifies that the lower-case column is matched by prefix and that wildcards in the prefix are literal.
+     */
+    @Test
+    void testFindByFirstNameLowerStartingWith() {
+        // Arrange
+        User johnny = userRepository.saveAndFlush(new User("Johnny", "Cash", "1234567890"));
+        User john = userRepository.saveAndFlush(new User("JOHN", "Lennon", "0987654321"));
+        userRepository.saveAndFlush(new User("Paul", "Johnson", "1122334455"));
+
+        // Act
+        List<User> users = userRepository
+                .findByFirstNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc("joh", 0L, Limit.of(10));
+        List<User> wildcard = userRepository
+                .findByFirstNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc("j%", 0L, Limit.of(10));
+
+        // Assert
+        assertEquals(List.of(johnny.getUserId(), john.getUserId()), users.stream().map(User::getUserId).toList());
+        assertTrue(wildcard.isEmpty());
+    }
+
+    /**
+     * Tests that streaming users returns every user in ascending ID order.
+     */
+    @Test
+    void testStreamAllByOrderByUserIdAsc() {
+        // Arrange
+        User john = userRepository.save(new User("John", "Doe", "1234567890"));
+        User jane = userRepository.save(new User("Jane", "Doe", "0987654321"));
+
+        // Act
+        List<Long> userIds;
+        try (Stream<User> users = userRepository.streamAllByOrderByUserIdAsc()) {
+            userIds = users.map(User::getUserId).toList();
+        }
+
+        // Assert
+        assertEquals(List.of(john.getUserId(), jane.getUserId()), userIds);
+    }
+
+    /**
+     * Tests that streaming names returns the first name and last name of every user.
+     */
+    @Test
+    void testStreamAllNames() {
+        // Arrange
+        userRepository.save(new User("John", "Doe", "1234567890"));
+        userRepository.save(new User("Jane", "Doe", "0987654321"));
+
+        // Act
+        List<String> names;
+        try (Stream<Object[]> rows = userRepository.streamAllNames()) {
+            names = rows.map(row -> row[0] + " " + row[1]).sorted().toList();
+        }
+
+        // Assert
+        assertEquals(List.of("Jane Doe", "John Doe"), names);
+    }
+}
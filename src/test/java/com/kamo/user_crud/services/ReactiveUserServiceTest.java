@@ -0,0 +1,374 @@
+package com.kamo.user_crud.services;
+
+import com.kamo.user_crud.dtos.UserPatch;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
+import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.exceptions.ResourceVersionMismatchException;
+import com.kamo.user_crud.repositories.ReactiveUserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ReactiveUserService class.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest {
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @InjectMocks
+    private ReactiveUserService userService;
+
+    /**
+     * Tests the addUser method when a user is successfully added, including the derived columns.
+     */
+    @Test
+    void testAddUser_Success() {
+        User user = new User("John", "Doe", "+27 123 456 789");
+
+        when(userRepository.insert(any(User.class))).thenAnswer(invocation -> {
+            User inserted = invocation.getArgument(0);
+            inserted.setUserId(1L);
+            return Mono.just(inserted);
+        });
+
+        StepVerifier.create(userService.addUser(user))
+                .assertNext(result -> {
+                    assertEquals(1L, result.getUserId());
+                    assertEquals("27123456789", result.getNormalizedContactNumber());
+                    assertEquals("john", result.getFirstNameLower());
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * Tests the addUser method when an invalid phone number is provided.
+     */
+    @Test
+    void testAddUser_InvalidPhoneNumber() {
+        User user = new User("John", "Doe", "invalid");
+
+        StepVerifier.create(userService.addUser(user))
+                .verifyError(InvalidResourceArgumentException.class);
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the addUser method when the unique constraint on first name and last name is violated.
+     */
+    @Test
+    void testAddUser_AlreadyExists() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userRepository.insert(any(User.class)))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("uk_user_first_name_last_name")));
+
+        StepVerifier.create(userService.addUser(user))
+                .verifyError(ResourceAlreadyExistsException.class);
+    }
+
+    /**
+     * Tests the addUser method when the database fails.
+     */
+    @Test
+    void testAddUser_DataAccessFailure() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userRepository.insert(any(User.class)))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("Connection refused")));
+
+        StepVerifier.create(userService.addUser(user))
+                .verifyErrorMatches(e -> e instanceof DataAccessFailureException
+                        && e.getMessage().equals("Connection refused"));
+    }
+
+    /**
+     * Tests the updateUser method when a user is successfully updated.
+     */
+    @Test
+    void testUpdateUser_Success() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userRepository.updateByUserId(eq(1L), any(User.class))).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(userService.updateUser(1L, user))
+                .assertNext(result -> {
+                    assertEquals(1L, result.getUserId());
+                    assertEquals("1234567890", result.getNormalizedContactNumber());
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * Tests the updateUser method when no user has the ID.
+     */
+    @Test
+    void testUpdateUser_NotFound() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userRepository.updateByUserId(eq(1L), any(User.class))).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(userService.updateUser(1L, user))
+                .verifyError(ResourceNotFoundException.class);
+    }
+
+    /**
+     * Tests the updateUser method when the new name is already taken.
+     */
+    @Test
+    void testUpdateUser_AlreadyExists() {
+        User user = new User("Jane", "Doe", "1234567890");
+
+        when(userRepository.updateByUserId(eq(1L), any(User.class)))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("uk_user_first_name_last_name")));
+
+        StepVerifier.create(userService.updateUser(1L, user))
+                .verifyError(ResourceAlreadyExistsException.class);
+    }
+
+    /**
+     * Tests the updateUser method with an expected version, which is incremented on success.
+     */
+    @Test
+    void testUpdateUser_ExpectedVersion() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userRepository.updateByUserIdAndVersion(eq(1L), eq(3L), any(User.class))).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(userService.updateUser(1L, user, 3L))
+                .assertNext(result -> assertEquals(4L, result.getVersion()))
+                .verifyComplete();
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    /**
+     * Tests the updateUser method when the user exists at another version than the expected one.
+     */
+    @Test
+    void testUpdateUser_VersionMismatch() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userRepository.updateByUserIdAndVersion(eq(1L), eq(3L), any(User.class))).thenReturn(Mono.just(0L));
+        when(userRepository.existsById(1L)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(userService.updateUser(1L, user, 3L))
+                .verifyError(ResourceVersionMismatchException.class);
+    }
+
+    /**
+     * Tests the deleteUser method with an expected version when the user does not exist.
+     */
+    @Test
+    void testDeleteUser_ExpectedVersionNotFound() {
+        when(userRepository.deleteByUserIdAndVersion(1L, 3L)).thenReturn(Mono.just(0L));
+        when(userRepository.existsById(1L)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(userService.deleteUser(1L, 3L))
+                .verifyErrorMessage("User with ID 1 not found.");
+    }
+
+    /**
+     * Tests the patchUser method, which writes only the changed attributes.
+     */
+    @Test
+    void testPatchUser_Success() {
+        when(userRepository.patchByUserId(1L, UserPatch.of(Map.of("contactNumber", "+27 123 456 789"))))
+                .thenReturn(Mono.just(1L));
+
+        StepVerifier.create(userService.patchUser(1L, Map.of("contactNumber", "+27 123 456 789"), null))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests the patchUser method with an attribute that cannot be patched.
+     */
+    @Test
+    void testPatchUser_ReadOnlyAttribute() {
+        StepVerifier.create(userService.patchUser(1L, Map.of("userId", "2"), null))
+                .verifyErrorMessage("Attribute 'userId' cannot be patched.");
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the getUser method when the user exists.
+     */
+    @Test
+    void testGetUser_Success() {
+        User user = new User("John", "Doe", "1234567890");
+        user.setUserId(1L);
+
+        when(userRepository.findById(1L)).thenReturn(Mono.just(user));
+
+        StepVerifier.create(userService.getUser(1L))
+                .expectNext(user)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests the getUser method when the user does not exist.
+     */
+    @Test
+    void testGetUser_NotFound() {
+        when(userRepository.findById(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.getUser(1L))
+                .verifyErrorMessage("User with ID 1 not found.");
+    }
+
+    /**
+     * Tests the deleteUser method when the user exists.
+     */
+    @Test
+    void testDeleteUser_Success() {
+        when(userRepository.deleteByUserId(1L)).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(userService.deleteUser(1L))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests the deleteUser method when the user does not exist.
+     */
+    @Test
+    void testDeleteUser_NotFound() {
+        when(userRepository.deleteByUserId(1L)).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(userService.deleteUser(1L))
+                .verifyError(ResourceNotFoundException.class);
+    }
+
+    /**
+     * Tests the findUsersByContactNumber method, which looks up the normalized number.
+     */
+    @Test
+    void testFindUsersByContactNumber() {
+        User user = new User("John", "Doe", "+27 123 456 789");
+
+        when(userRepository.findByNormalizedContactNumber("27123456789")).thenReturn(Flux.just(user));
+
+        StepVerifier.create(userService.findUsersByContactNumber("+27 (123) 456-789"))
+                .expectNext(user)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests the findUsersByContactNumber method with an invalid contact number.
+     */
+    @Test
+    void testFindUsersByContactNumber_Invalid() {
+        StepVerifier.create(userService.findUsersByContactNumber("invalid"))
+                .verifyError(InvalidResourceArgumentException.class);
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the listUsers method when another page follows, which is detected from one extra user.
+     */
+    @Test
+    void testListUsers_HasNextPage() {
+        when(userRepository.findByUserIdGreaterThan(0L, 3))
+                .thenReturn(Flux.just(user(1L, "A", "A"), user(2L, "B", "B"), user(3L, "C", "C")));
+
+        StepVerifier.create(userService.listUsers(null, 2))
+                .assertNext(page -> {
+                    assertEquals(2, page.data().size());
+                    assertEquals(UserPages.encodeCursor(2L), page.nextCursor());
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * Tests the listUsers method with an invalid page size.
+     */
+    @Test
+    void testListUsers_InvalidLimit() {
+        StepVerifier.create(userService.listUsers(null, 0))
+                .verifyError(InvalidResourceArgumentException.class);
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the streamUsers method, which streams the users after the continuation token without a page size.
+     */
+    @Test
+    void testStreamUsers() {
+        when(userRepository.streamByUserIdGreaterThan(1L))
+                .thenReturn(Flux.just(user(2L, "B", "B"), user(3L, "C", "C")));
+
+        StepVerifier.create(userService.streamUsers(UserPages.encodeCursor(1L)), 1)
+                .expectNextCount(1)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests the streamUsers method with an invalid continuation token.
+     */
+    @Test
+    void testStreamUsers_InvalidCursor() {
+        StepVerifier.create(userService.streamUsers("!"))
+                .verifyErrorMessage("Invalid continuation token.");
+        verify(userRepository, never()).streamByUserIdGreaterThan(anyLong());
+    }
+
+    /**
+     * Tests the searchUsers method, which merges the first name and last name matches by ID.
+     */
+    @Test
+    void testSearchUsers_MergesMatches() {
+        User john = user(1L, "John", "Doe");
+        User jodie = user(2L, "Jodie", "Jones");
+        User amy = user(3L, "Amy", "Jordan");
+
+        when(userRepository.findByFirstNameLowerStartingWith("jo", 0L, 21)).thenReturn(Flux.just(john, jodie));
+        when(userRepository.findByLastNameLowerStartingWith("jo", 0L, 21)).thenReturn(Flux.just(jodie, amy));
+
+        StepVerifier.create(userService.searchUsers(" Jo ", null, 20))
+                .assertNext(page -> {
+                    assertEquals(3, page.data().size());
+                    assertEquals(jodie, page.data().get(1));
+                    assertNull(page.nextCursor());
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * Tests the searchUsers method with an empty query.
+     */
+    @Test
+    void testSearchUsers_EmptyQuery() {
+        StepVerifier.create(userService.searchUsers(" ", null, 20))
+                .verifyErrorMessage("Search query must not be empty.");
+        verify(userRepository, never()).findByFirstNameLowerStartingWith(any(), anyLong(), anyInt());
+    }
+
+    private static User user(Long userId, String firstName, String lastName) {
+        User user = new User(firstName, lastName, "1234567890");
+        user.setUserId(userId);
+        return user;
+    }
+}
@@ -0,0 +1,360 @@
+package com.kamo.user_crud.services;
+
+import com.kamo.user_crud.caches.UserCache;
+import com.kamo.user_crud.caches.UserIdFilter;
+import com.kamo.user_crud.caches.UserNameIndex;
+import com.kamo.user_crud.dtos.BatchItemResult.Status;
+import com.kamo.user_crud.dtos.BatchResult;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.DataAccessFailureException;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the UserBatchService class.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserBatchServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private UserIdFilter userIdFilter;
+
+    @Mock
+    private UserNameIndex userNameIndex;
+
+    @Mock
+    private UserChangeLog userChangeLog;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private UserBatchService userBatchService;
+
+    /**
+     * Tests the addUsers method with a mix of valid, invalid and duplicate users.
+     * Verifies that only the valid users are saved and each item gets its own outcome.
+     */
+    @Test
+    void testAddUsers_PartialSuccess() throws InvalidResourceArgumentException, DataAccessFailureException {
+        User john = new User("John", "Doe", "1234567890");
+        User invalid = new User("Bad", "Number", "invalid");
+        User jane = new User("Jane", "Doe", "0987654321");
+        User janeAgain = new User("Jane", "Doe", "1122334455");
+        User existing = new User("Alice", "Smith", "5566778899");
+
+        when(userRepository.findByFirstNameInAndLastNameIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(new User("Alice", "Smith", "5566778899")));
+        when(userRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            List<User> saved = new ArrayList<>(invocation.getArgument(0));
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setUserId(100L + i);
+            }
+            return saved;
+        });
+
+        BatchResult result = userBatchService.addUsers(List.of(john, invalid, jane, janeAgain, existing));
+
+        assertEquals(2, result.succeeded());
+        assertEquals(3, result.failed());
+        assertEquals(Status.CREATED, result.results().get(0).status());
+        assertNotNull(result.results().get(0).userId());
+        assertEquals(Status.INVALID, result.results().get(1).status());
+        assertEquals(Status.CREATED, result.results().get(2).status());
+        assertEquals(Status.DUPLICATE, result.results().get(3).status());
+        assertEquals(Status.DUPLICATE, result.results().get(4).status());
+        verify(userRepository, times(1)).findByFirstNameInAndLastNameIn(anyCollection(), anyCollection());
+        verify(userRepository, times(1)).saveAllAndFlush(any());
+        verify(userChangeLog, times(1)).createdAll(argThat(users -> users.size() == 2
+                && users.containsAll(List.of(john, jane))));
+    }
+
+    /**
+     * Tests the addUsers method once the name index is loaded.
+     * Verifies that only the names the index holds are checked against the database, and that a name it holds but
+     * the database does not is removed from it.
+     */
+    @Test
+    void testAddUsers_NameIndexLoaded() throws InvalidResourceArgumentException, DataAccessFailureException {
+        User john = new User("John", "Doe", "1234567890");
+        User existing = new User("Alice", "Smith", "5566778899");
+        User stale = new User("Bob", "Jones", "0987654321");
+
+        when(userNameIndex.isLoaded()).thenReturn(true);
+        when(userNameIndex.contains("John", "Doe")).thenReturn(false);
+        when(userNameIndex.contains("Alice", "Smith")).thenReturn(true);
+        when(userNameIndex.contains("Bob", "Jones")).thenReturn(true);
+        when(userRepository.findByFirstNameInAndLastNameIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(new User("Alice", "Smith", "5566778899")));
+        when(userRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            List<User> saved = new ArrayList<>(invocation.getArgument(0));
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setUserId(100L + i);
+            }
+            return saved;
+        });
+
+        BatchResult result = userBatchService.addUsers(List.of(john, existing, stale));
+
+        assertEquals(Status.CREATED, result.results().get(0).status());
+        assertEquals(Status.DUPLICATE, result.results().get(1).status());
+        assertEquals(Status.CREATED, result.results().get(2).status());
+        verify(userRepository, times(1)).findByFirstNameInAndLastNameIn(
+                argThat(firstNames -> firstNames.size() == 2 && !firstNames.contains("John")), anyCollection());
+        verify(userNameIndex, times(1)).removeStale("Bob", "Jones");
+        verify(userNameIndex, times(1)).add("John", "Doe");
+        verify(userNameIndex, times(1)).add("Bob", "Jones");
+    }
+
+    /**
+     * Tests the addUsers method when the name index is loaded and holds none of the names.
+     * Verifies that the batch is written without a duplicate lookup.
+     */
+    @Test
+    void testAddUsers_NoNameIndexHits() throws InvalidResourceArgumentException, DataAccessFailureException {
+        when(userNameIndex.isLoaded()).thenReturn(true);
+        when(userRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            List<User> saved = new ArrayList<>(invocation.getArgument(0));
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setUserId(100L + i);
+            }
+            return saved;
+        });
+
+        BatchResult result = userBatchService.addUsers(List.of(new User("John", "Doe", "1234567890")));
+
+        assertEquals(1, result.succeeded());
+        verify(userRepository, never()).findByFirstNameInAndLastNameIn(anyCollection(), anyCollection());
+    }
+
+    /**
+     * Tests the addUsers method when a name missing from the loaded name index is already taken.
+     * Verifies that the write is retried without that user, who is reported as a duplicate, instead of failing the
+     * whole batch.
+     */
+    @Test
+    void testAddUsers_NameTakenOutsideIndex() throws InvalidResourceArgumentException, DataAccessFailureException {
+        User john = new User("John", "Doe", "1234567890");
+        User taken = new User("Alice", "Smith", "5566778899");
+
+        when(userNameIndex.isLoaded()).thenReturn(true);
+        when(userRepository.findByFirstNameInAndLastNameIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(new User("Alice", "Smith", "5566778899")));
+        when(userRepository.saveAllAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("uk_user_first_name_last_name"))
+                .thenAnswer(invocation -> {
+                    List<User> saved = new ArrayList<>(invocation.getArgument(0));
+                    for (int i = 0; i < saved.size(); i++) {
+                        saved.get(i).setUserId(100L + i);
+                    }
+                    return saved;
+                });
+
+        BatchResult result = userBatchService.addUsers(List.of(john, taken));
+
+        assertEquals(Status.CREATED, result.results().get(0).status());
+        assertEquals(Status.DUPLICATE, result.results().get(1).status());
+        verify(userRepository, times(2)).saveAllAndFlush(any());
+        verify(userRepository).saveAllAndFlush(List.of(john));
+        verify(userNameIndex, times(1)).add("Alice", "Smith");
+        verify(userChangeLog, times(1)).createdAll(List.of(john));
+    }
+
+    /**
+     * Tests the addUsers method when the unique constraint rejects the write but none of the names is taken.
+     * Verifies that the batch fails instead of being retried.
+     */
+    @Test
+    void testAddUsers_ConstraintViolationWithoutTakenNames() {
+        when(userRepository.findByFirstNameInAndLastNameIn(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(userRepository.saveAllAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("uk_user_first_name_last_name"));
+
+        assertThrows(DataAccessFailureException.class,
+                () -> userBatchService.addUsers(List.of(new User("John", "Doe", "1234567890"))));
+        verify(userRepository, times(1)).saveAllAndFlush(any());
+    }
+
+    /**
+     * Tests the addUsers method with an empty batch.
+     */
+    @Test
+    void testAddUsers_EmptyBatch() {
+        assertThrows(InvalidResourceArgumentException.class, () -> userBatchService.addUsers(List.of()));
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the addUsers method with a batch larger than the maximum batch size.
+     */
+    @Test
+    void testAddUsers_BatchTooLarge() {
+        List<User> users =
+                Collections.nCopies(UserBatchService.MAX_BATCH_SIZE + 1, new User("John", "Doe", "1234567890"));
+
+        assertThrows(InvalidResourceArgumentException.class, () -> userBatchService.addUsers(users));
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the addUsers method when the database write fails.
+     */
+    @Test
+    void testAddUsers_DataAccessFailure() {
+        when(userRepository.saveAllAndFlush(any())).thenThrow(new RuntimeException("Database is down"));
+
+        assertThrows(DataAccessFailureException.class,
+                () -> userBatchService.addUsers(List.of(new User("John", "Doe", "1234567890"))));
+    }
+
+    /**
+     * Tests the updateUsers method with a mix of existing, missing and invalid users.
+     * Verifies that the loaded entities are modified and flushed once.
+     */
+    @Test
+    void testUpdateUsers_PartialSuccess() throws InvalidResourceArgumentException, DataAccessFailureException {
+        User update = new User("John", "Smith", "1234567890");
+        update.setUserId(1L);
+        User missing = new User("Jane", "Doe", "0987654321");
+        missing.setUserId(2L);
+        User noId = new User("Alice", "Smith", "1122334455");
+
+        User existing = new User("John", "Doe", "1234567890");
+        existing.setUserId(1L);
+
+        when(userRepository.findByUserIdIn(anyCollection())).thenReturn(List.of(existing));
+
+        BatchResult result = userBatchService.updateUsers(List.of(update, missing, noId));
+
+        assertEquals(1, result.succeeded());
+        assertEquals(Status.UPDATED, result.results().get(0).status());
+        assertEquals(Status.NOT_FOUND, result.results().get(1).status());
+        assertEquals(Status.INVALID, result.results().get(2).status());
+        assertEquals("Smith", existing.getLastName());
+        verify(userRepository, times(1)).flush();
+        verify(userChangeLog, times(1)).updatedAll(List.of(existing));
+        verify(userNameIndex, times(1)).remove("John", "Doe");
+        verify(userNameIndex, times(1)).add("John", "Smith");
+    }
+
+    /**
+     * Tests the updateUsers method when a user is renamed to the name of a user outside the batch.
+     * Verifies that the update is reported as a duplicate while the rest of the batch is written.
+     */
+    @Test
+    void testUpdateUsers_NameTaken() throws InvalidResourceArgumentException, DataAccessFailureException {
+        User rename = new User("Alice", "Smith", "1234567890");
+        rename.setUserId(1L);
+        User update = new User("Jane", "Doe", "0987654321");
+        update.setUserId(2L);
+
+        User john = new User("John", "Doe", "1234567890");
+        john.setUserId(1L);
+        User jane = new User("Jane", "Doe", "1122334455");
+        jane.setUserId(2L);
+        User alice = new User("Alice", "Smith", "5566778899");
+        alice.setUserId(3L);
+
+        when(userRepository.findByUserIdIn(anyCollection())).thenReturn(List.of(john, jane));
+        when(userRepository.findByFirstNameInAndLastNameIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(jane, alice));
+
+        BatchResult result = userBatchService.updateUsers(List.of(rename, update));
+
+        assertEquals(Status.DUPLICATE, result.results().get(0).status());
+        assertEquals(Status.UPDATED, result.results().get(1).status());
+        assertEquals("John", john.getFirstName());
+        assertEquals("0987654321", jane.getContactNumber());
+        verify(userChangeLog, times(1)).updatedAll(List.of(jane));
+        verify(userNameIndex, never()).add("Alice", "Smith");
+    }
+
+    /**
+     * Tests the updateUsers method when two users swap names.
+     * Verifies that both are updated, with one of them renamed to a placeholder in a first flush.
+     */
+    @Test
+    void testUpdateUsers_SwapNames() throws InvalidResourceArgumentException, DataAccessFailureException {
+        User first = new User("Jane", "Doe", "1234567890");
+        first.setUserId(1L);
+        User second = new User("John", "Doe", "0987654321");
+        second.setUserId(2L);
+
+        User john = new User("John", "Doe", "1234567890");
+        john.setUserId(1L);
+        User jane = new User("Jane", "Doe", "0987654321");
+        jane.setUserId(2L);
+
+        when(userRepository.findByUserIdIn(anyCollection())).thenReturn(List.of(john, jane));
+        when(userRepository.findByFirstNameInAndLastNameIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(john, jane));
+
+        BatchResult result = userBatchService.updateUsers(List.of(first, second));
+
+        assertEquals(2, result.succeeded());
+        assertEquals("Jane", john.getFirstName());
+        assertEquals("John", jane.getFirstName());
+        verify(userRepository, times(2)).flush();
+    }
+
+    /**
+     * Tests the deleteUsers method with a mix of existing, missing and repeated IDs.
+     * Verifies that the existing users are deleted in a single statement.
+     */
+    @Test
+    void testDeleteUsers_PartialSuccess() throws InvalidResourceArgumentException, DataAccessFailureException {
+        when(userRepository.findExistingUserIds(anyCollection())).thenReturn(List.of(1L));
+        when(userRepository.deleteByUserIdIn(List.of(1L))).thenReturn(1);
+
+        BatchResult result = userBatchService.deleteUsers(Arrays.asList(1L, 2L, 1L, null));
+
+        assertEquals(1, result.succeeded());
+        assertEquals(Status.DELETED, result.results().get(0).status());
+        assertEquals(Status.NOT_FOUND, result.results().get(1).status());
+        assertEquals(Status.INVALID, result.results().get(2).status());
+        assertEquals(Status.INVALID, result.results().get(3).status());
+        verify(userRepository, times(1)).deleteByUserIdIn(List.of(1L));
+        verify(userChangeLog, times(1)).deletedAll(List.of(1L));
+    }
+
+    /**
+     * Tests the deleteUsers method when none of the IDs exist.
+     * Verifies that no delete statement is issued.
+     */
+    @Test
+    void testDeleteUsers_NoneFound() throws InvalidResourceArgumentException, DataAccessFailureException {
+        when(userRepository.findExistingUserIds(anyCollection())).thenReturn(List.of());
+
+        BatchResult result = userBatchService.deleteUsers(List.of(1L));
+
+        assertEquals(0, result.succeeded());
+        assertEquals(Status.NOT_FOUND, result.results().get(0).status());
+        verify(userRepository, never()).deleteByUserIdIn(anyCollection());
+        verifyNoInteractions(userChangeLog);
+    }
+}
@@ -0,0 +1,195 @@
+package com.kamo.user_crud.services;
+
+import com.kamo.user_crud.entities.UserChangeEvent;
+import com.kamo.user_crud.entities.UserChangeEvent.Type;
+import com.kamo.user_crud.entities.UserChangePosition;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import com.kamo.user_crud.repositories.UserChangeEventRepository;
+import com.kamo.user_crud.repositories.UserChangePositionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the UserChangeDispatcher class.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserChangeDispatcherTest {
+
+    @Mock
+    private UserChangeEventRepository userChangeEventRepository;
+
+    @Mock
+    private UserChangePositionRepository userChangePositionRepository;
+
+    private final UserChangePosition position = new UserChangePosition(UserChangePosition.ID, 5L);
+
+    private final List<Runnable> pendingSends = new ArrayList<>();
+
+    private UserChangeDispatcher userChangeDispatcher;
+
+    /**
+     * Sets up a dispatcher that resumes after 5 previously published events, and whose sends run when the test runs
+     * them.
+     */
+    @BeforeEach
+    void setUp() {
+        userChangeDispatcher = new UserChangeDispatcher(userChangeEventRepository, userChangePositionRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 100, Duration.ofMinutes(1),
+                Duration.ofSeconds(15), pendingSends::add);
+
+        when(userChangePositionRepository.findById(UserChangePosition.ID)).thenReturn(Optional.of(position));
+        lenient().when(userChangePositionRepository.findLockedById(UserChangePosition.ID))
+                .thenReturn(Optional.of(position));
+        lenient().when(userChangeEventRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        userChangeDispatcher.init();
+    }
+
+    /**
+     * Tests that undispatched events are assigned the next positions in the order they were written.
+     */
+    @Test
+    void testDispatch_AssignsPositions() {
+        UserChangeEvent first = new UserChangeEvent(1L, Type.CREATED, 0L, "{}");
+        UserChangeEvent second = new UserChangeEvent(1L, Type.DELETED, null, null);
+        when(userChangeEventRepository.findByPositionIsNullOrderByEventIdAsc(Limit.of(100)))
+                .thenReturn(List.of(first, second));
+
+        userChangeDispatcher.dispatch();
+
+        assertEquals(6L, first.getPosition());
+        assertEquals(7L, second.getPosition());
+        assertEquals(7L, position.getPosition());
+        assertEquals(7L, userChangeDispatcher.getLastPosition());
+    }
+
+    /**
+     * Tests that positions continue from the position in the database, which another instance may have advanced,
+     * rather than from the last position this instance published.
+     */
+    @Test
+    void testDispatch_ContinuesFromDatabasePosition() {
+        UserChangeEvent event = new UserChangeEvent(1L, Type.CREATED, 0L, "{}");
+        when(userChangeEventRepository.findByPositionIsNullOrderByEventIdAsc(Limit.of(100)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(event));
+
+        position.setPosition(9L);
+        userChangeDispatcher.dispatch();
+
+        assertEquals(9L, userChangeDispatcher.getLastPosition());
+
+        userChangeDispatcher.dispatch();
+
+        assertEquals(10L, event.getPosition());
+        assertEquals(10L, userChangeDispatcher.getLastPosition());
+    }
+
+    /**
+     * Tests that the position row is created from the outbox when the schema was created without it.
+     */
+    @Test
+    void testInit_CreatesPosition() {
+        when(userChangePositionRepository.findById(UserChangePosition.ID)).thenReturn(Optional.empty());
+        when(userChangeEventRepository.findMaxPosition()).thenReturn(3L);
+        when(userChangePositionRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userChangeDispatcher.init();
+
+        assertEquals(3L, userChangeDispatcher.getLastPosition());
+        verify(userChangePositionRepository).saveAndFlush(new UserChangePosition(UserChangePosition.ID, 3L));
+    }
+
+    /**
+     * Tests that a subscriber that is up to date is sent the newly published events without another query.
+     */
+    @Test
+    void testDispatch_LiveSubscriber() throws InvalidResourceArgumentException {
+        when(userChangeEventRepository.findByPositionIsNullOrderByEventIdAsc(any()))
+                .thenReturn(List.of(new UserChangeEvent(1L, Type.CREATED, 0L, "{}")));
+
+        userChangeDispatcher.subscribe(null);
+        userChangeDispatcher.dispatch();
+        pendingSends.forEach(Runnable::run);
+
+        assertEquals(6L, userChangeDispatcher.getLastPosition());
+        verify(userChangeEventRepository, never()).findByPositionGreaterThanOrderByPositionAsc(anyLong(), any());
+    }
+
+    /**
+     * Tests that a subscriber whose previous send has not finished is skipped rather than waited for, and is sent to
+     * again once it has.
+     */
+    @Test
+    void testDispatch_SlowSubscriber() throws InvalidResourceArgumentException {
+        when(userChangeEventRepository.findByPositionIsNullOrderByEventIdAsc(any())).thenReturn(List.of());
+
+        userChangeDispatcher.subscribe(null);
+        userChangeDispatcher.dispatch();
+        userChangeDispatcher.dispatch();
+
+        assertEquals(1, pendingSends.size());
+
+        pendingSends.remove(0).run();
+        userChangeDispatcher.dispatch();
+
+        assertEquals(1, pendingSends.size());
+    }
+
+    /**
+     * Tests that a subscriber that resumes from an earlier position catches up from the database.
+     */
+    @Test
+    void testDispatch_CatchUpSubscriber() throws InvalidResourceArgumentException {
+        UserChangeEvent event = new UserChangeEvent(1L, Type.CREATED, 0L, "{}");
+        event.setPosition(3L);
+        when(userChangeEventRepository.findByPositionIsNullOrderByEventIdAsc(any())).thenReturn(List.of());
+        when(userChangeEventRepository.findByPositionGreaterThanOrderByPositionAsc(2L, Limit.of(100)))
+                .thenReturn(List.of(event));
+
+        userChangeDispatcher.subscribe(2L);
+        userChangeDispatcher.dispatch();
+        pendingSends.forEach(Runnable::run);
+
+        verify(userChangeEventRepository, times(1)).findByPositionGreaterThanOrderByPositionAsc(2L, Limit.of(100));
+    }
+
+    /**
+     * Tests that a negative position is rejected.
+     */
+    @Test
+    void testSubscribe_NegativePosition() {
+        assertThrows(InvalidResourceArgumentException.class, () -> userChangeDispatcher.subscribe(-1L));
+    }
+
+    /**
+     * Tests that the number of subscribers and the last position are published as gauges.
+     */
+    @Test
+    void testBindTo() throws InvalidResourceArgumentException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        userChangeDispatcher.bindTo(registry);
+
+        userChangeDispatcher.subscribe(null);
+
+        assertEquals(1, registry.get("user.changes.subscribers").gauge().value());
+        assertEquals(5, registry.get("user.changes.position").gauge().value());
+    }
+}
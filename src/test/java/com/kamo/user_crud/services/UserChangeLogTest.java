@@ -0,0 +1,98 @@
+package com.kamo.user_crud.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kamo.user_crud.dtos.UserPatch;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.entities.UserChangeEvent;
+import com.kamo.user_crud.entities.UserChangeEvent.Type;
+import com.kamo.user_crud.repositories.UserChangeEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for the UserChangeLog class.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserChangeLogTest {
+
+    @Mock
+    private UserChangeEventRepository userChangeEventRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private UserChangeLog userChangeLog;
+
+    @Captor
+    private ArgumentCaptor<List<UserChangeEvent>> eventsCaptor;
+
+    /**
+     * Tests that an added user is recorded with its ID, version and JSON representation.
+     */
+    @Test
+    void testCreated() {
+        User user = new User("John", "Doe", "1234567890");
+        user.setUserId(1L);
+        user.setVersion(0L);
+
+        userChangeLog.created(user);
+
+        UserChangeEvent event = savedEvent();
+        assertEquals(1L, event.getUserId());
+        assertEquals(Type.CREATED, event.getType());
+        assertEquals(0L, event.getVersion());
+        assertNull(event.getPosition());
+        assertNotNull(event.getOccurredAt());
+        assertTrue(event.getPayload().contains("\"firstName\":\"John\""));
+        assertFalse(event.getPayload().contains("firstNameLower"));
+    }
+
+    /**
+     * Tests that a patch is recorded with only the changed attributes, including removed ones.
+     */
+    @Test
+    void testPatched() {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("contactNumber", null);
+
+        userChangeLog.patched(1L, UserPatch.of(changes), 4L);
+
+        UserChangeEvent event = savedEvent();
+        assertEquals(Type.PATCHED, event.getType());
+        assertEquals(4L, event.getVersion());
+        assertEquals("{\"contactNumber\":null}", event.getPayload());
+    }
+
+    /**
+     * Tests that deleted users are recorded without a payload.
+     */
+    @Test
+    void testDeletedAll() {
+        userChangeLog.deletedAll(List.of(1L, 2L));
+
+        verify(userChangeEventRepository).saveAll(eventsCaptor.capture());
+        assertEquals(List.of(1L, 2L), eventsCaptor.getValue().stream().map(UserChangeEvent::getUserId).toList());
+        assertTrue(eventsCaptor.getValue().stream()
+                .allMatch(event -> event.getType() == Type.DELETED && event.getPayload() == null));
+    }
+
+    private UserChangeEvent savedEvent() {
+        ArgumentCaptor<UserChangeEvent> captor = ArgumentCaptor.forClass(UserChangeEvent.class);
+        verify(userChangeEventRepository).save(captor.capture());
+        return captor.getValue();
+    }
+}
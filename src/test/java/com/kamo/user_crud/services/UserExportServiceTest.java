@@ -0,0 +1,96 @@
+package com.kamo.user_crud.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kamo.user_crud.dtos.UserDataFormat;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the UserExportService class.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserExportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private UserExportService userExportService;
+
+    /**
+     * Tests that users are written as one JSON object per line and detached once written.
+     */
+    @Test
+    void testExportUsers_Ndjson() throws IOException {
+        User john = user(1L, "John", "Doe", "+27 123 456 789");
+        User jane = user(2L, "Jane", "Doe", "+98 765 432 100");
+        when(userRepository.streamAllByOrderByUserIdAsc()).thenReturn(Stream.of(john, jane));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = userExportService.exportUsers(UserDataFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{\"userId\":1,\"firstName\":\"John\""));
+        assertTrue(lines[1].startsWith("{\"userId\":2,\"firstName\":\"Jane\""));
+        assertEquals("", lines[2]);
+        verify(entityManager).detach(john);
+        verify(entityManager).detach(jane);
+    }
+
+    /**
+     * Tests that users are written as CSV with a header row, quoting values where needed.
+     */
+    @Test
+    void testExportUsers_Csv() throws IOException {
+        User user = user(1L, "Alice \"Al\"", "Smith, Jr.", "+27 123 456 789");
+        when(userRepository.streamAllByOrderByUserIdAsc()).thenReturn(Stream.of(user));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = userExportService.exportUsers(UserDataFormat.CSV, out);
+
+        assertEquals(1, count);
+        assertEquals("userId,firstName,lastName,contactNumber,version\n"
+                + "1,\"Alice \"\"Al\"\"\",\"Smith, Jr.\",+27 123 456 789,0\n", out.toString(StandardCharsets.UTF_8));
+        verify(entityManager).detach(user);
+    }
+
+    /**
+     * Tests that exported CSV values are read back unchanged by the importer.
+     */
+    @Test
+    void testCsvValue_RoundTrip() {
+        for (String value : new String[] {"Doe", "Smith, Jr.", "\"Al\"", " padded ", ""}) {
+            assertEquals(value, UserImportService.parseCsv(UserExportService.csvValue(value)).get(0));
+        }
+    }
+
+    private static User user(Long userId, String firstName, String lastName, String contactNumber) {
+        User user = new User(firstName, lastName, contactNumber);
+        user.setUserId(userId);
+        user.setVersion(0L);
+        return user;
+    }
+}
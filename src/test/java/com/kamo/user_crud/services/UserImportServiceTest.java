@@ -0,0 +1,185 @@
+package com.kamo.user_crud.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kamo.user_crud.dtos.BatchItemResult;
+import com.kamo.user_crud.dtos.BatchItemResult.Status;
+import com.kamo.user_crud.dtos.BatchResult;
+import com.kamo.user_crud.dtos.ImportReport;
+import com.kamo.user_crud.dtos.UserDataFormat;
+import com.kamo.user_crud.entities.User;
+import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the UserImportService class.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    @Mock
+    private UserBatchService userBatchService;
+
+    @Captor
+    private ArgumentCaptor<List<User>> captor;
+
+    private final List<User> written = new ArrayList<>();
+
+    private UserImportService userImportService;
+
+    /**
+     * Sets up an import service that writes chunks of 2 rows, creating every user except Jane Doe, who already
+     * exists. Rejected files never reach the batch service, so the stub is lenient.
+     */
+    @BeforeEach
+    void setUp() {
+        userImportService = new UserImportService(userBatchService, new ObjectMapper(), 2, 2);
+
+        lenient().when(userBatchService.addUsers(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            List<BatchItemResult> results = new ArrayList<>();
+
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+
+                if (user.getFirstName().equals("Jane")) {
+                    results.add(new BatchItemResult(i, Status.DUPLICATE, null,
+                            "User with the same first name and last name already exists."));
+                } else {
+                    written.add(user);
+                    results.add(new BatchItemResult(i, Status.CREATED, (long) written.size(), null));
+                }
+            }
+
+            return BatchResult.of(results);
+        });
+    }
+
+    /**
+     * Shuts down the validation threads.
+     */
+    @AfterEach
+    void tearDown() {
+        userImportService.shutdown();
+    }
+
+    /**
+     * Tests a CSV import with reordered columns, quoted values, blank lines and rejected rows.
+     * Verifies that the rows are written in chunks and in order, and that every outcome is counted.
+     */
+    @Test
+    void testImportUsers_Csv() {
+        String csv = """
+                contactNumber,lastName,firstName
+                +27 123 456 789,Doe,John
+
+                "+27 123 456 780","Smith, Jr.","Alice ""Al""\"
+                invalid,Doe,Bob
+                +98 765 432 100,Doe,Jane
+                +27 123 456 781,Brown
+                """;
+
+        ImportReport report = userImportService.importUsers(stream(csv), UserDataFormat.CSV, 0);
+
+        assertEquals(0, report.skipped());
+        assertEquals(5, report.processed());
+        assertEquals(2, report.created());
+        assertEquals(1, report.duplicates());
+        assertEquals(2, report.invalid());
+        assertEquals(List.of("Line 5: Invalid phone number format for user.",
+                "Line 6: User with the same first name and last name already exists.",
+                "Line 7: Expected 3 columns but found 2."), report.errors());
+        assertEquals("Alice \"Al\"", written.get(1).getFirstName());
+        assertEquals("Smith, Jr.", written.get(1).getLastName());
+        verify(userBatchService, times(2)).addUsers(anyList());
+    }
+
+    /**
+     * Tests an NDJSON import with a malformed row.
+     */
+    @Test
+    void testImportUsers_Ndjson() {
+        String ndjson = """
+                {"firstName": "John", "lastName": "Doe", "contactNumber": "+27 123 456 789"}
+                {"firstName": "Alice",
+                """;
+
+        ImportReport report = userImportService.importUsers(stream(ndjson), UserDataFormat.NDJSON, 0);
+
+        assertEquals(2, report.processed());
+        assertEquals(1, report.created());
+        assertEquals(List.of("Line 2: Malformed JSON."), report.errors());
+        assertEquals("John", written.get(0).getFirstName());
+    }
+
+    /**
+     * Tests that rows are skipped before importing, and that a negative number of rows to skip is rejected.
+     */
+    @Test
+    void testImportUsers_Skip() {
+        String csv = "firstName,lastName,contactNumber\nJohn,Doe,+27 123 456 789\nAlice,Doe,+27 123 456 780\n";
+
+        ImportReport report = userImportService.importUsers(stream(csv), UserDataFormat.CSV, 1);
+
+        assertEquals(1, report.skipped());
+        assertEquals(1, report.processed());
+        assertEquals("Alice", written.get(0).getFirstName());
+        assertThrows(InvalidResourceArgumentException.class,
+                () -> userImportService.importUsers(stream(csv), UserDataFormat.CSV, -1));
+    }
+
+    /**
+     * Tests that a CSV document without the required columns is rejected before anything is written.
+     */
+    @Test
+    void testImportUsers_MissingColumns() {
+        assertThrows(InvalidResourceArgumentException.class,
+                () -> userImportService.importUsers(stream("firstName,lastName\nJohn,Doe\n"), UserDataFormat.CSV,
+                        0));
+        verifyNoInteractions(userBatchService);
+    }
+
+    /**
+     * Tests that a file import resumes after the rows recorded in its checkpoint, and deletes the checkpoint once it
+     * completes.
+     */
+    @Test
+    void testImportUsers_ResumesFromCheckpoint(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("users.csv"), "firstName,lastName,contactNumber\n"
+                + "John,Doe,+27 123 456 789\nAlice,Doe,+27 123 456 780\nBob,Doe,+27 123 456 781\n");
+        Path checkpoint = directory.resolve("users.csv" + UserImportService.CHECKPOINT_SUFFIX);
+        Files.writeString(checkpoint, "2");
+
+        ImportReport report = userImportService.importUsers(file);
+
+        assertEquals(2, report.skipped());
+        assertEquals(1, report.processed());
+        verify(userBatchService).addUsers(captor.capture());
+        assertEquals("Bob", captor.getValue().get(0).getFirstName());
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,20 +1,38 @@
 package com.kamo.user_crud.services;
 
+import com.kamo.user_crud.caches.UserCache;
+import com.kamo.user_crud.caches.UserIdFilter;
+import com.kamo.user_crud.caches.UserNameIndex;
+import com.kamo.user_crud.dtos.UserPage;
+import com.kamo.user_crud.dtos.UserPatch;
 import com.kamo.user_crud.entities.User;
 import com.kamo.user_crud.exceptions.DataAccessFailureException;
 import com.kamo.user_crud.exceptions.InvalidResourceArgumentException;
 import com.kamo.user_crud.exceptions.ResourceAlreadyExistsException;
 import com.kamo.user_crud.exceptions.ResourceNotFoundException;
+import com.kamo.user_crud.exceptions.ResourceVersionMismatchException;
+import com.kamo.user_crud.metrics.UserOperationMetrics;
 import com.kamo.user_crud.repositories.UserRepository;
 import com.kamo.user_crud.validators.ContactNumberValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -26,9 +44,34 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private UserIdFilter userIdFilter;
+
+    @Mock
+    private UserNameIndex userNameIndex;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private UserOperationMetrics userOperationMetrics = new UserOperationMetrics(meterRegistry);
+
+    @Mock
+    private UserChangeLog userChangeLog;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private UserService userService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(userIdFilter.lookup(anyLong())).thenReturn(UserIdFilter.Membership.POSSIBLE);
+    }
+
     /**
      * Tests the addUser method when a user is successfully added.
      */
@@ -36,13 +79,56 @@ class UserServiceTest {
     void testAddUser_Success() throws InvalidResourceArgumentException, DataAccessFailureException, ResourceAlreadyExistsException {
         User user = new User("John", "Doe", "1234567890");
 
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+            user.setUserId(1L);
+            return user;
+        });
 
         User result = userService.addUser(user);
 
         assertNotNull(result);
         assertEquals(user.getFirstName(), result.getFirstName());
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, times(1)).saveAndFlush(user);
+        verify(userRepository, never()).existsByFirstNameAndLastName(any(), any());
+        verify(userChangeLog, times(1)).created(user);
+        verify(userIdFilter, times(1)).add(1L);
+        verify(userNameIndex, times(1)).add("John", "Doe");
+    }
+
+    /**
+     * Tests the addUser method when the name index holds the name and the database confirms it.
+     * Verifies that the insert is not attempted.
+     */
+    @Test
+    void testAddUser_DuplicateFromNameIndex() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userNameIndex.contains("John", "Doe")).thenReturn(true);
+        when(userRepository.existsByFirstNameAndLastName("John", "Doe")).thenReturn(true);
+
+        assertThrows(ResourceAlreadyExistsException.class, () -> userService.addUser(user));
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    /**
+     * Tests the addUser method when the name index holds a name the database no longer has.
+     * Verifies that the stale name is removed and the user is added.
+     */
+    @Test
+    void testAddUser_StaleNameIndex()
+            throws InvalidResourceArgumentException, DataAccessFailureException, ResourceAlreadyExistsException {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userNameIndex.contains("John", "Doe")).thenReturn(true);
+        when(userRepository.existsByFirstNameAndLastName("John", "Doe")).thenReturn(false);
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+            user.setUserId(1L);
+            return user;
+        });
+
+        assertSame(user, userService.addUser(user));
+        verify(userNameIndex, times(1)).removeStale("John", "Doe");
+        verify(userNameIndex, times(1)).add("John", "Doe");
     }
 
     /**
@@ -55,20 +141,34 @@ class UserServiceTest {
         assertFalse(ContactNumberValidator.isValid(user.getContactNumber()));
 
         assertThrows(InvalidResourceArgumentException.class, () -> userService.addUser(user));
-        verify(userRepository, never()).save(user);
+        verify(userRepository, never()).saveAndFlush(user);
     }
 
     /**
      * Tests the addUser method when a user already exists.
+     * Verifies that the unique constraint violation is reported as an existing resource, and the name is indexed.
      */
     @Test
     void testAddUser_AlreadyExists() {
         User user = new User("John", "Doe", "1234567890");
 
-        when(userRepository.existsByFirstNameAndLastName(user.getFirstName(), user.getLastName())).thenReturn(true);
+        when(userRepository.saveAndFlush(user))
+                .thenThrow(new DataIntegrityViolationException("Unique index violation"));
 
         assertThrows(ResourceAlreadyExistsException.class, () -> userService.addUser(user));
-        verify(userRepository, never()).save(user);
+        verify(userNameIndex, times(1)).add("John", "Doe");
+    }
+
+    /**
+     * Tests the addUser method when the database write fails for another reason.
+     */
+    @Test
+    void testAddUser_DataAccessFailure() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userRepository.saveAndFlush(user)).thenThrow(new RuntimeException("Database is down"));
+
+        assertThrows(DataAccessFailureException.class, () -> userService.addUser(user));
     }
 
     /**
@@ -77,13 +177,29 @@ class UserServiceTest {
     @Test
     void testGetUser_Success() throws ResourceNotFoundException {
         User user = new User("John", "Doe", "1234567890");
-        when(userRepository.findById("1")).thenReturn(Optional.of(user));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
-        User result = userService.getUser("1");
+        User result = userService.getUser(1L);
 
         assertNotNull(result);
         assertEquals(user.getFirstName(), result.getFirstName());
-        verify(userRepository, times(1)).findById("1");
+        verify(userRepository, times(1)).findById(1L);
+        verify(userCache, times(1)).put(eq(user), anyLong());
+    }
+
+    /**
+     * Tests the getUser method when the user is cached.
+     * Verifies that the database is not queried.
+     */
+    @Test
+    void testGetUser_CacheHit() throws ResourceNotFoundException {
+        User user = new User("John", "Doe", "1234567890");
+        when(userCache.get(1L)).thenReturn(Optional.of(user));
+
+        User result = userService.getUser(1L);
+
+        assertSame(user, result);
+        verify(userRepository, never()).findById(1L);
     }
 
     /**
@@ -91,10 +207,40 @@ class UserServiceTest {
      */
     @Test
     void testGetUser_NotFound() {
-        when(userRepository.findById("1")).thenReturn(Optional.empty());
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> userService.getUser("1"));
-        verify(userRepository, times(1)).findById("1");
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUser(1L));
+        verify(userRepository, times(1)).findById(1L);
+        verify(userIdFilter, times(1)).recordFalsePositive();
+        assertEquals(1, meterRegistry.get(UserOperationMetrics.METRIC_NAME)
+                .tag("operation", "get").tag("outcome", UserOperationMetrics.NOT_FOUND).timer().count());
+    }
+
+    /**
+     * Tests that a missing user the ID filter could not answer for, such as one above the highest ID it holds, is not
+     * counted as a false positive of the filter.
+     */
+    @Test
+    void testGetUser_NotFoundUnknownToFilter() {
+        when(userIdFilter.lookup(1L)).thenReturn(UserIdFilter.Membership.UNKNOWN);
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUser(1L));
+        verify(userIdFilter, never()).recordFalsePositive();
+    }
+
+    /**
+     * Tests the getUser method when the ID filter reports that the user does not exist.
+     * Verifies that neither the cache nor the database is queried.
+     */
+    @Test
+    void testGetUser_FilteredOut() {
+        when(userIdFilter.lookup(1L)).thenReturn(UserIdFilter.Membership.ABSENT);
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUser(1L));
+        verifyNoInteractions(userRepository, userCache);
+        assertEquals(1, meterRegistry.get(UserOperationMetrics.METRIC_NAME)
+                .tag("operation", "get").tag("outcome", UserOperationMetrics.NOT_FOUND).timer().count());
     }
 
     /**
@@ -102,15 +248,15 @@ class UserServiceTest {
      */
     @Test
     void testDeleteUser_Success() throws ResourceNotFoundException, DataAccessFailureException {
-        when(userRepository.existsById("1")).thenReturn(true);
-
-        doNothing().when(userRepository).deleteById("1");
+        when(userRepository.deleteByUserId(1L)).thenReturn(1);
 
-        boolean result = userService.deleteUser("1");
+        boolean result = userService.deleteUser(1L);
 
         assertTrue(result);
-        verify(userRepository, times(1)).existsById("1");
-        verify(userRepository, times(1)).deleteById("1");
+        verify(userRepository, never()).existsById(any());
+        verify(userRepository, times(1)).deleteByUserId(1L);
+        verify(userCache, times(1)).invalidate(1L);
+        verify(userChangeLog, times(1)).deleted(1L);
     }
 
     /**
@@ -118,10 +264,11 @@ class UserServiceTest {
      */
     @Test
     void testDeleteUser_NotFound() {
-        when(userRepository.existsById("1")).thenReturn(false);
+        when(userRepository.deleteByUserId(1L)).thenReturn(0);
 
-        assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser("1"));
-        verify(userRepository, never()).deleteById("1");
+        assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser(1L));
+        verify(userCache, never()).invalidate(any());
+        verifyNoInteractions(userChangeLog);
     }
 
     /**
@@ -131,14 +278,19 @@ class UserServiceTest {
     void testUpdateUser_Success() throws ResourceNotFoundException, InvalidResourceArgumentException, DataAccessFailureException {
         User user = new User("John", "Doe", "1234567890");
 
-        when(userRepository.existsById("1")).thenReturn(true);
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.updateByUserId(1L, user)).thenReturn(1);
+        when(userRepository.findVersionByUserId(1L)).thenReturn(2L);
 
-        User result = userService.updateUser("1", user);
+        User result = userService.updateUser(1L, user);
 
         assertNotNull(result);
+        assertEquals(1L, result.getUserId());
+        assertEquals(2L, result.getVersion());
         assertEquals(user.getFirstName(), result.getFirstName());
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, never()).existsById(any());
+        verify(userRepository, never()).save(any());
+        verify(userCache, times(1)).invalidate(1L, 2L);
+        verify(userChangeLog, times(1)).updated(user);
     }
 
     /**
@@ -148,10 +300,167 @@ class UserServiceTest {
     void testUpdateUser_NotFound() {
         User user = new User("John", "Doe", "1234567890");
 
-        when(userRepository.existsById("1")).thenReturn(false);
+        when(userRepository.updateByUserId(1L, user)).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.updateUser(1L, user));
+        verify(userCache, never()).invalidate(any(), any());
+        verifyNoInteractions(userChangeLog);
+    }
+
+    /**
+     * Tests the updateUser method when the new name is already taken by another user.
+     */
+    @Test
+    void testUpdateUser_AlreadyExists() {
+        User user = new User("Jane", "Doe", "1234567890");
+
+        when(userRepository.updateByUserId(1L, user))
+                .thenThrow(new DataIntegrityViolationException("Unique index violation"));
+
+        assertThrows(ResourceAlreadyExistsException.class, () -> userService.updateUser(1L, user));
+    }
+
+    /**
+     * Tests the updateUser method with an expected version, which is checked by the UPDATE statement and incremented.
+     */
+    @Test
+    void testUpdateUser_ExpectedVersion() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userRepository.updateByUserIdAndVersion(1L, 3L, user)).thenReturn(1);
+
+        User result = userService.updateUser(1L, user, 3L);
+
+        assertEquals(4L, result.getVersion());
+        verify(userRepository, never()).updateByUserId(anyLong(), any());
+        verify(userRepository, never()).findVersionByUserId(any());
+        verify(userRepository, never()).existsById(any());
+        verify(userCache, times(1)).invalidate(1L, 4L);
+    }
+
+    /**
+     * Tests the updateUser method when the user exists at another version than the expected one.
+     */
+    @Test
+    void testUpdateUser_VersionMismatch() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userRepository.updateByUserIdAndVersion(1L, 3L, user)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(ResourceVersionMismatchException.class, () -> userService.updateUser(1L, user, 3L));
+        verify(userCache, never()).invalidate(any(), any());
+        assertEquals(1, meterRegistry.get(UserOperationMetrics.METRIC_NAME)
+                .tag("operation", "update").tag("outcome", UserOperationMetrics.VERSION_MISMATCH).timer().count());
+    }
+
+    /**
+     * Tests the updateUser method with an expected version when the user does not exist.
+     */
+    @Test
+    void testUpdateUser_ExpectedVersionNotFound() {
+        User user = new User("John", "Doe", "1234567890");
+
+        when(userRepository.updateByUserIdAndVersion(1L, 3L, user)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.updateUser(1L, user, 3L));
+    }
+
+    /**
+     * Tests the deleteUser method when the user exists at another version than the expected one.
+     */
+    @Test
+    void testDeleteUser_VersionMismatch() {
+        when(userRepository.deleteByUserIdAndVersion(1L, 3L)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(ResourceVersionMismatchException.class, () -> userService.deleteUser(1L, 3L));
+        verify(userRepository, never()).deleteByUserId(anyLong());
+        verify(userCache, never()).invalidate(any());
+    }
+
+    /**
+     * Tests the patchUser method, which writes only the changed attributes without loading the user.
+     */
+    @Test
+    void testPatchUser_Success() {
+        when(userRepository.patchByUserId(eq(1L), any(UserPatch.class))).thenReturn(1);
+
+        assertTrue(userService.patchUser(1L, Map.of("contactNumber", "+27 123 456 789"), null));
+        verify(userRepository).patchByUserId(1L, UserPatch.of(Map.of("contactNumber", "+27 123 456 789")));
+        verify(userRepository, never()).findById(any());
+        verify(userCache, times(1)).invalidate(1L, null);
+        verify(userChangeLog, times(1))
+                .patched(1L, UserPatch.of(Map.of("contactNumber", "+27 123 456 789")), null);
+    }
+
+    /**
+     * Tests the patchUser method with a patch that changes only the first name.
+     * Verifies that the full name the user has after the patch is read back and added to the name index.
+     */
+    @Test
+    void testPatchUser_PartialName() {
+        User patched = new User("Jo", "Doe", "1234567890");
+        patched.setUserId(1L);
+
+        when(userRepository.patchByUserId(eq(1L), any(UserPatch.class))).thenReturn(1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(patched));
+
+        assertTrue(userService.patchUser(1L, Map.of("firstName", "Jo"), null));
+        verify(userNameIndex, times(1)).add("Jo", "Doe");
+    }
+
+    /**
+     * Tests the patchUser method when the name it changes to is already taken.
+     * Verifies that the full name, completed from the user, is added to the name index.
+     */
+    @Test
+    void testPatchUser_AlreadyExists() {
+        User user = new User("John", "Doe", "1234567890");
+        user.setUserId(1L);
+
+        when(userRepository.patchByUserId(eq(1L), any(UserPatch.class)))
+                .thenThrow(new DataIntegrityViolationException("Unique index violation"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertThrows(ResourceAlreadyExistsException.class,
+                () -> userService.patchUser(1L, Map.of("firstName", "Jane"), null));
+        verify(userNameIndex, times(1)).add("Jane", "Doe");
+        verify(userCache, never()).invalidate(any(), any());
+    }
+
+    /**
+     * Tests the patchUser method with an invalid contact number, which is validated because it changes.
+     */
+    @Test
+    void testPatchUser_InvalidPhoneNumber() {
+        assertThrows(InvalidResourceArgumentException.class,
+                () -> userService.patchUser(1L, Map.of("contactNumber", "invalid"), null));
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the patchUser method when the user does not exist.
+     */
+    @Test
+    void testPatchUser_NotFound() {
+        when(userRepository.patchByUserId(eq(1L), any(UserPatch.class))).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.patchUser(1L, Map.of("firstName", "Jo"), null));
+        verify(userCache, never()).invalidate(any(), any());
+    }
+
+    /**
+     * Tests the patchUser method when the user exists at another version than the expected one.
+     */
+    @Test
+    void testPatchUser_VersionMismatch() {
+        when(userRepository.patchByUserIdAndVersion(eq(1L), eq(3L), any(UserPatch.class))).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
 
-        assertThrows(ResourceNotFoundException.class, () -> userService.updateUser("1", user));
-        verify(userRepository, never()).save(user);
+        assertThrows(ResourceVersionMismatchException.class,
+                () -> userService.patchUser(1L, Map.of("firstName", "Jo"), 3L));
     }
 
     /**
@@ -163,7 +472,133 @@ class UserServiceTest {
 
         assertFalse(ContactNumberValidator.isValid(user.getContactNumber()));
 
-        assertThrows(InvalidResourceArgumentException.class, () -> userService.updateUser("1", user));
-        verify(userRepository, never()).save(user);
+        assertThrows(InvalidResourceArgumentException.class, () -> userService.updateUser(1L, user));
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the findUsersByContactNumber method.
+     * Verifies that the lookup uses the normalized form of the contact number.
+     */
+    @Test
+    void testFindUsersByContactNumber() throws InvalidResourceArgumentException {
+        User user = new User("John", "Doe", "+27 123 456 789");
+        when(userRepository.findByNormalizedContactNumber("27123456789")).thenReturn(List.of(user));
+
+        List<User> result = userService.findUsersByContactNumber("+27 (123) 456-789");
+
+        assertEquals(List.of(user), result);
+    }
+
+    /**
+     * Tests the findUsersByContactNumber method with an invalid contact number.
+     */
+    @Test
+    void testFindUsersByContactNumber_Invalid() {
+        assertThrows(InvalidResourceArgumentException.class, () -> userService.findUsersByContactNumber("invalid"));
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the listUsers method when more users follow the requested page.
+     */
+    @Test
+    void testListUsers_HasNextPage() throws InvalidResourceArgumentException {
+        User user1 = new User("John", "Doe", "1234567890");
+        user1.setUserId(1L);
+        User user2 = new User("Jane", "Doe", "0987654321");
+        user2.setUserId(2L);
+        User user3 = new User("Alice", "Smith", "1122334455");
+        user3.setUserId(3L);
+
+        when(userRepository.findByUserIdGreaterThanOrderByUserIdAsc(0L, Limit.of(3)))
+                .thenReturn(List.of(user1, user2, user3));
+
+        UserPage page = userService.listUsers(null, 2);
+
+        assertEquals(List.of(user1, user2), page.data());
+        assertNotNull(page.nextCursor());
+
+        when(userRepository.findByUserIdGreaterThanOrderByUserIdAsc(2L, Limit.of(3))).thenReturn(List.of(user3));
+
+        UserPage nextPage = userService.listUsers(page.nextCursor(), 2);
+
+        assertEquals(List.of(user3), nextPage.data());
+        assertNull(nextPage.nextCursor());
+    }
+
+    /**
+     * Tests the listUsers method when an out of range page size is requested.
+     */
+    @Test
+    void testListUsers_InvalidLimit() {
+        assertThrows(InvalidResourceArgumentException.class, () -> userService.listUsers(null, 0));
+        assertThrows(InvalidResourceArgumentException.class,
+                () -> userService.listUsers(null, UserService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the listUsers method when a malformed continuation token is provided.
+     */
+    @Test
+    void testListUsers_InvalidCursor() {
+        assertThrows(InvalidResourceArgumentException.class, () -> userService.listUsers("not a cursor!", 10));
+        verifyNoInteractions(userRepository);
+    }
+
+    /**
+     * Tests the searchUsers method when users match on the first name, the last name or both.
+     * Verifies that the matches are merged in ID order without duplicates and paginated.
+     */
+    @Test
+    void testSearchUsers_MergesFirstAndLastNameMatches() throws InvalidResourceArgumentException {
+        User john = user(1L, "John", "Doe");
+        User jo = user(2L, "Jo", "Jones");
+        User bob = user(3L, "Bob", "Johnson");
+
+        when(userRepository.findByFirstNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc("jo", 0L, Limit.of(3)))
+                .thenReturn(List.of(john, jo));
+        when(userRepository.findByLastNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc("jo", 0L, Limit.of(3)))
+                .thenReturn(List.of(jo, bob));
+
+        UserPage page = userService.searchUsers(" Jo ", null, 2);
+
+        assertEquals(List.of(john, jo), page.data());
+        assertNotNull(page.nextCursor());
+    }
+
+    /**
+     * Tests the searchUsers method on the last page of results.
+     */
+    @Test
+    void testSearchUsers_LastPage() throws InvalidResourceArgumentException {
+        User bob = user(3L, "Bob", "Johnson");
+
+        when(userRepository.findByFirstNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc(
+                "jo", 0L, Limit.of(11)))
+                .thenReturn(List.of());
+        when(userRepository.findByLastNameLowerStartingWithAndUserIdGreaterThanOrderByUserIdAsc("jo", 0L, Limit.of(11)))
+                .thenReturn(List.of(bob));
+
+        UserPage page = userService.searchUsers("jo", null, 10);
+
+        assertEquals(List.of(bob), page.data());
+        assertNull(page.nextCursor());
+    }
+
+    /**
+     * Tests the searchUsers method with an empty query.
+     */
+    @Test
+    void testSearchUsers_EmptyQuery() {
+        assertThrows(InvalidResourceArgumentException.class, () -> userService.searchUsers(" ", null, 10));
+        verifyNoInteractions(userRepository);
+    }
+
+    private static User user(Long userId, String firstName, String lastName) {
+        User user = new User(firstName, lastName, "1234567890");
+        user.setUserId(userId);
+        return user;
     }
 }
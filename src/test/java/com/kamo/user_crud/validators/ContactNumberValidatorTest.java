@@ -2,14 +2,20 @@ package com.kamo.user_crud.validators;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+import java.util.regex.Pattern;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * The ContactNumberValidatorTest class provides unit tests for the ContactNumberValidator class.
- * It verifies the behavior of the isValid method for validating contact numbers based on a specific regex pattern.
+ * It verifies the behavior of the isValid method for validating contact numbers.
  */
 class ContactNumberValidatorTest {
 
+    // The regex the validator used to be implemented with, kept as the reference for the differential test
+    private static final Pattern LEGACY_PATTERN = Pattern.compile("^\\+?\s?(?:[0-9]\s?){6,14}[0-9]$");
+
     /**
      * Tests the isValid method with valid contact numbers.
      * Asserts that the method returns true for valid contact numbers.
@@ -83,5 +89,65 @@ class ContactNumberValidatorTest {
                 "Invalid contact number: plus in between digits"
         );
     }
-}
 
+    /**
+     * Tests the isValid method with a missing contact number.
+     * Asserts that the method returns false instead of throwing.
+     */
+    @Test
+    void testNullContactNumber() {
+        assertFalse(ContactNumberValidator.isValid(null), "Invalid contact number: missing");
+    }
+
+    /**
+     * Tests the normalize method.
+     * Asserts that separators and the plus sign are removed and only the digits are kept.
+     */
+    @Test
+    void testNormalize() {
+        assertEquals("27123456789", ContactNumberValidator.normalize("+27 123 456 789"));
+        assertEquals("123456789012", ContactNumberValidator.normalize("+12 (345) 678-9012"));
+        assertEquals("1234567890", ContactNumberValidator.normalize("1234567890"));
+        assertNull(ContactNumberValidator.normalize(null));
+    }
+
+    /**
+     * Tests that the isValid method accepts and rejects exactly the same contact numbers as the regex-based
+     * implementation it replaced, over a large set of random inputs built from digits, separators and other characters.
+     */
+    @Test
+    void testMatchesLegacyRegexImplementation() {
+        String alphabet = "0123456789012345678901234567890123456789 ()-+\t_a.";
+        Random random = new Random(42);
+        int accepted = 0;
+
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder contactNumber = new StringBuilder();
+            int length = random.nextInt(22);
+
+            for (int j = 0; j < length; j++) {
+                contactNumber.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            String input = contactNumber.toString();
+            boolean expected = legacyIsValid(input);
+
+            assertEquals(expected, ContactNumberValidator.isValid(input), "Mismatch for '" + input + "'");
+            accepted += expected ? 1 : 0;
+        }
+
+        // Make sure the random inputs exercise the accepting paths as well as the rejecting ones
+        assertTrue(accepted > 10_000, "Too few valid inputs were generated: " + accepted);
+    }
+
+    /**
+     * The regex-based implementation the validator used to have.
+     *
+     * @param contactNumber The contact number to be validated
+     * @return True if the contact number is valid, false otherwise
+     */
+    private static boolean legacyIsValid(String contactNumber) {
+        contactNumber = contactNumber.replaceAll("[\s\\(\\)-]", "");
+        return LEGACY_PATTERN.matcher(contactNumber).matches();
+    }
+}